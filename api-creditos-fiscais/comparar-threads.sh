@@ -0,0 +1,62 @@
+#!/bin/bash
+
+# ===========================================
+# Comparação: threads de plataforma x threads virtuais
+# ===========================================
+#
+# Sobe a API duas vezes na mesma máquina (uma por modo), aplica a mesma carga com o `hey`
+# (https://github.com/rakyll/hey) e imprime vazão e p99 de cada modo.
+#
+# Pré-requisitos: PostgreSQL e Kafka do docker-compose no ar, `hey` e `curl` no PATH.
+#
+# Uso: ./comparar-threads.sh [requisicoes] [concorrencia] [url]
+
+set -euo pipefail
+
+REQUISICOES=${1:-20000}
+CONCORRENCIA=${2:-400}
+PORTA=${SERVER_PORT:-8050}
+URL=${3:-http://localhost:$PORTA/creditos/7891011}
+JAR=target/javaweb-0.0.1-SNAPSHOT.jar
+
+command -v hey &> /dev/null || { echo "❌ hey não encontrado"; exit 1; }
+[ -f "$JAR" ] || ./mvnw -q -DskipTests package
+
+USUARIO=${USUARIO:-carga}
+SENHA=${SENHA:-carga123}
+
+obter_token() {
+    # Cria o usuário de carga na primeira execução (ignora erro se já existir)
+    curl -s -X POST "http://localhost:$PORTA/usuarios" -H 'Content-Type: application/json' \
+        -d "{\"nome\":\"Carga\",\"login\":\"$USUARIO\",\"senha\":\"$SENHA\"}" > /dev/null
+    curl -s -X POST "http://localhost:$PORTA/usuarios/login" -H 'Content-Type: application/json' \
+        -d "{\"login\":\"$USUARIO\",\"senha\":\"$SENHA\"}" \
+        | sed -n 's/.*"token":"\([^"]*\)".*/\1/p'
+}
+
+executar() {
+    local modo=$1 virtuais=$2
+    SPRING_THREADS_VIRTUAL_ENABLED=$virtuais java -jar "$JAR" > "target/comparacao-$modo.log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:$PORTA/creditos/status" > /dev/null; do sleep 1; done
+
+    local token
+    token=$(obter_token)
+
+    # Aquecimento (JIT, pool de conexões, caches) antes da medição
+    hey -n 2000 -c 50 -H "Authorization: Bearer $token" "$URL" > /dev/null
+    hey -n "$REQUISICOES" -c "$CONCORRENCIA" -H "Authorization: Bearer $token" "$URL" \
+        > "target/comparacao-$modo.txt"
+
+    kill "$pid"; wait "$pid" 2> /dev/null || true
+
+    local vazao p99
+    vazao=$(awk '/Requests\/sec/ {print $2}' "target/comparacao-$modo.txt")
+    p99=$(awk '/ 99% in/ {print $3}' "target/comparacao-$modo.txt")
+    printf "%-12s %12s req/s   p99 %10s s\n" "$modo" "$vazao" "$p99"
+}
+
+echo "Carga: $REQUISICOES requisições, concorrência $CONCORRENCIA, $URL"
+executar plataforma false
+executar virtuais true
+echo "Relatórios completos em target/comparacao-*.txt"
@@ -0,0 +1,85 @@
+#!/bin/bash
+
+# ===========================================
+# Tempo até a primeira requisição: jar padrão x AOT x AOT + CDS
+# ===========================================
+#
+# Sobe a API várias vezes em cada modo e mede, a partir do lançamento da JVM:
+#   - primeira: quando /livez responde na porta da API (primeira requisição atendida);
+#   - pronta:   quando /readyz fica UP (depois do aquecimento do cache).
+# Imprime mediana e mínimo de cada modo, em milissegundos.
+#
+# Modos:
+#   padrao  java -jar, como no Dockerfile (Flyway, validação do esquema, tópico e springdoc)
+#   aot     classes do Spring AOT e perfil inicio-rapido
+#   cds     aot + arquivo CDS do treino
+#
+# Pré-requisitos: PostgreSQL e Kafka do docker-compose no ar e `curl` no PATH. O modo padrão
+# roda primeiro e aplica as migrações, que os outros modos não executam.
+#
+# Uso: ./medir-inicio.sh [repeticoes]      (MODOS="aot cds" ./medir-inicio.sh para escolher)
+
+set -euo pipefail
+
+REPETICOES=${1:-5}
+MODOS=${MODOS:-padrao aot cds}
+PORTA=${SERVER_PORT:-8050}
+JAR=javaweb-0.0.1-SNAPSHOT.jar
+APLICACAO=target/aplicacao
+
+command -v curl &> /dev/null || { echo "❌ curl não encontrado"; exit 1; }
+[ -f "$APLICACAO/app.jsa" ] || ./mvnw -q -Pinicio-rapido -DskipTests package
+
+agora_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+iniciar() {
+    case $1 in
+        padrao) exec java -jar "target/$JAR" ;;
+        # O CDS confere o classpath: mesmo diretório e mesmo jar do treino
+        aot)    cd "$APLICACAO" && exec java -Xshare:off -Dspring.aot.enabled=true \
+                    -Dspring.profiles.active=inicio-rapido -jar "$JAR" ;;
+        cds)    cd "$APLICACAO" && exec java -XX:SharedArchiveFile=app.jsa -Xlog:cds=error \
+                    -Dspring.aot.enabled=true -Dspring.profiles.active=inicio-rapido -jar "$JAR" ;;
+    esac
+}
+
+aguardar() {
+    local url=$1 pid=$2
+    until curl -sf -o /dev/null "$url"; do
+        kill -0 "$pid" 2> /dev/null || { echo "❌ a API terminou; ver target/inicio-*.log" >&2; exit 1; }
+        sleep 0.02
+    done
+}
+
+mediana() {
+    sort -n | awk '{v[NR] = $1} END {print v[int((NR + 1) / 2)]}'
+}
+
+medir() {
+    local modo=$1 inicio pid
+    : > "target/inicio-$modo.txt"
+    for _ in $(seq "$REPETICOES"); do
+        inicio=$(agora_ms)
+        (iniciar "$modo") > "target/inicio-$modo.log" 2>&1 &
+        pid=$!
+        aguardar "http://localhost:$PORTA/livez" "$pid"
+        local primeira=$(( $(agora_ms) - inicio ))
+        aguardar "http://localhost:$PORTA/readyz" "$pid"
+        local pronta=$(( $(agora_ms) - inicio ))
+        kill "$pid"; wait "$pid" 2> /dev/null || true
+        echo "$primeira $pronta" >> "target/inicio-$modo.txt"
+    done
+    printf "%-8s primeira %6s ms (mín %6s)   pronta %6s ms (mín %6s)\n" "$modo" \
+        "$(cut -d' ' -f1 "target/inicio-$modo.txt" | mediana)" \
+        "$(cut -d' ' -f1 "target/inicio-$modo.txt" | sort -n | head -1)" \
+        "$(cut -d' ' -f2 "target/inicio-$modo.txt" | mediana)" \
+        "$(cut -d' ' -f2 "target/inicio-$modo.txt" | sort -n | head -1)"
+}
+
+echo "Tempo desde o lançamento da JVM, $REPETICOES execuções por modo"
+for modo in $MODOS; do
+    medir "$modo"
+done
+echo "Medições em target/inicio-*.txt"
@@ -9,7 +9,7 @@ echo.
 echo 📋 Verificando Java...
 java -version >nul 2>&1
 if errorlevel 1 (
-    echo ❌ Java não encontrado. Por favor, instale o Java 17 ou superior.
+    echo ❌ Java não encontrado. Por favor, instale o Java 21 ou superior.
     pause
     exit /b 1
 )
@@ -10,13 +10,13 @@ echo ""
 # Verificar se o Java está instalado
 echo "📋 Verificando Java..."
 if ! command -v java &> /dev/null; then
-    echo "❌ Java não encontrado. Por favor, instale o Java 17 ou superior."
+    echo "❌ Java não encontrado. Por favor, instale o Java 21 ou superior."
     exit 1
 fi
 
 JAVA_VERSION=$(java -version 2>&1 | head -n 1 | cut -d'"' -f2 | cut -d'.' -f1)
-if [ "$JAVA_VERSION" -lt 17 ]; then
-    echo "❌ Java $JAVA_VERSION encontrado. É necessário Java 17 ou superior."
+if [ "$JAVA_VERSION" -lt 21 ]; then
+    echo "❌ Java $JAVA_VERSION encontrado. É necessário Java 21 ou superior."
     exit 1
 fi
 
@@ -0,0 +1,97 @@
+package com.desafio.credito.carga;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parâmetros do teste de carga, lidos das propriedades de sistema {@code carga.*} (o profile
+ * Maven {@code carga} repassa as propriedades de mesmo nome).
+ *
+ * @param creditos        créditos gerados na massa
+ * @param creditosPorNfse créditos por NFS-e
+ * @param usuarios        usuários gerados; as consultas usam o token de um deles, sorteado
+ * @param taxa            requisições por segundo, somando todas as operações
+ * @param aquecimento     carga aplicada antes da medição, descartada do relatório
+ * @param duracao         duração da medição
+ * @param mistura         peso de cada operação
+ * @param tempoLimite     tempo máximo de uma requisição; acima dele conta como falha
+ * @param maximoPendentes requisições em andamento acima das quais as próximas são descartadas
+ * @param bancoUrl        URL JDBC de um PostgreSQL existente; vazia sobe um container
+ * @param propriedades    propriedades extras da aplicação ({@code chave=valor,...})
+ * @param resultado       arquivo onde o relatório também é gravado
+ */
+record ConfiguracaoCarga(int creditos, int creditosPorNfse, int usuarios, int taxa,
+    Duration aquecimento, Duration duracao, Map<OperacaoCarga, Integer> mistura,
+    Duration tempoLimite, int maximoPendentes, String bancoUrl, String bancoUsuario,
+    String bancoSenha, Map<String, String> propriedades, String resultado) {
+
+  ConfiguracaoCarga {
+    if (creditos < creditosPorNfse || creditosPorNfse < 1 || usuarios < 1 || taxa < 1) {
+      throw new IllegalArgumentException("carga.creditos >= carga.creditos-por-nfse >= 1, "
+          + "carga.usuarios >= 1 e carga.taxa >= 1");
+    }
+    // Limite de participantes do Phaser que acompanha as requisições em andamento
+    if (maximoPendentes < 1 || maximoPendentes > 65_535) {
+      throw new IllegalArgumentException("carga.maximo-pendentes deve estar entre 1 e 65535");
+    }
+  }
+
+  static ConfiguracaoCarga doSistema() {
+    return new ConfiguracaoCarga(Integer.getInteger("carga.creditos", 100_000),
+        Integer.getInteger("carga.creditos-por-nfse", 5),
+        Integer.getInteger("carga.usuarios", 50),
+        Integer.getInteger("carga.taxa", 200),
+        duracao("carga.aquecimento", "15s"),
+        duracao("carga.duracao", "60s"),
+        mistura(System.getProperty("carga.mistura", "login=5,nfse=50,credito=45")),
+        duracao("carga.tempo-limite", "5s"),
+        Integer.getInteger("carga.maximo-pendentes", 5_000),
+        System.getProperty("carga.banco.url", ""),
+        System.getProperty("carga.banco.usuario", "postgres"),
+        System.getProperty("carga.banco.senha", "postgres"),
+        propriedades(System.getProperty("carga.propriedades", "")),
+        System.getProperty("carga.resultado", "target/carga-resultado.txt"));
+  }
+
+  int nfses() {
+    return creditos / creditosPorNfse;
+  }
+
+  private static Duration duracao(String nome, String padrao) {
+    return DurationStyle.detectAndParse(System.getProperty(nome, padrao));
+  }
+
+  static Map<OperacaoCarga, Integer> mistura(String texto) {
+    Map<OperacaoCarga, Integer> pesos = new EnumMap<>(OperacaoCarga.class);
+    for (Map.Entry<String, String> peso : propriedades(texto).entrySet()) {
+      int valor = Integer.parseInt(peso.getValue().trim());
+      if (valor < 0) {
+        throw new IllegalArgumentException("Peso negativo em carga.mistura: " + peso.getKey());
+      }
+      pesos.put(OperacaoCarga.porNome(peso.getKey()), valor);
+    }
+    if (pesos.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("carga.mistura precisa de ao menos um peso positivo");
+    }
+    return pesos;
+  }
+
+  private static Map<String, String> propriedades(String texto) {
+    Map<String, String> propriedades = new LinkedHashMap<>();
+    for (String par : texto.split(",")) {
+      if (par.isBlank()) {
+        continue;
+      }
+      int igual = par.indexOf('=');
+      if (igual < 1) {
+        throw new IllegalArgumentException("Esperado chave=valor: " + par.trim());
+      }
+      propriedades.put(par.substring(0, igual).trim(), par.substring(igual + 1).trim());
+    }
+    return propriedades;
+  }
+}
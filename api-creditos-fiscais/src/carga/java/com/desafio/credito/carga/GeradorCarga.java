@@ -0,0 +1,123 @@
+package com.desafio.credito.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Aplica a carga em modelo aberto: as requisições saem na taxa configurada, de forma assíncrona,
+ * sem esperar as anteriores responderem. Se a API não acompanha, a fila cresce e aparece na
+ * latência, em vez de a taxa cair junto com o servidor.
+ *
+ * O envio não usa threads virtuais: elas disputariam as threads portadoras com as da API
+ * (com {@code spring.threads.virtual.enabled}) e o gerador atrasaria junto com o que mede.
+ */
+final class GeradorCarga {
+
+  private final ConfiguracaoCarga configuracao;
+  private final URI base;
+  private final List<String> logins;
+  private final List<String> tokens;
+  private final OperacaoCarga[] operacoes;
+  private final int[] pesosAcumulados;
+  private final HttpClient cliente;
+
+  GeradorCarga(ConfiguracaoCarga configuracao, URI base, List<String> logins,
+      List<String> tokens) {
+    this.configuracao = configuracao;
+    this.base = base;
+    this.logins = logins;
+    this.tokens = tokens;
+    this.operacoes = configuracao.mistura().keySet().toArray(OperacaoCarga[]::new);
+    this.pesosAcumulados = new int[operacoes.length];
+    int soma = 0;
+    for (int i = 0; i < operacoes.length; i++) {
+      soma += configuracao.mistura().get(operacoes[i]);
+      pesosAcumulados[i] = soma;
+    }
+    this.cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(configuracao.tempoLimite()).build();
+  }
+
+  /**
+   * Aplica a carga por {@code duracao} e espera as requisições em andamento terminarem.
+   */
+  Map<OperacaoCarga, ResultadoOperacao> executar(Duration duracao) {
+    Map<OperacaoCarga, ResultadoOperacao> resultados = new EnumMap<>(OperacaoCarga.class);
+    for (OperacaoCarga operacao : operacoes) {
+      resultados.put(operacao, new ResultadoOperacao());
+    }
+    Semaphore pendentes = new Semaphore(configuracao.maximoPendentes());
+    Phaser emAndamento = new Phaser(1);
+    long inicio = System.nanoTime();
+    long fim = inicio + duracao.toNanos();
+    for (long i = 0; ; i++) {
+      long agendada = inicio + i * 1_000_000_000L / configuracao.taxa();
+      if (agendada >= fim) {
+        break;
+      }
+      long espera = agendada - System.nanoTime();
+      if (espera > 0) {
+        LockSupport.parkNanos(espera);
+      }
+      OperacaoCarga operacao = sortear();
+      ResultadoOperacao resultado = resultados.get(operacao);
+      if (!pendentes.tryAcquire()) {
+        resultado.descartar();
+        continue;
+      }
+      emAndamento.register();
+      cliente.sendAsync(requisicao(operacao), HttpResponse.BodyHandlers.discarding())
+          .whenComplete((resposta, erro) -> {
+            long nanos = System.nanoTime() - agendada;
+            if (erro == null) {
+              resultado.registrar(resposta.statusCode(), nanos);
+            } else {
+              resultado.falhar(nanos);
+            }
+            pendentes.release();
+            emAndamento.arriveAndDeregister();
+          });
+    }
+    emAndamento.arriveAndAwaitAdvance();
+    return resultados;
+  }
+
+  private OperacaoCarga sortear() {
+    int sorteio = ThreadLocalRandom.current().nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+    for (int i = 0; i < pesosAcumulados.length; i++) {
+      if (sorteio < pesosAcumulados[i]) {
+        return operacoes[i];
+      }
+    }
+    throw new IllegalStateException("Sorteio fora dos pesos: " + sorteio);
+  }
+
+  private HttpRequest requisicao(OperacaoCarga operacao) {
+    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+    HttpRequest.Builder requisicao = switch (operacao) {
+      case LOGIN -> HttpRequest.newBuilder(base.resolve("/usuarios/login"))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString("{\"login\":\""
+              + logins.get(aleatorio.nextInt(logins.size())) + "\",\"senha\":\""
+              + MassaCarga.SENHA + "\"}"));
+      case NFSE -> HttpRequest.newBuilder(base.resolve(
+          "/creditos/" + MassaCarga.numeroNfse(aleatorio.nextInt(configuracao.nfses()))));
+      case CREDITO -> HttpRequest.newBuilder(base.resolve("/creditos/credito/"
+          + MassaCarga.numeroCredito(aleatorio.nextInt(configuracao.creditos()))));
+    };
+    if (operacao != OperacaoCarga.LOGIN) {
+      requisicao.header("Authorization", tokens.get(aleatorio.nextInt(tokens.size())));
+    }
+    return requisicao.timeout(configuracao.tempoLimite()).build();
+  }
+}
@@ -0,0 +1,80 @@
+package com.desafio.credito.carga;
+
+import com.desafio.credito.config.JwtUtil;
+import com.desafio.credito.entity.Credito;
+import com.desafio.credito.repository.CreditoCopyRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Massa do teste de carga, gravada pelos próprios componentes da aplicação: créditos pelo COPY
+ * da importação e usuários com um hash BCrypt calculado uma vez (todos com a mesma senha). Os
+ * registros de uma execução anterior são apagados antes, para rodar de novo no mesmo banco.
+ */
+final class MassaCarga {
+
+  static final String SENHA = "carga123";
+  private static final int LOTE = 10_000;
+
+  private MassaCarga() {
+  }
+
+  static String numeroCredito(int indice) {
+    return "CARGA-C" + indice;
+  }
+
+  static String numeroNfse(int indice) {
+    return "CARGA-N" + indice;
+  }
+
+  static String login(int indice) {
+    return "carga-" + indice;
+  }
+
+  static List<String> gravar(ApplicationContext aplicacao, ConfiguracaoCarga configuracao) {
+    JdbcTemplate jdbcTemplate = aplicacao.getBean(JdbcTemplate.class);
+    jdbcTemplate.update("DELETE FROM credito WHERE numero_credito LIKE 'CARGA-C%'");
+    jdbcTemplate.update("DELETE FROM usuario WHERE login LIKE 'carga-%'");
+
+    CreditoCopyRepository copyRepository = aplicacao.getBean(CreditoCopyRepository.class);
+    for (int inicio = 0; inicio < configuracao.creditos(); inicio += LOTE) {
+      int fim = Math.min(inicio + LOTE, configuracao.creditos());
+      List<Credito> creditos = new ArrayList<>(fim - inicio);
+      for (int i = inicio; i < fim; i++) {
+        creditos.add(credito(i, configuracao.creditosPorNfse()));
+      }
+      copyRepository.copiar(creditos);
+    }
+    jdbcTemplate.execute("ANALYZE credito");
+
+    String hash = aplicacao.getBean(PasswordEncoder.class).encode(SENHA);
+    List<String> logins = IntStream.range(0, configuracao.usuarios()).mapToObj(MassaCarga::login)
+        .toList();
+    jdbcTemplate.batchUpdate("INSERT INTO usuario (nome, login, senha) VALUES (?, ?, ?)",
+        logins.stream().map(login -> new Object[] {"Usuário " + login, login, hash}).toList());
+    return logins;
+  }
+
+  /** Tokens emitidos direto pelo {@link JwtUtil}, sem passar pelo login medido. */
+  static List<String> tokens(ApplicationContext aplicacao, List<String> logins) {
+    JwtUtil jwtUtil = aplicacao.getBean(JwtUtil.class);
+    return logins.stream().map(login -> "Bearer " + jwtUtil.gerarToken(login)).toList();
+  }
+
+  private static Credito credito(int indice, int creditosPorNfse) {
+    return Credito.builder().numeroCredito(numeroCredito(indice))
+        .numeroNfse(numeroNfse(indice / creditosPorNfse))
+        .dataConstituicao(LocalDate.of(2024, 1, 1).plusDays(indice % 365))
+        .valorIssqn(new BigDecimal("1500.75")).tipoCredito(indice % 2 == 0 ? "ISSQN" : "Outros")
+        .simplesNacional(indice % 3 == 0).aliquota(new BigDecimal("5.00"))
+        .valorFaturado(new BigDecimal("30000.00")).valorDeducao(new BigDecimal("5000.00"))
+        .baseCalculo(new BigDecimal("25000.00")).build();
+  }
+}
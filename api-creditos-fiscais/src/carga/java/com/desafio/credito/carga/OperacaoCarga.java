@@ -0,0 +1,36 @@
+package com.desafio.credito.carga;
+
+/**
+ * Tipos de requisição do teste de carga, pelo nome usado em {@code carga.mistura}.
+ */
+enum OperacaoCarga {
+
+  LOGIN("login", "POST /usuarios/login"),
+  NFSE("nfse", "GET /creditos/{numeroNfse}"),
+  CREDITO("credito", "GET /creditos/credito/{numeroCredito}");
+
+  private final String nome;
+  private final String rota;
+
+  OperacaoCarga(String nome, String rota) {
+    this.nome = nome;
+    this.rota = rota;
+  }
+
+  String nome() {
+    return nome;
+  }
+
+  String rota() {
+    return rota;
+  }
+
+  static OperacaoCarga porNome(String nome) {
+    for (OperacaoCarga operacao : values()) {
+      if (operacao.nome.equals(nome)) {
+        return operacao;
+      }
+    }
+    throw new IllegalArgumentException("Operação desconhecida em carga.mistura: " + nome);
+  }
+}
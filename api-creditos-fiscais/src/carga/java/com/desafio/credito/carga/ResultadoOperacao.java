@@ -0,0 +1,76 @@
+package com.desafio.credito.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências e códigos de resposta de uma operação. A latência vai do instante em que a
+ * requisição estava agendada até a resposta, então a espera causada por um servidor lento entra
+ * na conta (sem omissão coordenada).
+ */
+final class ResultadoOperacao {
+
+  private final Histogram latencias = new ConcurrentHistogram(3);
+  private final Map<Integer, LongAdder> codigos = new ConcurrentHashMap<>();
+  private final LongAdder falhas = new LongAdder();
+  private final LongAdder descartadas = new LongAdder();
+
+  void registrar(int codigo, long nanos) {
+    codigos.computeIfAbsent(codigo, c -> new LongAdder()).increment();
+    latencias.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  /** Sem resposta: erro de conexão ou tempo limite. */
+  void falhar(long nanos) {
+    falhas.increment();
+    latencias.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  /** Não enviada: requisições em andamento já no máximo. */
+  void descartar() {
+    descartadas.increment();
+  }
+
+  long total() {
+    return latencias.getTotalCount() + descartadas.sum();
+  }
+
+  long erros() {
+    long erros = falhas.sum() + descartadas.sum();
+    for (Map.Entry<Integer, LongAdder> codigo : codigos.entrySet()) {
+      if (codigo.getKey() / 100 != 2) {
+        erros += codigo.getValue().sum();
+      }
+    }
+    return erros;
+  }
+
+  long falhas() {
+    return falhas.sum();
+  }
+
+  long descartadas() {
+    return descartadas.sum();
+  }
+
+  Map<Integer, Long> codigos() {
+    Map<Integer, Long> ordenados = new TreeMap<>();
+    codigos.forEach((codigo, quantidade) -> ordenados.put(codigo, quantidade.sum()));
+    return ordenados;
+  }
+
+  /** Percentil da latência, em milissegundos. */
+  double percentil(double percentil) {
+    return latencias.getValueAtPercentile(percentil) / 1000.0;
+  }
+
+  double maxima() {
+    return latencias.getMaxValue() / 1000.0;
+  }
+}
@@ -0,0 +1,159 @@
+package com.desafio.credito.carga;
+
+import com.desafio.credito.JavawebApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Teste de carga da pilha completa: sobe PostgreSQL (container, ou um banco existente via
+ * {@code carga.banco.url}) e um broker Kafka embarcado, inicia a aplicação neste processo com a
+ * configuração real, grava a massa e aplica a mistura de login, consulta por NFS-e e consulta por
+ * crédito na taxa configurada. Ao fim imprime vazão, taxa de erro e percentis de latência por
+ * operação.
+ *
+ * Executar com: {@code ./mvnw -Pcarga test-compile exec:exec} (parâmetros em
+ * {@link ConfiguracaoCarga}).
+ */
+public final class TesteCarga {
+
+  private TesteCarga() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    // O devtools está no classpath de teste e reiniciaria o main inteiro num classloader novo
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    ConfiguracaoCarga configuracao = ConfiguracaoCarga.doSistema();
+    PostgreSQLContainer<?> postgres = null;
+    EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 1);
+    ConfigurableApplicationContext aplicacao = null;
+    try {
+      kafka.afterPropertiesSet();
+      Map<String, String> propriedades = new LinkedHashMap<>();
+      if (configuracao.bancoUrl().isEmpty()) {
+        postgres = new PostgreSQLContainer<>("postgres:16");
+        postgres.start();
+        propriedades.put("spring.datasource.url", postgres.getJdbcUrl());
+        propriedades.put("spring.datasource.username", postgres.getUsername());
+        propriedades.put("spring.datasource.password", postgres.getPassword());
+      } else {
+        propriedades.put("spring.datasource.url", configuracao.bancoUrl());
+        propriedades.put("spring.datasource.username", configuracao.bancoUsuario());
+        propriedades.put("spring.datasource.password", configuracao.bancoSenha());
+      }
+      propriedades.put("spring.kafka.bootstrap-servers", kafka.getBrokersAsString());
+      propriedades.put("server.port", "0");
+      propriedades.put("management.server.port", "0");
+      // O SQL em DEBUG/TRACE no console mediria o log, não a API
+      propriedades.put("logging.level.org.hibernate.SQL", "WARN");
+      propriedades.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+      propriedades.putAll(configuracao.propriedades());
+
+      // Como argumentos de linha de comando, para valer sobre o application.yml
+      aplicacao = new SpringApplicationBuilder(JavawebApplication.class).run(
+          propriedades.entrySet().stream().map(p -> "--" + p.getKey() + "=" + p.getValue())
+              .toArray(String[]::new));
+      int porta = ((WebServerApplicationContext) aplicacao).getWebServer().getPort();
+
+      long inicioMassa = System.nanoTime();
+      List<String> logins = MassaCarga.gravar(aplicacao, configuracao);
+      System.out.printf(Locale.ROOT, "Massa: %d créditos em %d NFS-e e %d usuários em %d ms%n",
+          configuracao.creditos(), configuracao.nfses(), configuracao.usuarios(),
+          Duration.ofNanos(System.nanoTime() - inicioMassa).toMillis());
+
+      GeradorCarga gerador = new GeradorCarga(configuracao,
+          URI.create("http://localhost:" + porta), logins, MassaCarga.tokens(aplicacao, logins));
+      System.out.printf(Locale.ROOT, "Aquecimento: %d req/s por %ds%n", configuracao.taxa(),
+          configuracao.aquecimento().toSeconds());
+      gerador.executar(configuracao.aquecimento());
+      Statistics estatisticas = aplicacao.getBean(EntityManagerFactory.class)
+          .unwrap(SessionFactory.class).getStatistics();
+      estatisticas.clear();
+      System.out.printf(Locale.ROOT, "Medição: %d req/s por %ds%n", configuracao.taxa(),
+          configuracao.duracao().toSeconds());
+      String relatorio = relatorio(configuracao, gerador.executar(configuracao.duracao()))
+          + cacheDeConsultas(estatisticas);
+
+      System.out.println(relatorio);
+      Path arquivo = Path.of(configuracao.resultado());
+      Files.createDirectories(arquivo.toAbsolutePath().getParent());
+      Files.writeString(arquivo, relatorio);
+      System.out.println("Relatório em " + arquivo);
+    } finally {
+      if (aplicacao != null) {
+        aplicacao.close();
+      }
+      kafka.destroy();
+      if (postgres != null) {
+        postgres.stop();
+      }
+    }
+  }
+
+  static String relatorio(ConfiguracaoCarga configuracao,
+      Map<OperacaoCarga, ResultadoOperacao> resultados) {
+    double segundos = configuracao.duracao().toMillis() / 1000.0;
+    List<String> linhas = new ArrayList<>();
+    linhas.add(String.format(Locale.ROOT,
+        "Taxa alvo %d req/s, %ds, mistura %s; latências em ms desde o horário agendado",
+        configuracao.taxa(), configuracao.duracao().toSeconds(), configuracao.mistura().entrySet()
+            .stream().map(peso -> peso.getKey().nome() + "=" + peso.getValue())
+            .collect(Collectors.joining(","))));
+    linhas.add(String.format(Locale.ROOT,
+        "%-38s %8s %8s %7s %8s %8s %8s %8s %8s  %s", "Operação", "Req", "OK/s", "Erros",
+        "p50", "p90", "p99", "p99.9", "Máx", "Respostas"));
+    resultados.forEach((operacao, resultado) -> {
+      String respostas = resultado.codigos().entrySet().stream()
+          .map(codigo -> codigo.getKey() + "=" + codigo.getValue())
+          .collect(Collectors.joining(" "));
+      if (resultado.falhas() > 0) {
+        respostas += " falhas=" + resultado.falhas();
+      }
+      if (resultado.descartadas() > 0) {
+        respostas += " descartadas=" + resultado.descartadas();
+      }
+      long total = resultado.total();
+      linhas.add(String.format(Locale.ROOT,
+          "%-38s %8d %8.1f %6.2f%% %8.1f %8.1f %8.1f %8.1f %8.1f  %s", operacao.rota(), total,
+          (total - resultado.erros()) / segundos,
+          total == 0 ? 0.0 : 100.0 * resultado.erros() / total, resultado.percentil(50),
+          resultado.percentil(90), resultado.percentil(99), resultado.percentil(99.9),
+          resultado.maxima(), respostas.trim()));
+    });
+    return String.join(System.lineSeparator(), linhas) + System.lineSeparator();
+  }
+
+  /**
+   * Acertos do cache de consultas do Hibernate durante a medição; só com as estatísticas ligadas
+   * ({@code app.cache.segundo-nivel.habilitado=true}).
+   */
+  static String cacheDeConsultas(Statistics estatisticas) {
+    if (!estatisticas.isStatisticsEnabled()) {
+      return "";
+    }
+    long acertos = estatisticas.getQueryCacheHitCount();
+    long total = acertos + estatisticas.getQueryCacheMissCount();
+    return String.format(Locale.ROOT,
+        "Cache de consultas do Hibernate: %d acertos em %d consultas (%.1f%%); "
+            + "%d executadas no banco%n",
+        acertos, total, total == 0 ? 0.0 : 100.0 * acertos / total,
+        estatisticas.getQueryExecutionCount());
+  }
+}
@@ -0,0 +1,30 @@
+package com.desafio.credito;
+
+import com.desafio.credito.entity.Credito;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Massa de dados comum aos benchmarks, com o mesmo formato dos créditos reais.
+ */
+public final class DadosBenchmark {
+
+  private DadosBenchmark() {
+  }
+
+  public static List<Credito> creditos(int quantidade) {
+    List<Credito> creditos = new ArrayList<>(quantidade);
+    for (int i = 0; i < quantidade; i++) {
+      creditos.add(Credito.builder().id((long) i).numeroCredito("CRED" + i)
+          .numeroNfse("NFSE" + (i / 5)).dataConstituicao(LocalDate.of(2024, 1, 1).plusDays(i % 365))
+          .valorIssqn(new BigDecimal("1500.75")).tipoCredito(i % 2 == 0 ? "ISSQN" : "Outros")
+          .simplesNacional(i % 3 == 0).aliquota(new BigDecimal("5.00"))
+          .valorFaturado(new BigDecimal("30000.00")).valorDeducao(new BigDecimal("5000.00"))
+          .baseCalculo(new BigDecimal("25000.00")).build());
+    }
+    return creditos;
+  }
+}
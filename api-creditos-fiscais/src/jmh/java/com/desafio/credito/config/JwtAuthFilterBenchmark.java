@@ -0,0 +1,34 @@
+package com.desafio.credito.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+  /**
+   * Uma URL protegida (percorre todas as comparações), uma pública exata e uma por prefixo.
+   */
+  @Param({"/api/creditos/7891011", "/usuarios/login", "/swagger-ui/index.html"})
+  private String caminho;
+
+  // O construtor percorre os administradores e registra os timers: argumentos reais, exceto o
+  // UsuarioService, que isPublicUrl não usa
+  private final SecurityConfig.JwtAuthFilter filtro = new SecurityConfig.JwtAuthFilter(
+      new JwtUtil(), null, new JwtPrincipalCache(true, 100, Duration.ofMinutes(5)), Set.of(),
+      new SimpleMeterRegistry());
+
+  @Benchmark
+  public boolean isPublicUrl() {
+    return filtro.isPublicUrl(caminho);
+  }
+}
@@ -0,0 +1,37 @@
+package com.desafio.credito.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+  private final JwtUtil jwtUtil = new JwtUtil();
+  private String token;
+
+  @Setup
+  public void preparar() {
+    token = jwtUtil.gerarToken("admin");
+  }
+
+  @Benchmark
+  public String gerarToken() {
+    return jwtUtil.gerarToken("admin");
+  }
+
+  @Benchmark
+  public boolean validarToken() {
+    return jwtUtil.validarToken(token);
+  }
+
+  @Benchmark
+  public String extrairLogin() {
+    return jwtUtil.extrairLogin(token);
+  }
+}
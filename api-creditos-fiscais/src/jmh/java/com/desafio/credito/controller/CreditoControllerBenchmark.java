@@ -0,0 +1,35 @@
+package com.desafio.credito.controller;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditoControllerBenchmark {
+
+  @Param({"", "203.0.113.7", "203.0.113.7, 10.0.0.2, 10.0.0.1"})
+  private String xForwardedFor;
+
+  private final CreditoController controller = new CreditoController(null, null, null, null, null);
+  private MockHttpServletRequest request;
+
+  @Setup
+  public void preparar() {
+    request = new MockHttpServletRequest("GET", "/api/creditos/7891011");
+    request.setRemoteAddr("10.0.0.1");
+    if (!xForwardedFor.isEmpty()) {
+      request.addHeader("X-Forwarded-For", xForwardedFor);
+    }
+  }
+
+  @Benchmark
+  public String obterIpOrigem() {
+    return controller.obterIpOrigem(request);
+  }
+}
@@ -0,0 +1,55 @@
+package com.desafio.credito.dto;
+
+import com.desafio.credito.DadosBenchmark;
+import com.desafio.credito.event.CreditoConsultaEvent;
+import com.desafio.credito.event.EnumStatusConsulta;
+import com.desafio.credito.event.EnunTipoConsulta;
+import com.desafio.credito.mapper.CreditoMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+  @Param({"10", "1000"})
+  private int quantidade;
+
+  // Mesma configuração base do ObjectMapper do Spring MVC e do JsonSerializer do Kafka
+  private final ObjectMapper objectMapperWeb = Jackson2ObjectMapperBuilder.json().build();
+  private final ObjectMapper objectMapperKafka = JacksonUtils.enhancedObjectMapper();
+  private List<CreditoDTO> creditos;
+  private CreditoConsultaEvent evento;
+
+  @Setup
+  public void preparar() {
+    CreditoMapper mapper = Mappers.getMapper(CreditoMapper.class);
+    creditos = DadosBenchmark.creditos(quantidade).stream().map(mapper::toDTO).toList();
+    evento = CreditoConsultaEvent.builder().numeroNfse("7891011").numeroCredito("123456")
+        .tipoConsulta(EnunTipoConsulta.POR_CREDITO).usuario("admin").ipOrigem("203.0.113.7")
+        .dataHoraConsulta(LocalDateTime.of(2024, 2, 25, 10, 30)).quantidadeResultados(1)
+        .status(EnumStatusConsulta.SUCESSO).build();
+  }
+
+  @Benchmark
+  public byte[] listaCreditoDTO() throws JsonProcessingException {
+    return objectMapperWeb.writeValueAsBytes(creditos);
+  }
+
+  @Benchmark
+  public byte[] creditoConsultaEvent() throws JsonProcessingException {
+    return objectMapperKafka.writeValueAsBytes(evento);
+  }
+}
@@ -0,0 +1,51 @@
+package com.desafio.credito.event;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de serialização e tamanho dos eventos de auditoria nos formatos JSON e binário. O
+ * tamanho em bytes de cada formato é impresso no início de cada fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventoAuditoriaBenchmark {
+
+  @Param({"json", "binario"})
+  private String formato;
+
+  private final CreditoConsultaEventDeserializer deserializer =
+      new CreditoConsultaEventDeserializer();
+  private CreditoConsultaEventSerializer serializer;
+  private CreditoConsultaEvent evento;
+  private byte[] dados;
+
+  @Setup
+  public void preparar() {
+    serializer = new CreditoConsultaEventSerializer();
+    serializer.configure(Map.of(CreditoConsultaEventSerializer.FORMATO, formato), false);
+    evento = CreditoConsultaEvent.builder().numeroNfse("7891011").numeroCredito("123456")
+        .tipoConsulta(EnunTipoConsulta.POR_CREDITO).usuario("admin").ipOrigem("203.0.113.7")
+        .dataHoraConsulta(LocalDateTime.of(2024, 2, 25, 10, 30)).quantidadeResultados(1)
+        .status(EnumStatusConsulta.SUCESSO).build();
+    dados = serializer.serialize("credito-audit", evento);
+    System.out.println("formato=" + formato + " bytes/evento=" + dados.length);
+  }
+
+  @Benchmark
+  public byte[] serializar() {
+    return serializer.serialize("credito-audit", evento);
+  }
+
+  @Benchmark
+  public CreditoConsultaEvent desserializar() {
+    return deserializer.deserialize("credito-audit", dados);
+  }
+}
@@ -0,0 +1,38 @@
+package com.desafio.credito.mapper;
+
+import com.desafio.credito.DadosBenchmark;
+import com.desafio.credito.dto.CreditoDTO;
+import com.desafio.credito.entity.Credito;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditoMapperBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  private int quantidade;
+
+  private final CreditoMapper mapper = Mappers.getMapper(CreditoMapper.class);
+  private List<Credito> creditos;
+
+  @Setup
+  public void preparar() {
+    creditos = DadosBenchmark.creditos(quantidade);
+  }
+
+  /**
+   * Mesmo caminho de CreditoService.carregarPorNfse: stream, toDTO e toList.
+   */
+  @Benchmark
+  public List<CreditoDTO> toDTO() {
+    return creditos.stream().map(mapper::toDTO).toList();
+  }
+}
@@ -0,0 +1,46 @@
+package com.desafio.credito.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balde de tokens sem lock, no formato GCRA: em vez de contar tokens e reabastecer, guarda só o
+ * instante teórico em que o balde estaria cheio de novo. Uma requisição consome um token
+ * adiantando esse instante em um intervalo de reposição, e é recusada se isso o levar além da
+ * capacidade. O estado é um único {@link AtomicLong} atualizado por CAS.
+ */
+final class BaldeTokens {
+
+  private final long intervaloNanos;
+  private final long toleranciaNanos;
+  private final AtomicLong cheioEm;
+
+  /**
+   * @param capacidade requisições aceitas em rajada com o balde cheio
+   * @param intervaloNanos tempo para repor um token
+   * @param agora instante de criação (o balde começa cheio)
+   */
+  BaldeTokens(int capacidade, long intervaloNanos, long agora) {
+    this.intervaloNanos = intervaloNanos;
+    this.toleranciaNanos = intervaloNanos * (capacidade - 1);
+    this.cheioEm = new AtomicLong(agora);
+  }
+
+  /**
+   * Tenta consumir um token.
+   *
+   * @return 0 se a requisição foi aceita; senão, os nanossegundos até haver um token
+   */
+  long consumir(long agora) {
+    while (true) {
+      long atual = cheioEm.get();
+      long base = Math.max(atual, agora);
+      long espera = base - agora - toleranciaNanos;
+      if (espera > 0) {
+        return espera;
+      }
+      if (cheioEm.compareAndSet(atual, base + intervaloNanos)) {
+        return 0;
+      }
+    }
+  }
+}
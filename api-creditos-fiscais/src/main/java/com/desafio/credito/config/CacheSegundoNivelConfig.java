@@ -0,0 +1,84 @@
+package com.desafio.credito.config;
+
+import com.desafio.credito.entity.Credito;
+import com.desafio.credito.entity.Usuario;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Cache de segundo nível do Hibernate (JCache sobre Caffeine) para {@link Credito} e
+ * {@link Usuario}, com as consultas de crédito (projeções em DTO) e por login no cache de
+ * consultas.
+ *
+ * Opcional: sem {@code app.cache.segundo-nivel.habilitado} as anotações de cache das entidades e
+ * dos repositórios são ignoradas. Cada região tem tamanho máximo e TTL próprios; as estatísticas
+ * do Hibernate ficam ligadas para que as métricas {@code hibernate_second_level_cache_*} e
+ * {@code hibernate_cache_query_*} tragam acertos e falhas por região. Escritas pelo Hibernate
+ * (inclusive {@code UsuarioService.salvar} e {@code deletar}) invalidam as entradas sozinhas; o
+ * COPY da importação descarta as consultas de crédito em {@code CreditoCopyRepository}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.segundo-nivel.habilitado", havingValue = "true")
+public class CacheSegundoNivelConfig {
+
+  @Bean(destroyMethod = "close")
+  public CacheManager cacheManagerSegundoNivel(
+      @Value("${app.cache.segundo-nivel.credito.tamanho-maximo:10000}") long tamanhoCredito,
+      @Value("${app.cache.segundo-nivel.credito.ttl:10m}") Duration ttlCredito,
+      @Value("${app.cache.segundo-nivel.credito-consultas.tamanho-maximo:10000}")
+      long tamanhoConsultasCredito,
+      @Value("${app.cache.segundo-nivel.credito-consultas.ttl:5m}") Duration ttlConsultasCredito,
+      @Value("${app.cache.segundo-nivel.usuario.tamanho-maximo:1000}") long tamanhoUsuario,
+      @Value("${app.cache.segundo-nivel.usuario.ttl:10m}") Duration ttlUsuario,
+      @Value("${app.cache.segundo-nivel.usuario-consultas.tamanho-maximo:1000}")
+      long tamanhoConsultasUsuario,
+      @Value("${app.cache.segundo-nivel.usuario-consultas.ttl:5m}") Duration ttlConsultasUsuario) {
+    CacheManager cacheManager = Caching.getCachingProvider(
+        CaffeineCachingProvider.class.getName()).getCacheManager();
+    criarRegiao(cacheManager, Credito.REGIAO_CACHE, tamanhoCredito, ttlCredito);
+    criarRegiao(cacheManager, Credito.REGIAO_CONSULTAS, tamanhoConsultasCredito,
+        ttlConsultasCredito);
+    criarRegiao(cacheManager, Usuario.REGIAO_CACHE, tamanhoUsuario, ttlUsuario);
+    criarRegiao(cacheManager, Usuario.REGIAO_CONSULTAS, tamanhoConsultasUsuario,
+        ttlConsultasUsuario);
+    // Uma entrada por tabela com o instante da última escrita; sem limite nem expiração, senão
+    // uma consulta em cache poderia sobreviver a uma escrita
+    cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+        new CaffeineConfiguration<>());
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerSegundoNivel) {
+    return propriedades -> {
+      propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      propriedades.put(AvailableSettings.USE_QUERY_CACHE, true);
+      propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+      // Regiões não listadas acima (consultas sem região própria) usam o padrão do Caffeine
+      propriedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create");
+      propriedades.put(AvailableSettings.GENERATE_STATISTICS, true);
+    };
+  }
+
+  private static void criarRegiao(CacheManager cacheManager, String regiao, long tamanhoMaximo,
+      Duration ttl) {
+    CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+    configuracao.setMaximumSize(OptionalLong.of(tamanhoMaximo));
+    configuracao.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+    cacheManager.createCache(regiao, configuracao);
+  }
+}
@@ -0,0 +1,54 @@
+package com.desafio.credito.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Camadas em volta do pool criado pelo Spring Boot, de fora para dentro:
+ * <ul>
+ *   <li>{@link LazyConnectionDataSourceProxy}: a conexão física só é obtida no primeiro comando
+ *   SQL. Transações que não chegam ao banco (consultas atendidas pelo cache) não ocupam conexão,
+ *   e as somente leitura ({@code @Transactional(readOnly = true)}) vão para as
+ *   {@link ReplicasLeitura réplicas}, quando configuradas;</li>
+ *   <li>{@link DataSourceLimitado}, com {@code app.datasource.limite.habilitado}: semáforo na
+ *   frente do pool, contando apenas conexões físicas.</li>
+ * </ul>
+ */
+@Configuration
+public class DataSourceConfig {
+
+  @Bean
+  public static BeanPostProcessor camadasDataSource(
+      @Value("${app.datasource.limite.habilitado:false}") boolean limitar,
+      @Value("${app.datasource.limite.maximo:${spring.datasource.hikari.maximum-pool-size:10}}")
+      int limite,
+      @Value("${app.datasource.limite.espera-maxima:20s}") Duration esperaMaxima,
+      ObjectProvider<ReplicasLeitura> replicas) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName)
+          throws BeansException {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) {
+          return bean;
+        }
+        DataSource primario =
+            limitar ? new DataSourceLimitado(dataSource, limite, esperaMaxima) : dataSource;
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primario);
+        ReplicasLeitura leitura = replicas.getIfAvailable();
+        if (leitura != null) {
+          proxy.setReadOnlyDataSource(leitura.comPrimario(primario));
+        }
+        return proxy;
+      }
+    };
+  }
+}
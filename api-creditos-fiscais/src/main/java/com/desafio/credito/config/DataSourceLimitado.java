@@ -0,0 +1,107 @@
+package com.desafio.credito.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource que limita, com um semáforo, quantas conexões podem estar emprestadas ao mesmo
+ * tempo.
+ *
+ * Com threads virtuais o número de requisições simultâneas deixa de ser limitado pelo pool do
+ * Tomcat, e milhares delas podem disputar as poucas conexões do Hikari. O semáforo enfileira
+ * essas threads de forma barata (sem prender a thread portadora) e falha com
+ * {@link SQLTransientConnectionException} se a espera passar do prazo configurado.
+ */
+public class DataSourceLimitado extends DelegatingDataSource {
+
+  private final Semaphore permissoes;
+  private final long esperaMaximaNanos;
+
+  public DataSourceLimitado(DataSource alvo, int limite, Duration esperaMaxima) {
+    super(alvo);
+    this.permissoes = new Semaphore(limite, true);
+    this.esperaMaximaNanos = esperaMaxima.toNanos();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    adquirir();
+    return liberarAoFechar(() -> obtainTargetDataSource().getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    adquirir();
+    return liberarAoFechar(() -> obtainTargetDataSource().getConnection(username, password));
+  }
+
+  public int getPermissoesDisponiveis() {
+    return permissoes.availablePermits();
+  }
+
+  public int getThreadsAguardando() {
+    return permissoes.getQueueLength();
+  }
+
+  private void adquirir() throws SQLException {
+    try {
+      if (!permissoes.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+        throw new SQLTransientConnectionException(
+            "Limite de conexões simultâneas atingido; espera de "
+                + TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos) + " ms esgotada");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrompido aguardando conexão", e);
+    }
+  }
+
+  private Connection liberarAoFechar(FonteConexao fonte) throws SQLException {
+    Connection conexao;
+    try {
+      conexao = fonte.obter();
+    } catch (SQLException | RuntimeException e) {
+      permissoes.release();
+      throw e;
+    }
+    AtomicBoolean liberada = new AtomicBoolean();
+    InvocationHandler handler = (proxy, metodo, args) -> {
+      if ("close".equals(metodo.getName()) && liberada.compareAndSet(false, true)) {
+        try {
+          return invocar(conexao, metodo, args);
+        } finally {
+          permissoes.release();
+        }
+      }
+      return invocar(conexao, metodo, args);
+    };
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[] {Connection.class}, handler);
+  }
+
+  private static Object invocar(Connection conexao, Method metodo, Object[] args)
+      throws Throwable {
+    try {
+      return metodo.invoke(conexao, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+
+  @FunctionalInterface
+  private interface FonteConexao {
+    Connection obter() throws SQLException;
+  }
+}
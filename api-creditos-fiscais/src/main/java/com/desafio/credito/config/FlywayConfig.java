@@ -0,0 +1,29 @@
+package com.desafio.credito.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * As migrações de índices (V5, V6, V10_1, V12) usam {@code CREATE INDEX CONCURRENTLY} fora de
+ * transação. Com o lock transacional do Flyway (padrão no PostgreSQL) a conexão do Flyway fica
+ * com uma transação aberta, e o CONCURRENTLY espera por ela para sempre; o lock de sessão não
+ * mantém transação.
+ *
+ * Definido aqui porque {@code spring.flyway.postgresql.transactional-lock} só é lido pelo
+ * Spring Boot com o Flyway 10; com o 9.x a propriedade é ignorada.
+ */
+@Configuration
+public class FlywayConfig {
+
+  /** Configuração nativa do Flyway; também usada por quem cria o Flyway sem o Spring Boot. */
+  public static final Map<String, String> LOCK_SESSAO =
+      Map.of("flyway.postgresql.transactional.lock", "false");
+
+  @Bean
+  public FlywayConfigurationCustomizer flywayLockSessao() {
+    return configuracao -> configuracao.configuration(LOCK_SESSAO);
+  }
+}
@@ -0,0 +1,38 @@
+package com.desafio.credito.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Quem fez a requisição: o login do token JWT e o IP de origem. Usado pela auditoria das
+ * consultas e pelo limite de taxa, para que os dois identifiquem o cliente da mesma forma.
+ */
+public final class IdentidadeRequisicao {
+
+  private IdentidadeRequisicao() {
+  }
+
+  /**
+   * Login do usuário autenticado na thread atual, ou {@code null} se a requisição é anônima.
+   */
+  public static String usuario() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.isAuthenticated()
+        && !"anonymousUser".equals(authentication.getPrincipal())) {
+      return authentication.getName();
+    }
+    return null;
+  }
+
+  /**
+   * Primeiro endereço do X-Forwarded-For (cliente original atrás do proxy) ou o endereço remoto.
+   */
+  public static String ipOrigem(HttpServletRequest request) {
+    String xForwardedFor = request.getHeader("X-Forwarded-For");
+    if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+      return xForwardedFor.split(",")[0].trim();
+    }
+    return request.getRemoteAddr();
+  }
+}
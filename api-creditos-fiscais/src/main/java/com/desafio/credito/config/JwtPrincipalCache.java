@@ -0,0 +1,86 @@
+package com.desafio.credito.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Cache de tokens já verificados, indexado pelo próprio token.
+ *
+ * Cada entrada vive até a expiração do JWT, limitada por um TTL máximo para que mudanças no
+ * usuário (ex.: exclusão feita por outra instância) sejam percebidas em tempo razoável.
+ */
+@Component
+public class JwtPrincipalCache implements MeterBinder {
+
+  private final boolean habilitado;
+  private final Cache<String, TokenValidado> tokens;
+
+  public JwtPrincipalCache(
+      @Value("${app.seguranca.cache-token.habilitado:true}") boolean habilitado,
+      @Value("${app.seguranca.cache-token.tamanho-maximo:10000}") long tamanhoMaximo,
+      @Value("${app.seguranca.cache-token.ttl-maximo:5m}") Duration ttlMaximo) {
+    this.habilitado = habilitado;
+    long ttlMaximoNanos = ttlMaximo.toNanos();
+    this.tokens = Caffeine.newBuilder().maximumSize(tamanhoMaximo).recordStats()
+        .expireAfter(new Expiry<String, TokenValidado>() {
+          @Override
+          public long expireAfterCreate(String token, TokenValidado valor, long agora) {
+            if (valor.expiracao() == null) {
+              return ttlMaximoNanos;
+            }
+            long restante = Duration.between(Instant.now(), valor.expiracao()).toNanos();
+            return Math.max(0, Math.min(restante, ttlMaximoNanos));
+          }
+
+          @Override
+          public long expireAfterUpdate(String token, TokenValidado valor, long agora,
+              long restante) {
+            return expireAfterCreate(token, valor, agora);
+          }
+
+          @Override
+          public long expireAfterRead(String token, TokenValidado valor, long agora,
+              long restante) {
+            return restante;
+          }
+        }).build();
+  }
+
+  /**
+   * Login do token, se ele já foi verificado e ainda não expirou; senão {@code null}.
+   */
+  public String buscarLogin(String token) {
+    if (!habilitado) {
+      return null;
+    }
+    TokenValidado valido = tokens.getIfPresent(token);
+    return valido != null ? valido.login() : null;
+  }
+
+  public void registrar(String token, TokenValidado valido) {
+    if (habilitado) {
+      tokens.put(token, valido);
+    }
+  }
+
+  /**
+   * Descarta todos os tokens de um usuário (ex.: após exclusão).
+   */
+  public void invalidarUsuario(String login) {
+    tokens.asMap().values().removeIf(valido -> valido.login().equals(login));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, tokens, "tokens-jwt");
+  }
+}
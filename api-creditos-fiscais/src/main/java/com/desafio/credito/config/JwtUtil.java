@@ -6,12 +6,15 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
   private static final String SECRET_KEY = "umasecretkeyparajwtsegurancacomnomelogin123456";
   private static final long EXPIRATION_MS = 86400000; // 1 dia
   private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+  // O parser é imutável e thread-safe: montado uma vez e reutilizado em todas as requisições
+  private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
   public String gerarToken(String login) {
     return Jwts.builder().setSubject(login).setIssuedAt(new Date())
@@ -19,17 +22,25 @@ public class JwtUtil {
         .signWith(key, SignatureAlgorithm.HS256).compact();
   }
 
+  /**
+   * Valida assinatura e expiração e extrai as claims em um único parse.
+   */
+  public Optional<TokenValidado> validar(String token) {
+    try {
+      Claims claims = parser.parseClaimsJws(token).getBody();
+      Date expiracao = claims.getExpiration();
+      return Optional.of(new TokenValidado(claims.getSubject(),
+          expiracao != null ? expiracao.toInstant() : null));
+    } catch (JwtException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
   public String extrairLogin(String token) {
-    return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody()
-        .getSubject();
+    return parser.parseClaimsJws(token).getBody().getSubject();
   }
 
   public boolean validarToken(String token) {
-    try {
-      Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-      return true;
-    } catch (JwtException | IllegalArgumentException e) {
-      return false;
-    }
+    return validar(token).isPresent();
   }
 }
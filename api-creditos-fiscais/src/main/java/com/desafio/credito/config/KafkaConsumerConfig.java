@@ -0,0 +1,51 @@
+package com.desafio.credito.config;
+
+import com.desafio.credito.event.CreditoConsultaEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+  /**
+   * Listeners em lote com commit manual, usados pelo consumidor de estatísticas. Cada thread de
+   * consumo fica com uma ou mais partições; threads além do número de partições ficam ociosas.
+   */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, CreditoConsultaEvent>
+      estatisticasListenerFactory(KafkaProperties kafkaProperties,
+      @Value("${app.estatisticas.concorrencia:${app.topic.partitions:1}}") int concorrencia,
+      @Value("${app.estatisticas.max-poll-records:2000}") int maxPollRecords,
+      @Value("${app.estatisticas.fetch-min-bytes:65536}") int fetchMinBytes,
+      @Value("${app.estatisticas.fetch-max-wait:200ms}") Duration fetchMaxWait) {
+    Map<String, Object> propriedades = kafkaProperties.buildConsumerProperties(null);
+    propriedades.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    propriedades.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+    // Lotes maiores por poll: o broker segura a resposta até juntar fetchMinBytes
+    propriedades.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+    propriedades.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) fetchMaxWait.toMillis());
+
+    ConcurrentKafkaListenerContainerFactory<String, CreditoConsultaEvent> factory =
+        new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(propriedades));
+    factory.setBatchListener(true);
+    factory.setConcurrency(concorrencia);
+    factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+    // Falha na gravação (banco fora do ar): reentrega o lote com espera crescente, sem descartar
+    ExponentialBackOff espera = new ExponentialBackOff(1000L, 2.0);
+    espera.setMaxInterval(30_000L);
+    factory.setCommonErrorHandler(new DefaultErrorHandler(espera));
+    return factory;
+  }
+}
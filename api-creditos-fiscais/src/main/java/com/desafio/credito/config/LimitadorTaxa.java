@@ -0,0 +1,103 @@
+package com.desafio.credito.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limite de requisições por cliente (login do JWT ou, sem ele, IP de origem) e grupo de rotas.
+ *
+ * Os baldes ficam num cache Caffeine com tamanho máximo e expiram depois de ficarem parados o
+ * tempo de se encherem de novo: descartar um balde cheio não muda nada, e a memória fica estável
+ * mesmo com muitos clientes distintos.
+ */
+@Component
+public class LimitadorTaxa implements MeterBinder {
+
+  private final boolean habilitado;
+  private final Map<RotaLimitada, Limite> limites = new EnumMap<>(RotaLimitada.class);
+  private final Ticker relogio;
+  private final Cache<String, BaldeTokens> baldes;
+
+  @Autowired
+  public LimitadorTaxa(@Value("${app.limite-taxa.habilitado:true}") boolean habilitado,
+      @Value("${app.limite-taxa.tamanho-maximo:100000}") long tamanhoMaximo,
+      @Value("${app.limite-taxa.consulta.capacidade:100}") int capacidadeConsulta,
+      @Value("${app.limite-taxa.consulta.reposicao-por-segundo:50}") double reposicaoConsulta,
+      @Value("${app.limite-taxa.lote.capacidade:10}") int capacidadeLote,
+      @Value("${app.limite-taxa.lote.reposicao-por-segundo:2}") double reposicaoLote,
+      @Value("${app.limite-taxa.transferencia.capacidade:2}") int capacidadeTransferencia,
+      @Value("${app.limite-taxa.transferencia.reposicao-por-segundo:0.05}")
+      double reposicaoTransferencia) {
+    this(habilitado, tamanhoMaximo, Map.of(
+        RotaLimitada.CONSULTA, new Limite(capacidadeConsulta, reposicaoConsulta),
+        RotaLimitada.LOTE, new Limite(capacidadeLote, reposicaoLote),
+        RotaLimitada.TRANSFERENCIA, new Limite(capacidadeTransferencia, reposicaoTransferencia)),
+        Ticker.systemTicker());
+  }
+
+  LimitadorTaxa(boolean habilitado, long tamanhoMaximo, Map<RotaLimitada, Limite> limites,
+      Ticker relogio) {
+    this.habilitado = habilitado;
+    this.limites.putAll(limites);
+    this.relogio = relogio;
+    long recargaMaximaNanos = limites.values().stream().mapToLong(Limite::recargaNanos).max()
+        .orElse(0);
+    this.baldes = Caffeine.newBuilder().maximumSize(tamanhoMaximo)
+        .expireAfterAccess(Duration.ofNanos(recargaMaximaNanos)).ticker(relogio).build();
+  }
+
+  /**
+   * Consome uma requisição do balde do cliente no grupo de rotas.
+   *
+   * @return {@link Duration#ZERO} se a requisição pode seguir; senão, quanto esperar
+   */
+  public Duration consumir(RotaLimitada rota, String cliente) {
+    if (!habilitado) {
+      return Duration.ZERO;
+    }
+    Limite limite = limites.get(rota);
+    long agora = relogio.read();
+    BaldeTokens balde = baldes.get(rota.getNome() + ':' + cliente,
+        chave -> new BaldeTokens(limite.capacidade(), limite.intervaloNanos(), agora));
+    return Duration.ofNanos(balde.consumir(agora));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("creditos.limite-taxa.baldes", baldes, Cache::estimatedSize)
+        .description("Clientes com balde de limite de taxa em memória").register(registry);
+  }
+
+  /**
+   * @param capacidade requisições aceitas em rajada
+   * @param reposicaoPorSegundo taxa sustentada
+   */
+  record Limite(int capacidade, double reposicaoPorSegundo) {
+
+    Limite {
+      if (capacidade < 1 || reposicaoPorSegundo <= 0) {
+        throw new IllegalArgumentException(
+            "Limite de taxa exige capacidade >= 1 e reposição por segundo > 0");
+      }
+    }
+
+    long intervaloNanos() {
+      return Math.max(1, Math.round(1_000_000_000 / reposicaoPorSegundo));
+    }
+
+    long recargaNanos() {
+      return intervaloNanos() * capacidade;
+    }
+  }
+}
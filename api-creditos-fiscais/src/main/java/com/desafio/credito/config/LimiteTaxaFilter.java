@@ -0,0 +1,63 @@
+package com.desafio.credito.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Aplica o {@link LimitadorTaxa} às rotas de {@code /creditos/**}. Roda depois do filtro JWT, para
+ * que clientes autenticados sejam limitados pelo login e os demais pelo IP, e responde
+ * {@code 429} com {@code Retry-After} antes que a requisição chegue ao pool de conexões.
+ */
+public class LimiteTaxaFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(LimiteTaxaFilter.class);
+
+  private final LimitadorTaxa limitador;
+  private final Counter rejeitadas;
+
+  public LimiteTaxaFilter(LimitadorTaxa limitador, MeterRegistry registry) {
+    this.limitador = limitador;
+    this.rejeitadas = Counter.builder("creditos.http.rejeicoes").tag("status", "429")
+        .description("Requisições rejeitadas por limite de taxa").register(registry);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    RotaLimitada rota = RotaLimitada.daRequisicao(request.getMethod(), request.getRequestURI());
+    if (rota == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    String usuario = IdentidadeRequisicao.usuario();
+    String cliente = usuario != null ? "usuario:" + usuario
+        : "ip:" + IdentidadeRequisicao.ipOrigem(request);
+    Duration espera = limitador.consumir(rota, cliente);
+    if (espera.isZero()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    rejeitadas.increment();
+    log.debug("Limite de taxa excedido: cliente={}, rota={}, espera={}", cliente, rota.getNome(),
+        espera);
+    // Retry-After em segundos inteiros, arredondado para cima
+    long segundos = Math.max(1, (espera.toMillis() + 999) / 1000);
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+    response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+        "Limite de requisições excedido. Tente novamente em " + segundos + "s");
+  }
+}
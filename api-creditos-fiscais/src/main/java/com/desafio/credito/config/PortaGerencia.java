@@ -0,0 +1,33 @@
+package com.desafio.credito.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconhece as requisições que chegam pela porta do Actuator ({@code management.server.port}).
+ *
+ * A porta só é conhecida quando o servidor de gerência sobe (pode ser aleatória). Se o Actuator
+ * estiver na mesma porta da API, não há servidor de gerência e nenhuma requisição corresponde.
+ */
+@Component
+public class PortaGerencia
+    implements ApplicationListener<WebServerInitializedEvent>, RequestMatcher {
+
+  private volatile int porta = -1;
+
+  @Override
+  public void onApplicationEvent(WebServerInitializedEvent evento) {
+    // O evento do contexto filho de gerência também chega ao contexto principal
+    if ("management".equals(evento.getApplicationContext().getServerNamespace())) {
+      porta = evento.getWebServer().getPort();
+    }
+  }
+
+  @Override
+  public boolean matches(HttpServletRequest request) {
+    return porta > 0 && request.getLocalPort() == porta;
+  }
+}
@@ -0,0 +1,236 @@
+package com.desafio.credito.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pools das réplicas de leitura do PostgreSQL e a escolha de qual delas atende cada transação
+ * somente leitura.
+ *
+ * Uma verificação periódica mede o atraso de replicação de cada réplica; as que estão fora do ar
+ * ou atrasadas além de {@code app.datasource.replicas.atraso-maximo} deixam de receber leituras
+ * até a próxima verificação boa. Sem réplica disponível, ou se todas falharem ao conectar, a
+ * leitura vai para o primário.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas.habilitado", havingValue = "true")
+public class ReplicasLeitura implements MeterBinder, DisposableBean {
+
+  /**
+   * Segundos desde a última transação aplicada; 0 fora de recuperação (instância independente)
+   * ou com todo o WAL recebido já aplicado, para um primário ocioso não parecer atraso.
+   */
+  static final String CONSULTA_ATRASO = """
+      SELECT CASE WHEN NOT pg_is_in_recovery()
+                       OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                  ELSE extract(epoch FROM now() - pg_last_xact_replay_timestamp()) END
+      """;
+
+  public enum Selecao {
+    ROUND_ROBIN, MENOS_OCUPADA
+  }
+
+  private final List<Replica> replicas = new ArrayList<>();
+  private final Selecao selecao;
+  private final double atrasoMaximoSegundos;
+  private final AtomicInteger proxima = new AtomicInteger();
+  private final AtomicLong leiturasPrimario = new AtomicLong();
+  private final ScheduledExecutorService verificador;
+
+  public ReplicasLeitura(@Value("${app.datasource.replicas.urls}") String urls,
+      @Value("${app.datasource.replicas.usuario:${spring.datasource.username}}") String usuario,
+      @Value("${app.datasource.replicas.senha:${spring.datasource.password}}") String senha,
+      @Value("${app.datasource.replicas.maximo-conexoes:10}") int maximoConexoes,
+      @Value("${app.datasource.replicas.tempo-conexao:2s}") Duration tempoConexao,
+      @Value("${app.datasource.replicas.selecao:ROUND_ROBIN}") Selecao selecao,
+      @Value("${app.datasource.replicas.atraso-maximo:5s}") Duration atrasoMaximo,
+      @Value("${app.datasource.replicas.intervalo-verificacao:2s}") Duration intervalo,
+      @Value("${app.datasource.limite.habilitado:false}") boolean limitar,
+      @Value("${app.datasource.limite.espera-maxima:20s}") Duration esperaMaxima) {
+    List<String> enderecos = Arrays.stream(urls.split(",")).map(String::trim)
+        .filter(url -> !url.isEmpty()).toList();
+    if (enderecos.isEmpty()) {
+      throw new IllegalArgumentException(
+          "app.datasource.replicas.urls deve ter ao menos uma URL JDBC");
+    }
+    for (String url : enderecos) {
+      HikariConfig config = new HikariConfig();
+      config.setPoolName("replica-" + (replicas.size() + 1));
+      config.setJdbcUrl(url);
+      config.setUsername(usuario);
+      config.setPassword(senha);
+      config.setMaximumPoolSize(maximoConexoes);
+      config.setConnectionTimeout(tempoConexao.toMillis());
+      config.setReadOnly(true);
+      // Réplica fora do ar na subida não impede a aplicação de iniciar
+      config.setInitializationFailTimeout(-1);
+      HikariDataSource pool = new HikariDataSource(config);
+      replicas.add(new Replica(pool.getPoolName(), pool,
+          limitar ? new DataSourceLimitado(pool, maximoConexoes, esperaMaxima) : pool));
+    }
+    this.selecao = selecao;
+    this.atrasoMaximoSegundos = atrasoMaximo.toMillis() / 1000.0;
+    this.verificador = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("replicas-verificacao").daemon().factory());
+    verificador.scheduleWithFixedDelay(this::verificar, 0, intervalo.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * DataSource das conexões somente leitura: uma réplica disponível ou, na falta dela, o
+   * primário.
+   */
+  public DataSource comPrimario(DataSource primario) {
+    return new AbstractDataSource() {
+      @Override
+      public Connection getConnection() throws SQLException {
+        return conectar(primario);
+      }
+
+      @Override
+      public Connection getConnection(String username, String password) throws SQLException {
+        return primario.getConnection(username, password);
+      }
+    };
+  }
+
+  Connection conectar(DataSource primario) throws SQLException {
+    for (Replica replica : candidatas()) {
+      try {
+        Connection conexao = replica.dataSource.getConnection();
+        replica.leituras.incrementAndGet();
+        return conexao;
+      } catch (SQLException e) {
+        // Sem esperar a próxima verificação: as demais leituras já evitam essa réplica
+        marcar(replica, false, Double.NaN, e.getMessage());
+      }
+    }
+    leiturasPrimario.incrementAndGet();
+    return primario.getConnection();
+  }
+
+  private List<Replica> candidatas() {
+    List<Replica> disponiveis = new ArrayList<>(replicas.size());
+    for (Replica replica : replicas) {
+      if (replica.disponivel) {
+        disponiveis.add(replica);
+      }
+    }
+    if (disponiveis.size() > 1) {
+      if (selecao == Selecao.MENOS_OCUPADA) {
+        disponiveis.sort(Comparator.comparingInt(Replica::ativas));
+      } else {
+        int inicio = Math.floorMod(proxima.getAndIncrement(), disponiveis.size());
+        Collections.rotate(disponiveis, -inicio);
+      }
+    }
+    return disponiveis;
+  }
+
+  void verificar() {
+    for (Replica replica : replicas) {
+      try (Connection conexao = replica.pool.getConnection();
+          Statement consulta = conexao.createStatement()) {
+        consulta.setQueryTimeout(5);
+        try (ResultSet resultado = consulta.executeQuery(CONSULTA_ATRASO)) {
+          resultado.next();
+          double atraso = resultado.getDouble(1);
+          if (resultado.wasNull()) {
+            marcar(replica, false, Double.NaN, "atraso de replicação desconhecido");
+          } else if (atraso > atrasoMaximoSegundos) {
+            marcar(replica, false, atraso, "atraso de replicação de " + atraso + "s");
+          } else {
+            marcar(replica, true, atraso, null);
+          }
+        }
+      } catch (Exception e) {
+        marcar(replica, false, Double.NaN, e.getMessage());
+      }
+    }
+  }
+
+  private void marcar(Replica replica, boolean disponivel, double atraso, String motivo) {
+    replica.atrasoSegundos = atraso;
+    if (replica.disponivel != disponivel) {
+      replica.disponivel = disponivel;
+      if (disponivel) {
+        log.info("Réplica {} disponível para leituras", replica.nome);
+      } else {
+        log.warn("Réplica {} fora das leituras: {}", replica.nome, motivo);
+      }
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("creditos.datasource.leituras", leiturasPrimario, AtomicLong::get)
+        .description("Conexões somente leitura por destino").tag("destino", "primario")
+        .register(registry);
+    for (Replica replica : replicas) {
+      FunctionCounter.builder("creditos.datasource.leituras", replica.leituras, AtomicLong::get)
+          .description("Conexões somente leitura por destino").tag("destino", replica.nome)
+          .register(registry);
+      Gauge.builder("creditos.datasource.replica.atraso", replica, r -> r.atrasoSegundos)
+          .description("Atraso de replicação na última verificação (segundos)")
+          .tag("replica", replica.nome).baseUnit("seconds").register(registry);
+      Gauge.builder("creditos.datasource.replica.disponivel", replica, r -> r.disponivel ? 1 : 0)
+          .tag("replica", replica.nome).register(registry);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    verificador.shutdownNow();
+    replicas.forEach(replica -> replica.pool.close());
+  }
+
+  private static final class Replica {
+
+    private final String nome;
+    private final HikariDataSource pool;
+    private final DataSource dataSource;
+    private final AtomicLong leituras = new AtomicLong();
+    private volatile boolean disponivel;
+    private volatile double atrasoSegundos = Double.NaN;
+
+    private Replica(String nome, HikariDataSource pool, DataSource dataSource) {
+      this.nome = nome;
+      this.pool = pool;
+      this.dataSource = dataSource;
+    }
+
+    private int ativas() {
+      HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+      return mxBean != null ? mxBean.getActiveConnections() : 0;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.desafio.credito.config;
+
+/**
+ * Grupos de rotas de {@code /creditos/**} com limites de taxa próprios. Cada cliente tem um
+ * balde por grupo, então esgotar as exportações não bloqueia as consultas simples.
+ */
+public enum RotaLimitada {
+  /** Consultas por NFS-e, por número, listagens e resumos. */
+  CONSULTA("consulta"),
+  /** POST /creditos/lote: até centenas de chaves por chamada. */
+  LOTE("lote"),
+  /** Exportação e importação em arquivo: seguram uma conexão por toda a transferência. */
+  TRANSFERENCIA("transferencia");
+
+  private final String nome;
+
+  RotaLimitada(String nome) {
+    this.nome = nome;
+  }
+
+  public String getNome() {
+    return nome;
+  }
+
+  /**
+   * Grupo da requisição, ou {@code null} se ela não passa pelo limite (fora de
+   * {@code /creditos/**} ou o health check {@code /creditos/status}).
+   */
+  public static RotaLimitada daRequisicao(String metodo, String caminho) {
+    if (!caminho.startsWith("/creditos") || caminho.equals("/creditos/status")) {
+      return null;
+    }
+    if (caminho.length() > "/creditos".length() && caminho.charAt("/creditos".length()) != '/') {
+      return null;
+    }
+    if (caminho.equals("/creditos/exportacao") || caminho.equals("/creditos/importacao")) {
+      return TRANSFERENCIA;
+    }
+    if ("POST".equals(metodo) && caminho.equals("/creditos/lote")) {
+      return LOTE;
+    }
+    return CONSULTA;
+  }
+}
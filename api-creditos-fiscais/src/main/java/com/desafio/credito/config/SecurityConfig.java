@@ -1,5 +1,6 @@
 package com.desafio.credito.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -14,26 +15,50 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 import com.desafio.credito.service.UsuarioService;
 import com.desafio.credito.entity.Usuario;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.springframework.http.HttpMethod;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(securedEnabled = true)
 public class SecurityConfig {
+  /**
+   * Papel dos logins listados em {@code app.seguranca.administradores}; libera as operações
+   * administrativas (importação de créditos, cache e estatísticas da auditoria).
+   */
+  public static final String PAPEL_ADMIN = "ADMIN";
+
+  /**
+   * Aumentar o custo vale para os próximos cadastros, e os hashes antigos são refeitos no login
+   * seguinte de cada usuário (ver {@code UsuarioService#autenticar}).
+   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(@Value("${app.seguranca.senha.custo:10}") int custo) {
+    return new BCryptPasswordEncoder(custo);
   }
 
   @Bean
@@ -50,7 +75,12 @@ public class SecurityConfig {
 
   @Bean
   public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtUtil jwtUtil,
-      UsuarioService usuarioService) throws Exception {
+      UsuarioService usuarioService, JwtPrincipalCache principalCache, LimitadorTaxa limitador,
+      PortaGerencia portaGerencia,
+      @Value("${app.seguranca.administradores:}") Set<String> administradores,
+      MeterRegistry registry) throws Exception {
+    Counter naoAutorizados = Counter.builder("creditos.http.rejeicoes").tag("status", "401")
+        .description("Requisições rejeitadas por falta de autenticação").register(registry);
 
     return http.csrf(AbstractHttpConfigurer::disable)
         .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -64,22 +94,66 @@ public class SecurityConfig {
           // Endpoints públicos da API
           auth.requestMatchers( "/usuarios", "/usuarios/login").permitAll();
           auth.requestMatchers(HttpMethod.POST, "/test").permitAll();
+          // Probes na porta da API; health e prometheus do Actuator sem token só na porta de
+          // gerência, que não é publicada. Na porta da API o Actuator exige autenticação
+          auth.requestMatchers("/livez", "/readyz").permitAll();
+          auth.requestMatchers(new AndRequestMatcher(portaGerencia,
+              new OrRequestMatcher(antMatcher("/actuator/health"),
+                  antMatcher("/actuator/health/**"), antMatcher("/actuator/prometheus"))))
+              .permitAll();
           //auth.requestMatchers(HttpMethod.GET, "/creditos").permitAll();
 
+          // Importação (COPY/INSERT em massa) só para administradores: o cadastro é aberto
+          auth.requestMatchers(HttpMethod.POST, "/creditos/importacao").hasRole(PAPEL_ADMIN);
+          auth.requestMatchers(HttpMethod.GET, "/creditos/importacoes").hasRole(PAPEL_ADMIN);
+          // Estatísticas e invalidação do cache são operacionais, não do cliente da API
+          auth.requestMatchers("/creditos/cache", "/creditos/cache/**").hasRole(PAPEL_ADMIN);
+          // Idem para a fila e o outbox da auditoria
+          auth.requestMatchers("/creditos/auditoria/estatisticas").hasRole(PAPEL_ADMIN);
+
           // Qualquer outra requisição precisa de autenticação
           auth.anyRequest().authenticated();
-        }).addFilterBefore(new JwtAuthFilter(jwtUtil, usuarioService),
-            UsernamePasswordAuthenticationFilter.class)
+        })
+        .exceptionHandling(ex -> ex.authenticationEntryPoint((request, response, erro) -> {
+          naoAutorizados.increment();
+          response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        }))
+        .addFilterBefore(new JwtAuthFilter(jwtUtil, usuarioService, principalCache,
+            administradores, registry), UsernamePasswordAuthenticationFilter.class)
+        // Depois do JWT: o limite de taxa usa o login quando há um
+        .addFilterAfter(new LimiteTaxaFilter(limitador, registry), JwtAuthFilter.class)
         .build();
   }
 
   public static class JwtAuthFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
     private final JwtUtil jwtUtil;
     private final UsuarioService usuarioService;
+    private final JwtPrincipalCache principalCache;
+    private final Set<String> administradores;
+    private final MeterRegistry registry;
+    // Um timer por resultado, registrados uma vez: a busca no registry ficaria no caminho de
+    // toda requisição
+    private final Timer semToken;
+    private final Timer autenticado;
+    private final Timer rejeitado;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UsuarioService usuarioService) {
+    public JwtAuthFilter(JwtUtil jwtUtil, UsuarioService usuarioService,
+        JwtPrincipalCache principalCache, Set<String> administradores, MeterRegistry registry) {
       this.jwtUtil = jwtUtil;
       this.usuarioService = usuarioService;
+      this.principalCache = principalCache;
+      this.administradores = administradores.stream().map(String::trim)
+          .filter(login -> !login.isEmpty()).collect(Collectors.toUnmodifiableSet());
+      this.registry = registry;
+      this.semToken = timer("sem_token", registry);
+      this.autenticado = timer("autenticado", registry);
+      this.rejeitado = timer("rejeitado", registry);
+    }
+
+    private static Timer timer(String resultado, MeterRegistry registry) {
+      return Timer.builder("creditos.jwt.filtro").tag("resultado", resultado)
+          .description("Tempo de autenticação do token no filtro JWT").register(registry);
     }
 
     @Override
@@ -88,38 +162,60 @@ public class SecurityConfig {
 
       String requestPath = request.getRequestURI();
 
-      // Debug temporário
-      System.out.println("🔍 Filtro JWT - URL: " + requestPath);
-      System.out.println("🔍 É URL pública? " + isPublicUrl(requestPath));
-
       if (isPublicUrl(requestPath)) {
-        System.out.println("✅ URL pública ignorada: " + requestPath);
+        log.debug("URL pública ignorada pelo filtro JWT: {}", requestPath);
         filterChain.doFilter(request, response);
         return;
       }
 
+      // Mede só o trabalho do filtro; o restante da cadeia fica fora do timer
+      Timer.Sample amostra = Timer.start(registry);
+      Timer resultado = semToken;
       String authHeader = request.getHeader("Authorization");
       if (authHeader != null && authHeader.startsWith("Bearer ")) {
         String token = authHeader.substring(7);
-        if (jwtUtil.validarToken(token)) {
-          String login = jwtUtil.extrairLogin(token);
-          Usuario usuario = usuarioService.buscarPorLogin(login).orElse(null);
-          if (usuario != null) {
-            UsernamePasswordAuthenticationToken authentication =
-                new UsernamePasswordAuthenticationToken(usuario.getLogin(), null,
-                    Collections.emptyList());
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-          }
+        String login = autenticar(token);
+        resultado = login != null ? autenticado : rejeitado;
+        if (login != null) {
+          // O papel vem da configuração, não do token: vale sem reemitir tokens
+          List<GrantedAuthority> papeis = administradores.contains(login)
+              ? List.of(new SimpleGrantedAuthority("ROLE_" + PAPEL_ADMIN)) : List.of();
+          UsernamePasswordAuthenticationToken authentication =
+              new UsernamePasswordAuthenticationToken(login, null, papeis);
+          authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+          SecurityContextHolder.getContext().setAuthentication(authentication);
         }
       }
+      amostra.stop(resultado);
       filterChain.doFilter(request, response);
     }
 
     /**
-     * Verifica se a URL é pública e não deve ser processada pelo filtro JWT
+     * Resolve o login do token. Tokens já verificados saem do cache sem parse nem acesso ao
+     * banco; os demais passam por uma única verificação de assinatura e pela consulta do usuário.
+     */
+    private String autenticar(String token) {
+      String login = principalCache.buscarLogin(token);
+      if (login != null) {
+        return login;
+      }
+      TokenValidado valido = jwtUtil.validar(token).orElse(null);
+      if (valido == null) {
+        return null;
+      }
+      Usuario usuario = usuarioService.buscarPorLogin(valido.login()).orElse(null);
+      if (usuario == null) {
+        return null;
+      }
+      principalCache.registrar(token, valido);
+      return usuario.getLogin();
+    }
+
+    /**
+     * Verifica se a URL não deve ser processada pelo filtro JWT: as públicas e as do Actuator que
+     * só são liberadas na porta de gerência (na porta da API continuam sem autenticação, e negadas)
      */
-    private boolean isPublicUrl(String requestPath) {
+    boolean isPublicUrl(String requestPath) {
       return requestPath.equals("/usuarios") || requestPath.equals("/usuarios/login")
           || requestPath.equals("/creditos/status") || requestPath.equals("/test") ||
           // Swagger URLs - lista mais completa
@@ -128,7 +224,11 @@ public class SecurityConfig {
           || requestPath.equals("/v3/api-docs/swagger-config") || // URL específica
           requestPath.startsWith("/api-docs/") || requestPath.startsWith("/swagger-resources/")
           || requestPath.startsWith("/webjars/") || requestPath.equals("/configuration/ui")
-          || requestPath.equals("/configuration/security");
+          || requestPath.equals("/configuration/security")
+          || requestPath.equals("/livez") || requestPath.equals("/readyz")
+          || requestPath.equals("/actuator/health")
+          || requestPath.startsWith("/actuator/health/")
+          || requestPath.equals("/actuator/prometheus");
     }
   }
 }
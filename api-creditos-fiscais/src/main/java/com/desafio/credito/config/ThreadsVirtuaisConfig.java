@@ -0,0 +1,47 @@
+package com.desafio.credito.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Ajustes do modo com threads virtuais ({@code spring.threads.virtual.enabled}).
+ *
+ * O Spring Boot já passa o Tomcat e os executores para threads virtuais. O limite de conexões
+ * simultâneas na frente do pool, ligado por padrão junto com esse modo, é aplicado em
+ * {@link DataSourceConfig}; aqui ficam as métricas dele.
+ */
+@Configuration
+public class ThreadsVirtuaisConfig {
+
+  /**
+   * Permissões livres e threads na fila do semáforo: saturação antes mesmo de chegar ao Hikari.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "app.datasource.limite.habilitado", havingValue = "true")
+  public MeterBinder metricasLimiteDataSource(ObjectProvider<DataSource> dataSources) {
+    return registry -> dataSources.orderedStream().map(ThreadsVirtuaisConfig::limitado)
+        .filter(Objects::nonNull).forEach(limitado -> {
+          Gauge.builder("creditos.datasource.limite.disponiveis", limitado,
+              DataSourceLimitado::getPermissoesDisponiveis).register(registry);
+          Gauge.builder("creditos.datasource.limite.aguardando", limitado,
+              DataSourceLimitado::getThreadsAguardando).register(registry);
+        });
+  }
+
+  private static DataSourceLimitado limitado(DataSource dataSource) {
+    try {
+      return dataSource.isWrapperFor(DataSourceLimitado.class)
+          ? dataSource.unwrap(DataSourceLimitado.class) : null;
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.desafio.credito.config;
+
+import java.time.Instant;
+
+/**
+ * Resultado de uma validação de JWT: assinatura conferida e claims já extraídas.
+ */
+public record TokenValidado(String login, Instant expiracao) {
+}
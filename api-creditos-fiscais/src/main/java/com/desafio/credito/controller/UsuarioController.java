@@ -49,7 +49,9 @@ public class UsuarioController {
                   examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
                       value = "{\"id\":1,\"nome\":\"João da Silva\",\"login\":\"joaosilva\"}"))),
           @ApiResponse(responseCode = "400", description = "Erro de validação"),
-          @ApiResponse(responseCode = "409", description = "Login já está em uso")})
+          @ApiResponse(responseCode = "409", description = "Login já está em uso"),
+          @ApiResponse(responseCode = "503",
+              description = "Pool de hash de senhas saturado; tente de novo após Retry-After")})
   @PostMapping
   public ResponseEntity<UsuarioDTO> criar(@Valid @RequestBody UsuarioRequestDTO usuarioRequestDTO) {
     UsuarioDTO salvo = usuarioService.salvar(usuarioRequestDTO);
@@ -107,7 +109,9 @@ public class UsuarioController {
                   implementation = LoginResponseDTO.class),
               examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
                   value = "{\"nome\":\"João da Silva\",\"login\":\"joaosilva\",\"token\":\"eyJhbGciOiJIUzI1NiIsInR5cCI6...\"}"))),
-          @ApiResponse(responseCode = "401", description = "Credenciais inválidas")})
+          @ApiResponse(responseCode = "401", description = "Credenciais inválidas"),
+          @ApiResponse(responseCode = "503",
+              description = "Pool de hash de senhas saturado; tente de novo após Retry-After")})
   @PostMapping("/login")
   public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginRequest) {
     String login = loginRequest.getLogin();
@@ -0,0 +1,23 @@
+package com.desafio.credito.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Números de NFS-e e de crédito que correspondem a um trecho informado")
+public class BuscaCreditosDTO {
+  @Schema(description = "NFS-e que começam com o trecho e, em seguida, as que o contêm; "
+      + "omitido quando a busca é só por crédito", example = "[\"7891011\",\"17891011\"]")
+  private List<String> numerosNfse;
+
+  @Schema(description = "Números de crédito, na mesma ordem; omitido quando a busca é só por "
+      + "NFS-e", example = "[\"123456\"]")
+  private List<String> numerosCredito;
+}
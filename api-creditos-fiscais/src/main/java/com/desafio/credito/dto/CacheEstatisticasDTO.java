@@ -0,0 +1,29 @@
+package com.desafio.credito.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Estatísticas de um cache de consultas de crédito")
+public class CacheEstatisticasDTO {
+  @Schema(description = "Nome do cache", example = "creditos-por-nfse")
+  private String cache;
+
+  @Schema(description = "Consultas atendidas pelo cache", example = "1520")
+  private long acertos;
+
+  @Schema(description = "Consultas que foram ao banco", example = "80")
+  private long falhas;
+
+  @Schema(description = "Entradas removidas por tamanho ou expiração", example = "12")
+  private long despejos;
+
+  @Schema(description = "Proporção de acertos (0 a 1)", example = "0.95")
+  private double taxaAcerto;
+
+  @Schema(description = "Quantidade aproximada de entradas", example = "430")
+  private long tamanho;
+}
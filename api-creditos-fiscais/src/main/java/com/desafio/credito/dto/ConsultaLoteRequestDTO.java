@@ -0,0 +1,19 @@
+package com.desafio.credito.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO de requisição de consulta de créditos em lote",
+    example = "{\"numerosNfse\":[\"7891011\",\"1122334\"],\"numerosCredito\":[\"123456\"]}")
+public class ConsultaLoteRequestDTO {
+  @Schema(description = "Números de NFS-e a consultar", example = "[\"7891011\",\"1122334\"]")
+  private List<String> numerosNfse;
+
+  @Schema(description = "Números de crédito a consultar", example = "[\"123456\"]")
+  private List<String> numerosCredito;
+}
@@ -0,0 +1,29 @@
+package com.desafio.credito.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO de resposta de consulta de créditos em lote")
+public class ConsultaLoteResponseDTO {
+  @Schema(description = "Créditos encontrados, agrupados por número da NFS-e")
+  private Map<String, List<CreditoDTO>> creditosPorNfse;
+
+  @Schema(description = "Créditos encontrados, indexados pelo número do crédito")
+  private Map<String, CreditoDTO> creditosPorNumero;
+
+  @Schema(description = "NFS-e sem nenhum crédito", example = "[\"0000000\"]")
+  private List<String> nfseNaoEncontradas;
+
+  @Schema(description = "Números de crédito inexistentes", example = "[\"999999\"]")
+  private List<String> creditosNaoEncontrados;
+
+  @Schema(description = "Total de créditos retornados", example = "3")
+  private int quantidadeCreditos;
+}
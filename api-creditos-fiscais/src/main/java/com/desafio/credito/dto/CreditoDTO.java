@@ -1,6 +1,7 @@
 package com.desafio.credito.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -8,6 +9,8 @@ import java.time.LocalDate;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class CreditoDTO {
 
     private String numeroCredito;
@@ -30,4 +33,8 @@ public class CreditoDTO {
 
     private BigDecimal baseCalculo;
 
+    /** Versão lida junto com os dados; base da ETag do que é servido, não vai no JSON. */
+    @JsonIgnore
+    private Long versao;
+
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.desafio.credito.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Linha rejeitada na importação de créditos")
+public class ErroImportacaoDTO {
+  @Schema(description = "Número da linha no arquivo (a partir de 1, contando o cabeçalho)",
+      example = "42")
+  private long linha;
+
+  @Schema(description = "Número do crédito da linha, quando pôde ser lido", example = "123456")
+  private String numeroCredito;
+
+  @Schema(description = "Motivo da rejeição", example = "valorIssqn é obrigatório")
+  private String mensagem;
+}
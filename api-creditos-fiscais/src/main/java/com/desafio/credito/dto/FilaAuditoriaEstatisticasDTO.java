@@ -0,0 +1,47 @@
+package com.desafio.credito.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Estatísticas da publicação de eventos de auditoria")
+public class FilaAuditoriaEstatisticasDTO {
+  @Schema(description = "Envio feito por fila própria (true) ou na thread da requisição (false)",
+      example = "true")
+  private boolean assincrono;
+
+  @Schema(description = "Eventos gravados no outbox e publicados por um relay", example = "false")
+  private boolean outbox;
+
+  @Schema(description = "Eventos no outbox aguardando publicação, contados pelo relay a cada 15s"
+      + " (apenas com outbox)",
+      example = "0")
+  private Long pendentesOutbox;
+
+  @Schema(description = "Capacidade da fila", example = "10000")
+  private int capacidade;
+
+  @Schema(description = "Eventos aguardando envio", example = "3")
+  private int profundidade;
+
+  @Schema(description = "Eventos aceitos na fila", example = "15230")
+  private long enfileirados;
+
+  @Schema(description = "Eventos descartados por fila cheia", example = "0")
+  private long descartados;
+
+  @Schema(description = "Eventos confirmados pelo Kafka", example = "15227")
+  private long enviados;
+
+  @Schema(description = "Eventos cujo envio falhou", example = "0")
+  private long falhas;
+
+  @Schema(description = "Latência média de envio, em milissegundos", example = "4.2")
+  private double latenciaMediaMs;
+
+  @Schema(description = "Maior latência de envio observada, em milissegundos", example = "87.0")
+  private double latenciaMaximaMs;
+}
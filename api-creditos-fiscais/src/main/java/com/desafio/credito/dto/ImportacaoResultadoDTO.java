@@ -0,0 +1,49 @@
+package com.desafio.credito.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Andamento ou resultado de uma importação de créditos")
+public class ImportacaoResultadoDTO {
+  @Schema(description = "Identificador da importação",
+      example = "4f1c2e9a-6b1d-4c1e-9a55-1f0e2b7c9d11")
+  private String id;
+
+  @Schema(description = "EM_ANDAMENTO, CONCLUIDA ou FALHOU", example = "CONCLUIDA")
+  private String situacao;
+
+  @Schema(description = "Formato do arquivo", example = "CSV")
+  private String formato;
+
+  @Schema(description = "Forma de gravação: INSERT (JPA em batch) ou COPY", example = "COPY")
+  private String metodo;
+
+  @Schema(description = "Linhas de dados lidas até agora", example = "250000")
+  private long linhasLidas;
+
+  @Schema(description = "Créditos gravados", example = "249998")
+  private long importados;
+
+  @Schema(description = "Linhas rejeitadas", example = "2")
+  private long rejeitados;
+
+  @Schema(description = "Primeiros erros de validação (limitado por "
+      + "app.creditos.importacao.maximo-erros)")
+  private List<ErroImportacaoDTO> erros;
+
+  @Schema(description = "Motivo da falha, quando situacao = FALHOU")
+  private String mensagem;
+
+  @Schema(description = "Início da importação", example = "2024-03-01T10:00:00")
+  private LocalDateTime inicio;
+
+  @Schema(description = "Duração até agora, em milissegundos", example = "5120")
+  private long duracaoMs;
+}
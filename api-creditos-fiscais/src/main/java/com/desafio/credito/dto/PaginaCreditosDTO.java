@@ -0,0 +1,23 @@
+package com.desafio.credito.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de créditos com cursor de continuação")
+public class PaginaCreditosDTO {
+  @Schema(description = "Créditos da página, do mais recente para o mais antigo")
+  private List<CreditoDTO> creditos;
+
+  @Schema(description = "Cursor opaco para a próxima página; nulo na última página",
+      example = "djE6MjAyNC0wMi0yNToxMjM")
+  private String proximoCursor;
+
+  @Schema(description = "Indica se há mais páginas", example = "true")
+  private boolean possuiMais;
+}
@@ -0,0 +1,36 @@
+package com.desafio.credito.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Totais de créditos de um grupo; dimensões fora do agrupamento são omitidas")
+public class ResumoCreditoDTO {
+  @Schema(description = "Mês de constituição (AAAA-MM)", example = "2024-02")
+  private String mes;
+
+  @Schema(description = "Tipo do crédito", example = "ISSQN")
+  private String tipoCredito;
+
+  @Schema(description = "Optante pelo Simples Nacional", example = "true")
+  private Boolean simplesNacional;
+
+  @Schema(description = "Quantidade de créditos", example = "42")
+  private long quantidade;
+
+  @Schema(description = "Soma do valor do ISSQN", example = "63031.50")
+  private BigDecimal valorIssqn;
+
+  @Schema(description = "Soma do valor faturado", example = "1260000.00")
+  private BigDecimal valorFaturado;
+
+  @Schema(description = "Soma da base de cálculo", example = "1050000.00")
+  private BigDecimal baseCalculo;
+}
@@ -1,24 +1,42 @@
 package com.desafio.credito.entity;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 
+// Cache de segundo nível só quando app.cache.segundo-nivel.habilitado (CacheSegundoNivelConfig)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Credito.REGIAO_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Credito {
+  /** Tamanho do bloco de ids; igual ao INCREMENT BY de credito_id_seq (V9). */
+  public static final int ALOCACAO_IDS = 50;
+
+  /** Regiões do cache de segundo nível: entidades e resultados das consultas por número. */
+  public static final String REGIAO_CACHE = "credito";
+  public static final String REGIAO_CONSULTAS = "credito-consultas";
+
+  // Sequence em vez de IDENTITY: com IDENTITY o Hibernate não consegue agrupar INSERTs em batch
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credito_id")
+  @SequenceGenerator(name = "credito_id", sequenceName = "credito_id_seq",
+      allocationSize = ALOCACAO_IDS)
   private Long id;
   private String numeroCredito;
   private String numeroNfse;
@@ -31,5 +49,14 @@ public class Credito {
   private BigDecimal valorDeducao;
   private BigDecimal baseCalculo;
 
+  /**
+   * Mantida pelo banco (default e trigger de V10); base das ETags das consultas. Não é relida
+   * após INSERT/UPDATE (o INSERT ... RETURNING tiraria os inserts do batch JDBC), então numa
+   * entidade recém-gravada fica nula ou desatualizada: as ETags vêm sempre das projeções em
+   * {@code CreditoDTO} e de {@code buscarVersaoPorNfse}/{@code buscarVersaoPorNumero}.
+   */
+  @Column(insertable = false, updatable = false)
+  private Long versao;
+
 }
 
@@ -2,13 +2,22 @@ package com.desafio.credito.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Cache de segundo nível só quando app.cache.segundo-nivel.habilitado (CacheSegundoNivelConfig)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Usuario.REGIAO_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Usuario {
+  /** Regiões do cache de segundo nível: entidades e resultados da consulta por login. */
+  public static final String REGIAO_CACHE = "usuario";
+  public static final String REGIAO_CONSULTAS = "usuario-consultas";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -0,0 +1,202 @@
+package com.desafio.credito.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Formato binário compacto de {@link CreditoConsultaEvent}.
+ *
+ * <pre>
+ * byte     MAGIA (0xCE)
+ * byte     versão
+ * varint   máscara de presença (bit i = campo i não nulo)
+ * campos presentes, na ordem abaixo:
+ *   0 numeroNfse            string
+ *   1 numeroCredito         string
+ *   2 tipoConsulta          varint (código do enum)
+ *   3 usuario               string
+ *   4 ipOrigem              string
+ *   5 dataHoraConsulta      varint zigzag (segundos desde 1970-01-01T00:00, sem fuso)
+ *   6 quantidadeResultados  varint zigzag
+ *   7 status                varint (código do enum)
+ *   8 mensagemErro          string
+ * string = varint com o tamanho em bytes + UTF-8
+ * </pre>
+ *
+ * Evolução: campos novos só entram no fim, com a versão incrementada. O leitor ignora bytes após
+ * os campos que conhece e devolve {@code null} para códigos de enum desconhecidos, então versões
+ * antigas continuam lendo eventos de versões novas. Como no JSON, a data vai com precisão de
+ * segundos.
+ */
+public final class CreditoConsultaEventCodec {
+
+  static final byte MAGIA = (byte) 0xCE;
+  static final byte VERSAO = 1;
+
+  private CreditoConsultaEventCodec() {
+  }
+
+  /** Indica se o payload está no formato binário (e não em JSON). */
+  public static boolean isBinario(byte[] dados) {
+    return dados.length > 1 && dados[0] == MAGIA;
+  }
+
+  public static byte[] codificar(CreditoConsultaEvent evento) {
+    Escritor escritor = new Escritor();
+    escritor.bytes[escritor.posicao++] = MAGIA;
+    escritor.bytes[escritor.posicao++] = VERSAO;
+    int mascara = presente(0, evento.getNumeroNfse()) | presente(1, evento.getNumeroCredito())
+        | presente(2, evento.getTipoConsulta()) | presente(3, evento.getUsuario())
+        | presente(4, evento.getIpOrigem()) | presente(5, evento.getDataHoraConsulta())
+        | presente(6, evento.getQuantidadeResultados()) | presente(7, evento.getStatus())
+        | presente(8, evento.getMensagemErro());
+    escritor.varint(mascara);
+    escritor.texto(evento.getNumeroNfse());
+    escritor.texto(evento.getNumeroCredito());
+    if (evento.getTipoConsulta() != null) {
+      escritor.varint(evento.getTipoConsulta().getCodigo());
+    }
+    escritor.texto(evento.getUsuario());
+    escritor.texto(evento.getIpOrigem());
+    if (evento.getDataHoraConsulta() != null) {
+      escritor.zigzag(evento.getDataHoraConsulta().toEpochSecond(ZoneOffset.UTC));
+    }
+    if (evento.getQuantidadeResultados() != null) {
+      escritor.zigzag(evento.getQuantidadeResultados());
+    }
+    if (evento.getStatus() != null) {
+      escritor.varint(evento.getStatus().getCodigo());
+    }
+    escritor.texto(evento.getMensagemErro());
+    return Arrays.copyOf(escritor.bytes, escritor.posicao);
+  }
+
+  public static CreditoConsultaEvent decodificar(byte[] dados) {
+    if (!isBinario(dados)) {
+      throw new IllegalArgumentException("Payload não está no formato binário de auditoria");
+    }
+    if (dados[1] < 1) {
+      throw new IllegalArgumentException("Versão inválida do evento de auditoria: " + dados[1]);
+    }
+    Leitor leitor = new Leitor(dados, 2);
+    long mascara = leitor.varint();
+    CreditoConsultaEvent evento = new CreditoConsultaEvent();
+    if (bit(mascara, 0)) {
+      evento.setNumeroNfse(leitor.texto());
+    }
+    if (bit(mascara, 1)) {
+      evento.setNumeroCredito(leitor.texto());
+    }
+    if (bit(mascara, 2)) {
+      evento.setTipoConsulta(EnunTipoConsulta.deCodigo((int) leitor.varint()));
+    }
+    if (bit(mascara, 3)) {
+      evento.setUsuario(leitor.texto());
+    }
+    if (bit(mascara, 4)) {
+      evento.setIpOrigem(leitor.texto());
+    }
+    if (bit(mascara, 5)) {
+      evento.setDataHoraConsulta(LocalDateTime.ofEpochSecond(leitor.zigzag(), 0, ZoneOffset.UTC));
+    }
+    if (bit(mascara, 6)) {
+      evento.setQuantidadeResultados((int) leitor.zigzag());
+    }
+    if (bit(mascara, 7)) {
+      evento.setStatus(EnumStatusConsulta.deCodigo((int) leitor.varint()));
+    }
+    if (bit(mascara, 8)) {
+      evento.setMensagemErro(leitor.texto());
+    }
+    return evento;
+  }
+
+  private static int presente(int indice, Object valor) {
+    return valor != null ? 1 << indice : 0;
+  }
+
+  private static boolean bit(long mascara, int indice) {
+    return (mascara & (1L << indice)) != 0;
+  }
+
+  private static final class Escritor {
+    private byte[] bytes = new byte[128];
+    private int posicao;
+
+    void varint(long valor) {
+      garantir(10);
+      while ((valor & ~0x7FL) != 0) {
+        bytes[posicao++] = (byte) ((valor & 0x7F) | 0x80);
+        valor >>>= 7;
+      }
+      bytes[posicao++] = (byte) valor;
+    }
+
+    void zigzag(long valor) {
+      varint((valor << 1) ^ (valor >> 63));
+    }
+
+    void texto(String valor) {
+      if (valor == null) {
+        return;
+      }
+      byte[] utf8 = valor.getBytes(StandardCharsets.UTF_8);
+      varint(utf8.length);
+      garantir(utf8.length);
+      System.arraycopy(utf8, 0, bytes, posicao, utf8.length);
+      posicao += utf8.length;
+    }
+
+    private void garantir(int adicional) {
+      if (posicao + adicional > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, posicao + adicional));
+      }
+    }
+  }
+
+  private static final class Leitor {
+    private final byte[] bytes;
+    private int posicao;
+
+    Leitor(byte[] bytes, int posicao) {
+      this.bytes = bytes;
+      this.posicao = posicao;
+    }
+
+    long varint() {
+      long valor = 0;
+      for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+        byte b = proximo();
+        valor |= (long) (b & 0x7F) << deslocamento;
+        if ((b & 0x80) == 0) {
+          return valor;
+        }
+      }
+      throw new IllegalArgumentException("Varint malformado no evento de auditoria");
+    }
+
+    long zigzag() {
+      long valor = varint();
+      return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    String texto() {
+      long tamanho = varint();
+      if (tamanho < 0 || tamanho > bytes.length - posicao) {
+        throw new IllegalArgumentException("Texto truncado no evento de auditoria");
+      }
+      String valor = new String(bytes, posicao, (int) tamanho, StandardCharsets.UTF_8);
+      posicao += (int) tamanho;
+      return valor;
+    }
+
+    private byte proximo() {
+      if (posicao >= bytes.length) {
+        throw new IllegalArgumentException("Evento de auditoria truncado");
+      }
+      return bytes[posicao++];
+    }
+  }
+}
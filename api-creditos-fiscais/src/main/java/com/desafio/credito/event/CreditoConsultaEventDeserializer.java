@@ -0,0 +1,33 @@
+package com.desafio.credito.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+
+/**
+ * Lê eventos de auditoria nos dois formatos aceitos no tópico: o binário de
+ * {@link CreditoConsultaEventCodec} e o JSON do {@code JsonSerializer}. O formato é reconhecido
+ * pelo primeiro byte, o que permite trocar o formato do produtor sem esvaziar o tópico.
+ */
+public class CreditoConsultaEventDeserializer implements Deserializer<CreditoConsultaEvent> {
+
+  private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+  @Override
+  public CreditoConsultaEvent deserialize(String topic, byte[] dados) {
+    if (dados == null || dados.length == 0) {
+      return null;
+    }
+    try {
+      if (CreditoConsultaEventCodec.isBinario(dados)) {
+        return CreditoConsultaEventCodec.decodificar(dados);
+      }
+      return objectMapper.readValue(dados, CreditoConsultaEvent.class);
+    } catch (IllegalArgumentException | IOException e) {
+      throw new SerializationException("Evento de auditoria ilegível no tópico " + topic, e);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.desafio.credito.event;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Serializa os eventos de auditoria em JSON ou no formato binário de
+ * {@link CreditoConsultaEventCodec}, conforme a propriedade do produtor {@value #FORMATO}
+ * ({@code json}, o padrão, ou {@code binario}). O {@link CreditoConsultaEventDeserializer} lê os
+ * dois; outros consumidores do tópico esperam JSON, então o binário é opcional.
+ */
+public class CreditoConsultaEventSerializer implements Serializer<CreditoConsultaEvent> {
+
+  public static final String FORMATO = "auditoria.formato";
+
+  private JsonSerializer<CreditoConsultaEvent> json;
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    Object formato = configs.get(FORMATO);
+    String valor = formato != null ? formato.toString().toLowerCase(Locale.ROOT) : "json";
+    switch (valor) {
+      case "binario" -> json = null;
+      case "json" -> json = new JsonSerializer<CreditoConsultaEvent>().noTypeInfo();
+      default -> throw new IllegalArgumentException(
+          "Formato de auditoria inválido: " + formato + " (use binario ou json)");
+    }
+  }
+
+  @Override
+  public byte[] serialize(String topic, CreditoConsultaEvent evento) {
+    if (evento == null) {
+      return null;
+    }
+    return json != null ? json.serialize(topic, evento)
+        : CreditoConsultaEventCodec.codificar(evento);
+  }
+
+  @Override
+  public void close() {
+    if (json != null) {
+      json.close();
+    }
+  }
+}
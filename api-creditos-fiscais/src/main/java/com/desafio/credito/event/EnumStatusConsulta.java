@@ -1,5 +1,27 @@
 package com.desafio.credito.event;
 
+/**
+ * Assim como em {@link EnunTipoConsulta}, os códigos fazem parte do formato binário dos eventos.
+ */
 public enum EnumStatusConsulta {
-  SUCESSO, NAO_ENCONTRADO, ERRO;
+  SUCESSO(1), NAO_ENCONTRADO(2), ERRO(3);
+
+  private final int codigo;
+
+  EnumStatusConsulta(int codigo) {
+    this.codigo = codigo;
+  }
+
+  public int getCodigo() {
+    return codigo;
+  }
+
+  public static EnumStatusConsulta deCodigo(int codigo) {
+    for (EnumStatusConsulta status : values()) {
+      if (status.codigo == codigo) {
+        return status;
+      }
+    }
+    return null;
+  }
 }
@@ -1,5 +1,32 @@
 package com.desafio.credito.event;
 
+/**
+ * O código de cada valor vai no formato binário dos eventos de auditoria: não reutilize nem
+ * altere códigos existentes, apenas acrescente novos.
+ */
 public enum EnunTipoConsulta {
-  POR_NFSE, POR_CREDITO;
+  POR_NFSE(1), POR_CREDITO(2), LOTE(3), EXPORTACAO(4), LISTAGEM(5);
+
+  private final int codigo;
+
+  EnunTipoConsulta(int codigo) {
+    this.codigo = codigo;
+  }
+
+  public int getCodigo() {
+    return codigo;
+  }
+
+  /**
+   * Valor do código, ou {@code null} para códigos desconhecidos (evento gerado por uma versão mais
+   * nova da aplicação).
+   */
+  public static EnunTipoConsulta deCodigo(int codigo) {
+    for (EnunTipoConsulta tipo : values()) {
+      if (tipo.codigo == codigo) {
+        return tipo;
+      }
+    }
+    return null;
+  }
 }
@@ -1,19 +1,21 @@
 package com.desafio.credito.exception;
 
+import com.desafio.credito.config.IdentidadeRequisicao;
 import com.desafio.credito.event.CreditoConsultaEvent;
 import com.desafio.credito.event.EnumStatusConsulta;
 import com.desafio.credito.event.EnunTipoConsulta;
 import com.desafio.credito.service.CreditoEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.time.LocalDateTime;
@@ -24,9 +26,15 @@ public class GlobalExceptionHandler {
 
   private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
   private final CreditoEventPublisher eventPublisher;
+  private final Counter naoEncontrados;
+  private final Counter sobrecarregados;
 
-  public GlobalExceptionHandler(CreditoEventPublisher eventPublisher) {
+  public GlobalExceptionHandler(CreditoEventPublisher eventPublisher, MeterRegistry registry) {
     this.eventPublisher = eventPublisher;
+    this.naoEncontrados = Counter.builder("creditos.http.rejeicoes").tag("status", "404")
+        .description("Consultas sem crédito encontrado").register(registry);
+    this.sobrecarregados = Counter.builder("creditos.http.rejeicoes").tag("status", "503")
+        .description("Requisições recusadas por recurso saturado").register(registry);
   }
 
   // Adicionado
@@ -74,6 +82,7 @@ public class GlobalExceptionHandler {
     logger.warn("Recurso não encontrado: {} - Request: {}", errorMessage,
         request.getDescription(false));
 
+    naoEncontrados.increment();
     publishErrorEvent(request, EnumStatusConsulta.NAO_ENCONTRADO, errorMessage);
 
     ErrorResponse errorResponse = new ErrorResponse(HttpStatus.NOT_FOUND, errorMessage,
@@ -81,6 +90,18 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
   }
 
+  @ExceptionHandler(ServicoSobrecarregadoException.class)
+  public ResponseEntity<ErrorResponse> handleServicoSobrecarregado(
+      ServicoSobrecarregadoException ex, WebRequest request) {
+    logger.warn("Serviço sobrecarregado: {} - Request: {}", ex.getMessage(),
+        request.getDescription(false));
+    sobrecarregados.increment();
+    ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE,
+        ex.getMessage(), request.getDescription(false).replace("uri=", ""));
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1").body(errorResponse);
+  }
+
   @ExceptionHandler({ConstraintViolationException.class})
   public ResponseEntity<ErrorResponse> handleValidationExceptions(Exception ex,
       WebRequest request) {
@@ -141,16 +162,10 @@ public class GlobalExceptionHandler {
         (String) request.getAttribute("consulta_contexto", WebRequest.SCOPE_REQUEST);
     // Basic parsing to determine consultation type from URI
     String path = request.getDescription(false);
-    EnunTipoConsulta tipoConsulta =
-        path.contains("/credito/") ? EnunTipoConsulta.POR_CREDITO : EnunTipoConsulta.POR_NFSE;
+    EnunTipoConsulta tipoConsulta = tipoConsultaDoPath(path);
 
     // Obter login do usuário autenticado
-    String usuario = null;
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    if (authentication != null && authentication.isAuthenticated()
-        && !"anonymousUser".equals(authentication.getPrincipal())) {
-      usuario = authentication.getName();
-    }
+    String usuario = IdentidadeRequisicao.usuario();
 
     CreditoConsultaEvent evento = CreditoConsultaEvent.builder()
         .numeroNfse(tipoConsulta == EnunTipoConsulta.POR_NFSE ? consultaContexto : null)
@@ -160,4 +175,20 @@ public class GlobalExceptionHandler {
         .ipOrigem(request.getDescription(false)).build();
     eventPublisher.publicarEventoAuditoria(evento);
   }
+
+  private static EnunTipoConsulta tipoConsultaDoPath(String path) {
+    if (path.contains("/credito/")) {
+      return EnunTipoConsulta.POR_CREDITO;
+    }
+    if (path.endsWith("/lote")) {
+      return EnunTipoConsulta.LOTE;
+    }
+    if (path.endsWith("/exportacao")) {
+      return EnunTipoConsulta.EXPORTACAO;
+    }
+    if (path.endsWith("/creditos")) {
+      return EnunTipoConsulta.LISTAGEM;
+    }
+    return EnunTipoConsulta.POR_NFSE;
+  }
 }
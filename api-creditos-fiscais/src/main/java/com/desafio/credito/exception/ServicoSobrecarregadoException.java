@@ -0,0 +1,19 @@
+package com.desafio.credito.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Recurso limitado saturado (ex.: o pool de hash de senhas); o cliente deve tentar de novo em
+ * instantes. O GlobalExceptionHandler responde 503 com Retry-After.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServicoSobrecarregadoException extends RuntimeException {
+  public ServicoSobrecarregadoException(String message) {
+    super(message);
+  }
+
+  public ServicoSobrecarregadoException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
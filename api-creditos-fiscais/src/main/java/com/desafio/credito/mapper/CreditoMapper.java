@@ -29,5 +29,6 @@ public interface CreditoMapper {
    * @return A entidade correspondente.
    */
   @Mapping(target = "id", ignore = true) // Ignora o ID ao mapear para a entidade
+  @Mapping(target = "versao", ignore = true) // Gerada pelo banco
   Credito toEntity(CreditoDTO creditoDTO);
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.desafio.credito.repository;
+
+import com.desafio.credito.event.CreditoConsultaEvent;
+import com.desafio.credito.event.CreditoConsultaEventCodec;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Acesso JDBC à tabela {@code auditoria_outbox}. Os eventos são guardados no mesmo formato
+ * binário usado no tópico.
+ */
+@Repository
+public class AuditoriaOutboxRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public AuditoriaOutboxRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void inserir(CreditoConsultaEvent evento) {
+    jdbcTemplate.update("INSERT INTO auditoria_outbox (chave, payload) VALUES (?, ?)",
+        evento.getNumeroNfse(), CreditoConsultaEventCodec.codificar(evento));
+  }
+
+  /**
+   * Reserva até {@code limite} linhas livres (nunca reservadas ou com a reserva vencida), as mais
+   * antigas primeiro, por {@code duracao}. É um único comando, confirmado na hora: nenhum
+   * bloqueio fica aberto depois dele. O {@code SKIP LOCKED} só evita que duas instâncias
+   * reservando ao mesmo tempo esperem uma pela outra.
+   *
+   * @return as linhas reservadas, em ordem de id
+   */
+  public List<RegistroOutbox> reservar(int limite, Duration duracao) {
+    return jdbcTemplate.query("UPDATE auditoria_outbox "
+            + "SET reservado_ate = now() + ? * interval '1 millisecond' "
+            + "WHERE id IN (SELECT id FROM auditoria_outbox "
+            + "WHERE reservado_ate IS NULL OR reservado_ate < now() "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id, chave, payload",
+            (rs, linha) -> new RegistroOutbox(rs.getLong("id"), rs.getString("chave"),
+                rs.getBytes("payload")), duracao.toMillis(), limite)
+        .stream().sorted(Comparator.comparingLong(RegistroOutbox::id)).toList();
+  }
+
+  public void excluir(List<Long> ids) {
+    atualizar("DELETE FROM auditoria_outbox WHERE id = ANY (?)", ids);
+  }
+
+  /**
+   * Desfaz a reserva, para que as linhas voltem a ser lidas sem esperar o prazo.
+   */
+  public void liberar(List<Long> ids) {
+    atualizar("UPDATE auditoria_outbox SET reservado_ate = NULL WHERE id = ANY (?)", ids);
+  }
+
+  private void atualizar(String sql, List<Long> ids) {
+    jdbcTemplate.update(conexao -> {
+      PreparedStatement ps = conexao.prepareStatement(sql);
+      ps.setArray(1, conexao.createArrayOf("bigint", ids.toArray()));
+      return ps;
+    });
+  }
+
+  public long pendentes() {
+    Long total = jdbcTemplate.queryForObject("SELECT count(*) FROM auditoria_outbox", Long.class);
+    return total != null ? total : 0;
+  }
+
+  public record RegistroOutbox(long id, String chave, byte[] payload) {
+  }
+}
@@ -0,0 +1,99 @@
+package com.desafio.credito.repository;
+
+import com.desafio.credito.entity.Credito;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Inserção de créditos via {@code COPY ... FROM STDIN}, o caminho mais rápido do PostgreSQL para
+ * cargas grandes: sem parse de um INSERT por linha e sem round trip por batch.
+ *
+ * Os ids vêm de {@code credito_id_seq} pela mesma regra de blocos do Hibernate (ver V9), então
+ * as duas formas de inserção podem ser usadas ao mesmo tempo sem colisão. Como o COPY passa ao
+ * largo do Hibernate, os resultados de consulta do cache de segundo nível são descartados aqui.
+ */
+@Repository
+public class CreditoCopyRepository {
+
+  static final String COPY = "COPY credito (id, numero_credito, numero_nfse, data_constituicao, "
+      + "valor_issqn, tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, "
+      + "base_calculo) FROM STDIN WITH (FORMAT csv)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final SessionFactory sessionFactory;
+
+  public CreditoCopyRepository(JdbcTemplate jdbcTemplate,
+      EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+  }
+
+  /**
+   * Atribui ids aos créditos e os grava com um único COPY.
+   *
+   * @return quantidade de linhas gravadas
+   */
+  public long copiar(List<Credito> creditos) {
+    if (creditos.isEmpty()) {
+      return 0;
+    }
+    atribuirIds(creditos);
+    StringBuilder csv = new StringBuilder(creditos.size() * 128);
+    for (Credito credito : creditos) {
+      csv.append(credito.getId()).append(',');
+      texto(csv, credito.getNumeroCredito()).append(',');
+      texto(csv, credito.getNumeroNfse()).append(',');
+      csv.append(credito.getDataConstituicao()).append(',');
+      decimal(csv, credito.getValorIssqn()).append(',');
+      texto(csv, credito.getTipoCredito()).append(',');
+      csv.append(credito.getSimplesNacional()).append(',');
+      decimal(csv, credito.getAliquota()).append(',');
+      decimal(csv, credito.getValorFaturado()).append(',');
+      decimal(csv, credito.getValorDeducao()).append(',');
+      decimal(csv, credito.getBaseCalculo()).append('\n');
+    }
+    Long gravadas = jdbcTemplate.execute((ConnectionCallback<Long>) conexao -> {
+      try {
+        return conexao.unwrap(PGConnection.class).getCopyAPI()
+            .copyIn(COPY, new StringReader(csv.toString()));
+      } catch (IOException e) {
+        throw new SQLException("Falha ao enviar dados do COPY", e);
+      }
+    });
+    // Só linhas novas: as entidades em cache continuam válidas, as listas por NFS-e não
+    sessionFactory.getCache().evictQueryRegion(Credito.REGIAO_CONSULTAS);
+    return gravadas != null ? gravadas : 0;
+  }
+
+  /**
+   * Um nextval por bloco de {@link Credito#ALOCACAO_IDS} créditos; o bloco de um valor v é
+   * (v - ALOCACAO_IDS + 1 .. v), como no otimizador pooled do Hibernate.
+   */
+  private void atribuirIds(List<Credito> creditos) {
+    int blocos = (creditos.size() + Credito.ALOCACAO_IDS - 1) / Credito.ALOCACAO_IDS;
+    List<Long> valores = jdbcTemplate.queryForList(
+        "SELECT nextval('credito_id_seq') FROM generate_series(1, ?)", Long.class, blocos);
+    for (int i = 0; i < creditos.size(); i++) {
+      long topo = valores.get(i / Credito.ALOCACAO_IDS);
+      creditos.get(i).setId(topo - Credito.ALOCACAO_IDS + 1 + i % Credito.ALOCACAO_IDS);
+    }
+  }
+
+  private static StringBuilder texto(StringBuilder csv, String valor) {
+    return csv.append('"').append(valor.replace("\"", "\"\"")).append('"');
+  }
+
+  private static StringBuilder decimal(StringBuilder csv, BigDecimal valor) {
+    return csv.append(valor.toPlainString());
+  }
+}
@@ -1,18 +1,35 @@
 package com.desafio.credito.repository;
 
 
+import com.desafio.credito.dto.CreditoDTO;
 import com.desafio.credito.entity.Credito;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CreditoRepository extends JpaRepository<Credito, Long> {
 
+    /**
+     * Projeção direto para {@link CreditoDTO}: as linhas não viram entidades gerenciadas, então
+     * não há snapshot para dirty checking nem cópia pelo mapper nos caminhos de leitura
+     */
+    String PROJECAO_DTO = "SELECT new com.desafio.credito.dto.CreditoDTO(c.numeroCredito, "
+        + "c.numeroNfse, c.dataConstituicao, c.valorIssqn, c.tipoCredito, c.simplesNacional, "
+        + "c.aliquota, c.valorFaturado, c.valorDeducao, c.baseCalculo, c.versao) "
+        + "FROM Credito c ";
+
     /**
      * Busca todos os créditos por número da NFS-e
      */
@@ -33,4 +50,181 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      */
     @Query("SELECT c FROM Credito c WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC")
     List<Credito> buscarCreditosPorNfseOrdenados(@Param("numeroNfse") String numeroNfse);
-}
\ No newline at end of file
+
+    /**
+     * Percorre todos os créditos sob demanda, para exportação. Deve ser consumido dentro de uma
+     * transação; o fetch size faz o driver buscar as linhas em blocos em vez de carregar tudo.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(PROJECAO_DTO)
+    Stream<CreditoDTO> streamTodos();
+
+    /**
+     * Percorre sob demanda os créditos de uma NFS-e, para exportação
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(PROJECAO_DTO
+        + "WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC, c.id DESC")
+    Stream<CreditoDTO> streamPorNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Créditos de uma NFS-e já como DTO, do mais recente para o mais antigo
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Credito.REGIAO_CONSULTAS)})
+    @Query(PROJECAO_DTO
+        + "WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC, c.id DESC")
+    List<CreditoDTO> buscarDTOsPorNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Crédito pelo número, já como DTO
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Credito.REGIAO_CONSULTAS)})
+    @Query(PROJECAO_DTO + "WHERE c.numeroCredito = :numeroCredito")
+    Optional<CreditoDTO> buscarDTOPorNumero(@Param("numeroCredito") String numeroCredito);
+
+    /**
+     * Como {@link #buscarDTOsPorNfse}, mas sem ler o cache de consultas: vai sempre ao banco e o
+     * resultado substitui a entrada em cache. Para quando a versão em cache está atrás do banco,
+     * já que um UPDATE feito fora do Hibernate não invalida o cache de consultas.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Credito.REGIAO_CONSULTAS),
+        @QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+        @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "REFRESH")})
+    @Query(PROJECAO_DTO
+        + "WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC, c.id DESC")
+    List<CreditoDTO> recarregarDTOsPorNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Como {@link #buscarDTOPorNumero}, mas sem ler o cache de consultas (ver
+     * {@link #recarregarDTOsPorNfse})
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Credito.REGIAO_CONSULTAS),
+        @QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+        @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "REFRESH")})
+    @Query(PROJECAO_DTO + "WHERE c.numeroCredito = :numeroCredito")
+    Optional<CreditoDTO> recarregarDTOPorNumero(@Param("numeroCredito") String numeroCredito);
+
+    /**
+     * Créditos de um conjunto de NFS-e, já como DTO, em uma única consulta
+     * (cada conjunto distinto ocupa sua própria entrada no cache de consultas)
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Credito.REGIAO_CONSULTAS)})
+    @Query(PROJECAO_DTO + "WHERE c.numeroNfse IN :numerosNfse")
+    List<CreditoDTO> buscarDTOsPorNfses(@Param("numerosNfse") Collection<String> numerosNfse);
+
+    /**
+     * Créditos de um conjunto de números de crédito, já como DTO, em uma única consulta
+     * (cada conjunto distinto ocupa sua própria entrada no cache de consultas)
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Credito.REGIAO_CONSULTAS)})
+    @Query(PROJECAO_DTO + "WHERE c.numeroCredito IN :numerosCredito")
+    List<CreditoDTO> buscarDTOsPorNumeros(
+        @Param("numerosCredito") Collection<String> numerosCredito);
+
+    /**
+     * Quais dos números informados já estão cadastrados (index-only scan na chave única)
+     */
+    @Query("SELECT c.numeroCredito FROM Credito c WHERE c.numeroCredito IN :numerosCredito")
+    List<String> buscarNumerosExistentes(
+        @Param("numerosCredito") Collection<String> numerosCredito);
+
+    /**
+     * Versão dos créditos de uma NFS-e, para a ETag da consulta (index-only scan em
+     * idx_credito_nfse_versao). count(versao) em vez de count(c) para não ler o id da tabela.
+     */
+    @Query("SELECT new com.desafio.credito.repository.VersaoCreditos(count(c.versao), "
+        + "max(c.versao)) FROM Credito c WHERE c.numeroNfse = :numeroNfse")
+    VersaoCreditos buscarVersaoPorNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Versão de um crédito, para a ETag da consulta (index-only scan na chave única)
+     */
+    @Query("SELECT c.versao FROM Credito c WHERE c.numeroCredito = :numeroCredito")
+    Optional<Long> buscarVersaoPorNumero(@Param("numeroCredito") String numeroCredito);
+
+    /**
+     * Projeção das consultas paginadas: como {@link #PROJECAO_DTO}, mais o id para o cursor
+     */
+    String PROJECAO_PAGINA = "SELECT new com.desafio.credito.repository.LinhaPaginaCredito(c.id, "
+        + "c.numeroCredito, c.numeroNfse, c.dataConstituicao, c.valorIssqn, c.tipoCredito, "
+        + "c.simplesNacional, c.aliquota, c.valorFaturado, c.valorDeducao, c.baseCalculo, "
+        + "c.versao) FROM Credito c ";
+
+    /**
+     * Posição depois do cursor (data, id) na ordem (data DESC, id DESC). Equivale a
+     * (data, id) < (:data, :id); o "data <= :data" é o limite do intervalo no índice, e o OR só
+     * filtra as linhas da própria data do cursor.
+     */
+    String APOS_CURSOR = "c.dataConstituicao <= :data "
+        + "AND (c.dataConstituicao < :data OR c.id < :id) ";
+
+    String ORDEM_PAGINA = "ORDER BY c.dataConstituicao DESC, c.id DESC LIMIT :limite";
+
+    /**
+     * Primeira página da listagem geral, do crédito mais recente para o mais antigo
+     */
+    @Query(PROJECAO_PAGINA + ORDEM_PAGINA)
+    List<LinhaPaginaCredito> buscarPagina(@Param("limite") int limite);
+
+    /**
+     * Página seguinte da listagem geral: começa logo após o último (data, id) já entregue, sem
+     * OFFSET, então o custo não cresce com o número da página
+     */
+    @Query(PROJECAO_PAGINA + "WHERE " + APOS_CURSOR + ORDEM_PAGINA)
+    List<LinhaPaginaCredito> buscarPaginaApos(@Param("data") LocalDate data, @Param("id") long id,
+        @Param("limite") int limite);
+
+    /**
+     * Primeira página dos créditos de uma NFS-e, na mesma ordem da listagem geral
+     */
+    @Query(PROJECAO_PAGINA + "WHERE c.numeroNfse = :numeroNfse " + ORDEM_PAGINA)
+    List<LinhaPaginaCredito> buscarPaginaPorNfse(@Param("numeroNfse") String numeroNfse,
+        @Param("limite") int limite);
+
+    /**
+     * Página seguinte dos créditos de uma NFS-e, a partir do cursor (data, id)
+     */
+    @Query(PROJECAO_PAGINA + "WHERE c.numeroNfse = :numeroNfse AND " + APOS_CURSOR
+        + ORDEM_PAGINA)
+    List<LinhaPaginaCredito> buscarPaginaPorNfseApos(@Param("numeroNfse") String numeroNfse,
+        @Param("data") LocalDate data, @Param("id") long id, @Param("limite") int limite);
+
+    /**
+     * NFS-e que começam com o prefixo (padrão LIKE já escapado, terminado em %), em ordem
+     * binária, pelo índice com collation "C".
+     */
+    @Query(value = "SELECT DISTINCT numero_nfse COLLATE \"C\" FROM credito "
+        + "WHERE numero_nfse COLLATE \"C\" LIKE :prefixo ORDER BY 1 LIMIT :limite",
+        nativeQuery = true)
+    List<String> buscarNfsesPorPrefixo(@Param("prefixo") String prefixo,
+        @Param("limite") int limite);
+
+    @Query(value = "SELECT numero_credito FROM credito "
+        + "WHERE numero_credito COLLATE \"C\" LIKE :prefixo "
+        + "ORDER BY numero_credito COLLATE \"C\" LIMIT :limite", nativeQuery = true)
+    List<String> buscarNumerosPorPrefixo(@Param("prefixo") String prefixo,
+        @Param("limite") int limite);
+
+    /**
+     * NFS-e que contêm o trecho (padrão LIKE '%...%'), pelo índice de trigramas. Só as primeiras
+     * {@code varredura} linhas encontradas passam pelo DISTINCT e pela ordenação, então um trecho
+     * comum não faz ordenar todas as suas ocorrências.
+     */
+    @Query(value = "SELECT DISTINCT numero_nfse FROM (SELECT numero_nfse FROM credito "
+        + "WHERE numero_nfse LIKE :padrao LIMIT :varredura) t ORDER BY 1 LIMIT :limite",
+        nativeQuery = true)
+    List<String> buscarNfsesContendo(@Param("padrao") String padrao,
+        @Param("varredura") int varredura, @Param("limite") int limite);
+
+    @Query(value = "SELECT numero_credito FROM (SELECT numero_credito FROM credito "
+        + "WHERE numero_credito LIKE :padrao LIMIT :varredura) t ORDER BY 1 LIMIT :limite",
+        nativeQuery = true)
+    List<String> buscarNumerosContendo(@Param("padrao") String padrao,
+        @Param("varredura") int varredura, @Param("limite") int limite);
+}
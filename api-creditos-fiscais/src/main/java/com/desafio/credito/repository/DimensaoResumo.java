@@ -0,0 +1,29 @@
+package com.desafio.credito.repository;
+
+import java.util.Arrays;
+
+/**
+ * Dimensões pelas quais os totais de {@code resumo_credito_mensal} podem ser agrupados.
+ */
+public enum DimensaoResumo {
+  MES("mes", "mes"), TIPO_CREDITO("tipoCredito", "tipo_credito"),
+  SIMPLES_NACIONAL("simplesNacional", "simples_nacional");
+
+  private final String parametro;
+  private final String coluna;
+
+  DimensaoResumo(String parametro, String coluna) {
+    this.parametro = parametro;
+    this.coluna = coluna;
+  }
+
+  public String getColuna() {
+    return coluna;
+  }
+
+  public static DimensaoResumo deValor(String valor) {
+    return Arrays.stream(values()).filter(d -> d.parametro.equalsIgnoreCase(valor)).findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Agrupamento inválido: " + valor
+            + ". Use mes, tipoCredito e/ou simplesNacional"));
+  }
+}
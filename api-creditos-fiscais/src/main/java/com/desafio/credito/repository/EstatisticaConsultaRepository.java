@@ -0,0 +1,86 @@
+package com.desafio.credito.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Gravação dos contadores de consultas em {@code estatistica_consulta}.
+ *
+ * Usa JDBC direto: cada chamada é um único batch de upserts que soma os incrementos aos
+ * contadores existentes, sem carregar as linhas antes.
+ */
+@Repository
+public class EstatisticaConsultaRepository {
+
+  static final String UPSERT = "INSERT INTO estatistica_consulta (usuario, numero_nfse, "
+      + "numero_credito, status, quantidade, quantidade_resultados, ultima_consulta, "
+      + "atualizado_em) VALUES (?, ?, ?, ?, ?, ?, ?, now()) "
+      + "ON CONFLICT (usuario, numero_nfse, numero_credito, status) DO UPDATE SET "
+      + "quantidade = estatistica_consulta.quantidade + EXCLUDED.quantidade, "
+      + "quantidade_resultados = estatistica_consulta.quantidade_resultados "
+      + "+ EXCLUDED.quantidade_resultados, "
+      + "ultima_consulta = GREATEST(estatistica_consulta.ultima_consulta, "
+      + "EXCLUDED.ultima_consulta), atualizado_em = now()";
+
+  private static final Comparator<Incremento> ORDEM_CHAVE = Comparator
+      .comparing(Incremento::usuario).thenComparing(Incremento::numeroNfse)
+      .thenComparing(Incremento::numeroCredito).thenComparing(Incremento::status);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public EstatisticaConsultaRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Soma os incrementos aos contadores. As linhas são gravadas sempre na ordem da chave, para que
+   * consumidores concorrentes atualizando as mesmas linhas não entrem em deadlock.
+   *
+   * O batch roda numa transação: se uma linha falhar, nenhuma é somada e o lote reentregue não
+   * conta duas vezes as que já tinham sido gravadas.
+   */
+  @Transactional
+  public void somar(Collection<Incremento> incrementos) {
+    if (incrementos.isEmpty()) {
+      return;
+    }
+    List<Object[]> parametros = incrementos.stream().sorted(ORDEM_CHAVE)
+        .map(i -> new Object[] {i.usuario(), i.numeroNfse(), i.numeroCredito(), i.status(),
+            i.quantidade(), i.quantidadeResultados(),
+            i.ultimaConsulta() != null ? Timestamp.valueOf(i.ultimaConsulta()) : null})
+        .toList();
+    jdbcTemplate.batchUpdate(UPSERT, parametros);
+  }
+
+  /**
+   * NFS-e com mais consultas por NFS-e bem-sucedidas, somando todos os usuários; base do
+   * aquecimento do cache na subida da aplicação. As consultas por número de crédito (que também
+   * trazem a NFS-e) não contam aqui.
+   */
+  public List<String> buscarNfsesMaisConsultadas(int limite) {
+    return jdbcTemplate.queryForList("SELECT numero_nfse FROM estatistica_consulta "
+        + "WHERE status = 'SUCESSO' AND numero_nfse <> '' AND numero_credito = '' "
+        + "GROUP BY numero_nfse ORDER BY sum(quantidade) DESC LIMIT ?", String.class, limite);
+  }
+
+  /**
+   * Números de crédito com mais consultas bem-sucedidas, somando todos os usuários; a outra
+   * metade do aquecimento do cache.
+   */
+  public List<String> buscarNumerosMaisConsultados(int limite) {
+    return jdbcTemplate.queryForList("SELECT numero_credito FROM estatistica_consulta "
+        + "WHERE status = 'SUCESSO' AND numero_credito <> '' GROUP BY numero_credito "
+        + "ORDER BY sum(quantidade) DESC LIMIT ?", String.class, limite);
+  }
+
+  public record Incremento(String usuario, String numeroNfse, String numeroCredito, String status,
+      long quantidade, long quantidadeResultados, LocalDateTime ultimaConsulta) {
+  }
+}
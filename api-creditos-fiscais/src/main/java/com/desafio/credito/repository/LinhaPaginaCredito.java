@@ -0,0 +1,22 @@
+package com.desafio.credito.repository;
+
+import com.desafio.credito.dto.CreditoDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Linha das consultas paginadas: o crédito já como DTO e o id, que não vai para o cliente mas
+ * compõe o cursor da página seguinte.
+ */
+public record LinhaPaginaCredito(Long id, CreditoDTO credito) {
+
+  /** Usado pela projeção das consultas ({@code SELECT new}), na ordem de {@link CreditoDTO}. */
+  public LinhaPaginaCredito(Long id, String numeroCredito, String numeroNfse,
+      LocalDate dataConstituicao, BigDecimal valorIssqn, String tipoCredito,
+      Boolean simplesNacional, BigDecimal aliquota, BigDecimal valorFaturado,
+      BigDecimal valorDeducao, BigDecimal baseCalculo, Long versao) {
+    this(id, new CreditoDTO(numeroCredito, numeroNfse, dataConstituicao, valorIssqn, tipoCredito,
+        simplesNacional, aliquota, valorFaturado, valorDeducao, baseCalculo, versao));
+  }
+}
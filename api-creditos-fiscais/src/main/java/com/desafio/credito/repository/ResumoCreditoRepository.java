@@ -0,0 +1,87 @@
+package com.desafio.credito.repository;
+
+import com.desafio.credito.dto.ResumoCreditoDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Leitura dos totais de {@code resumo_credito_mensal}, mantida pelos triggers da migração V11.
+ *
+ * A tabela tem uma linha por (mês, tipo, Simples Nacional), então qualquer agrupamento é
+ * resolvido somando poucas linhas, independente do volume de créditos.
+ */
+@Repository
+public class ResumoCreditoRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ResumoCreditoRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Soma os totais agrupando pelas dimensões informadas, na ordem delas. Sem dimensões, devolve
+   * no máximo uma linha com o total geral. Filtros nulos são ignorados; {@code inicio} e
+   * {@code fim} são o primeiro dia do mês e entram no intervalo.
+   */
+  public List<ResumoCreditoDTO> resumir(List<DimensaoResumo> dimensoes, LocalDate inicio,
+      LocalDate fim, String tipoCredito, Boolean simplesNacional) {
+    String colunas = dimensoes.stream().map(DimensaoResumo::getColuna)
+        .collect(Collectors.joining(", "));
+    StringBuilder sql = new StringBuilder("SELECT ");
+    if (!dimensoes.isEmpty()) {
+      sql.append(colunas).append(", ");
+    }
+    sql.append("sum(quantidade) AS quantidade, sum(valor_issqn) AS valor_issqn, ")
+        .append("sum(valor_faturado) AS valor_faturado, sum(base_calculo) AS base_calculo ")
+        .append("FROM resumo_credito_mensal WHERE quantidade > 0");
+    List<Object> parametros = new ArrayList<>();
+    if (inicio != null) {
+      sql.append(" AND mes >= ?");
+      parametros.add(Date.valueOf(inicio));
+    }
+    if (fim != null) {
+      sql.append(" AND mes <= ?");
+      parametros.add(Date.valueOf(fim));
+    }
+    if (tipoCredito != null) {
+      sql.append(" AND tipo_credito = ?");
+      parametros.add(tipoCredito);
+    }
+    if (simplesNacional != null) {
+      sql.append(" AND simples_nacional = ?");
+      parametros.add(simplesNacional);
+    }
+    if (!dimensoes.isEmpty()) {
+      sql.append(" GROUP BY ").append(colunas);
+    }
+    sql.append(" HAVING sum(quantidade) > 0");
+    if (!dimensoes.isEmpty()) {
+      sql.append(" ORDER BY ").append(colunas);
+    }
+
+    return jdbcTemplate.query(sql.toString(), (rs, linha) -> {
+      ResumoCreditoDTO resumo = ResumoCreditoDTO.builder().quantidade(rs.getLong("quantidade"))
+          .valorIssqn(rs.getBigDecimal("valor_issqn"))
+          .valorFaturado(rs.getBigDecimal("valor_faturado"))
+          .baseCalculo(rs.getBigDecimal("base_calculo")).build();
+      if (dimensoes.contains(DimensaoResumo.MES)) {
+        resumo.setMes(YearMonth.from(rs.getDate("mes").toLocalDate()).toString());
+      }
+      if (dimensoes.contains(DimensaoResumo.TIPO_CREDITO)) {
+        resumo.setTipoCredito(rs.getString("tipo_credito"));
+      }
+      if (dimensoes.contains(DimensaoResumo.SIMPLES_NACIONAL)) {
+        resumo.setSimplesNacional(rs.getBoolean("simples_nacional"));
+      }
+      return resumo;
+    }, parametros.toArray());
+  }
+}
@@ -1,9 +1,30 @@
 package com.desafio.credito.repository;
 
 import com.desafio.credito.entity.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+  // Sem o cache de segundo nível habilitado as dicas de cache são ignoradas
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Usuario.REGIAO_CONSULTAS)})
   Optional<Usuario> findByLogin(String login);
+
+  /**
+   * Troca o hash da senha só se ele ainda for {@code senhaAtual}, para que um rehash tardio não
+   * sobrescreva uma troca de senha nem recrie um usuário excluído.
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE Usuario u SET u.senha = :senhaNova WHERE u.id = :id AND u.senha = :senhaAtual")
+  int atualizarSenha(@Param("id") Long id, @Param("senhaAtual") String senhaAtual,
+      @Param("senhaNova") String senhaNova);
 }
@@ -0,0 +1,8 @@
+package com.desafio.credito.repository;
+
+/**
+ * Quantidade e maior versão de um conjunto de créditos; muda sempre que algum deles é inserido,
+ * alterado ou removido.
+ */
+public record VersaoCreditos(long quantidade, Long versao) {
+}
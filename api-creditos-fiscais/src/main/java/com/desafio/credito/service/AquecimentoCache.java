@@ -0,0 +1,176 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.repository.EstatisticaConsultaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carrega no cache de consultas as chaves mais consultadas antes de a instância ficar pronta.
+ *
+ * Roda como {@link ApplicationRunner}: o Spring Boot só publica a prontidão (readiness
+ * {@code ACCEPTING_TRAFFIC}) depois que os runners terminam, então o balanceador só manda
+ * tráfego com o cache e o buffer do PostgreSQL já aquecidos. As chaves vêm das estatísticas de
+ * consulta (materializadas dos eventos de auditoria) e, opcionalmente, de um arquivo; são
+ * carregadas em lotes pela consulta em lote do {@link CreditoService}, com paralelismo e prazo
+ * limitados. Ao fim do prazo a subida continua com o que já foi carregado.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.aquecimento.habilitado", havingValue = "true",
+    matchIfMissing = true)
+public class AquecimentoCache implements ApplicationRunner {
+
+  private static final String PREFIXO_NFSE = "nfse:";
+  private static final String PREFIXO_CREDITO = "credito:";
+
+  private final CreditoService creditoService;
+  private final EstatisticaConsultaRepository estatisticas;
+  private final int quantidade;
+  private final String arquivo;
+  private final int tamanhoLote;
+  private final int paralelismo;
+  private final Duration prazo;
+  private final Timer duracao;
+  private final Counter carregadas;
+
+  public AquecimentoCache(CreditoService creditoService,
+      EstatisticaConsultaRepository estatisticas,
+      @Value("${app.aquecimento.quantidade:1000}") int quantidade,
+      @Value("${app.aquecimento.arquivo:}") String arquivo,
+      @Value("${app.aquecimento.tamanho-lote:200}") int tamanhoLote,
+      @Value("${app.aquecimento.paralelismo:4}") int paralelismo,
+      @Value("${app.aquecimento.prazo:30s}") Duration prazo, MeterRegistry registry) {
+    this.creditoService = creditoService;
+    this.estatisticas = estatisticas;
+    this.quantidade = quantidade;
+    this.arquivo = arquivo;
+    this.tamanhoLote = tamanhoLote;
+    this.paralelismo = paralelismo;
+    this.prazo = prazo;
+    this.duracao = Timer.builder("creditos.aquecimento.duracao")
+        .description("Tempo do aquecimento do cache na subida").register(registry);
+    this.carregadas = Counter.builder("creditos.aquecimento.chaves")
+        .description("Chaves carregadas no cache pelo aquecimento").register(registry);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    aquecer();
+  }
+
+  /**
+   * Executa o aquecimento e devolve quantas chaves foram carregadas.
+   */
+  long aquecer() {
+    long inicio = System.nanoTime();
+    long limite = inicio + prazo.toNanos();
+    Set<String> nfses = new LinkedHashSet<>();
+    Set<String> numeros = new LinkedHashSet<>();
+    lerArquivo(nfses, numeros);
+    try {
+      nfses.addAll(estatisticas.buscarNfsesMaisConsultadas(quantidade));
+      numeros.addAll(estatisticas.buscarNumerosMaisConsultados(quantidade));
+    } catch (Exception e) {
+      log.warn("Aquecimento sem o histórico de consultas: {}", e.getMessage());
+    }
+
+    AtomicLong total = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, paralelismo),
+        Thread.ofPlatform().name("aquecimento-", 0).daemon().factory());
+    for (Lote lote : dividir(new ArrayList<>(nfses), new ArrayList<>(numeros))) {
+      executor.execute(() -> {
+        // Lotes que ficaram na fila além do prazo não são carregados
+        if (System.nanoTime() - limite > 0) {
+          return;
+        }
+        try {
+          creditoService.buscarEmLote(lote.nfses(), lote.numeros());
+          total.addAndGet(lote.nfses().size() + lote.numeros().size());
+        } catch (Exception e) {
+          log.warn("Falha ao aquecer lote de {} chaves: {}",
+              lote.nfses().size() + lote.numeros().size(), e.getMessage());
+        }
+      });
+    }
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(Math.max(0, limite - System.nanoTime()),
+          TimeUnit.NANOSECONDS)) {
+        executor.shutdownNow();
+        log.warn("Prazo do aquecimento ({}) esgotado; seguindo com o que foi carregado", prazo);
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+
+    long decorrido = System.nanoTime() - inicio;
+    duracao.record(decorrido, TimeUnit.NANOSECONDS);
+    carregadas.increment(total.get());
+    log.info("Cache aquecido: {} de {} chaves em {} ms", total.get(),
+        nfses.size() + numeros.size(), TimeUnit.NANOSECONDS.toMillis(decorrido));
+    return total.get();
+  }
+
+  /**
+   * Uma chave por linha: {@code nfse:<número>}, {@code credito:<número>} ou só o número (NFS-e).
+   * Linhas vazias e iniciadas por # são ignoradas.
+   */
+  private void lerArquivo(Set<String> nfses, Set<String> numeros) {
+    if (arquivo == null || arquivo.isBlank()) {
+      return;
+    }
+    try {
+      for (String linha : Files.readAllLines(Path.of(arquivo), StandardCharsets.UTF_8)) {
+        String chave = linha.trim();
+        if (chave.isEmpty() || chave.startsWith("#")) {
+          continue;
+        }
+        if (chave.startsWith(PREFIXO_CREDITO)) {
+          numeros.add(chave.substring(PREFIXO_CREDITO.length()).trim());
+        } else {
+          nfses.add(chave.startsWith(PREFIXO_NFSE)
+              ? chave.substring(PREFIXO_NFSE.length()).trim() : chave);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Arquivo de aquecimento {} não pôde ser lido: {}", arquivo, e.getMessage());
+    }
+  }
+
+  private List<Lote> dividir(List<String> nfses, List<String> numeros) {
+    List<Lote> lotes = new ArrayList<>();
+    for (int i = 0; i < nfses.size(); i += tamanhoLote) {
+      lotes.add(new Lote(nfses.subList(i, Math.min(i + tamanhoLote, nfses.size())), List.of()));
+    }
+    for (int i = 0; i < numeros.size(); i += tamanhoLote) {
+      lotes.add(
+          new Lote(List.of(), numeros.subList(i, Math.min(i + tamanhoLote, numeros.size()))));
+    }
+    return lotes;
+  }
+
+  private record Lote(List<String> nfses, List<String> numeros) {
+  }
+}
@@ -0,0 +1,132 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.exception.ServicoSobrecarregadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Executa o BCrypt num pool próprio, com poucas threads e fila limitada.
+ *
+ * Cada hash ocupa um núcleo por dezenas de milissegundos; rodando nas threads do Tomcat, uma
+ * rajada de logins (ou de tentativas de credential stuffing) toma toda a CPU e atrasa as
+ * consultas de crédito. Aqui no máximo {@code threads} hashes rodam ao mesmo tempo; com a fila
+ * cheia, ou se a espera passar do prazo, a chamada falha na hora com
+ * {@link ServicoSobrecarregadoException} (503) em vez de acumular requisições.
+ */
+@Component
+public class CodificadorSenhas implements DisposableBean {
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+  private final long esperaMaximaNanos;
+  private final Timer codificacao;
+  private final Timer conferencia;
+  private final Counter filaCheia;
+  private final Counter esperaEsgotada;
+
+  public CodificadorSenhas(PasswordEncoder passwordEncoder,
+      @Value("${app.seguranca.senha.threads:0}") int threads,
+      @Value("${app.seguranca.senha.fila:32}") int fila,
+      @Value("${app.seguranca.senha.espera-maxima:2s}") Duration esperaMaxima,
+      MeterRegistry registry) {
+    this.passwordEncoder = passwordEncoder;
+    // Padrão: metade dos núcleos, para sobrar CPU para as consultas
+    int tamanho = threads > 0 ? threads
+        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(fila), Thread.ofPlatform().name("senha-", 0).daemon().factory(),
+        new ThreadPoolExecutor.AbortPolicy());
+    this.esperaMaximaNanos = esperaMaxima.toNanos();
+
+    this.codificacao = Timer.builder("creditos.senha.hash").tag("operacao", "codificar")
+        .description("Tempo de cálculo do hash de senha, sem a espera na fila").register(registry);
+    this.conferencia = Timer.builder("creditos.senha.hash").tag("operacao", "conferir")
+        .description("Tempo de cálculo do hash de senha, sem a espera na fila").register(registry);
+    this.filaCheia = Counter.builder("creditos.senha.rejeicoes").tag("motivo", "fila_cheia")
+        .description("Operações de senha recusadas por saturação").register(registry);
+    this.esperaEsgotada = Counter.builder("creditos.senha.rejeicoes").tag("motivo", "espera")
+        .description("Operações de senha recusadas por saturação").register(registry);
+    ExecutorServiceMetrics.monitor(registry, executor, "senhas");
+  }
+
+  public String codificar(String senha) {
+    return executar(codificacao, () -> passwordEncoder.encode(senha));
+  }
+
+  public boolean conferir(String senha, String hash) {
+    return executar(conferencia, () -> passwordEncoder.matches(senha, hash));
+  }
+
+  /**
+   * Indica se o hash foi gerado com parâmetros mais fracos que os configurados (ex.: custo do
+   * BCrypt aumentado depois do cadastro). Não calcula hash.
+   */
+  public boolean precisaRecodificar(String hash) {
+    return passwordEncoder.upgradeEncoding(hash);
+  }
+
+  /**
+   * Calcula um novo hash em segundo plano e o entrega a {@code aoConcluir}, na thread do pool.
+   * Devolve {@code false}, sem calcular, se o pool estiver saturado: serve para trabalho
+   * adiável, como refazer um hash antigo no login.
+   */
+  public boolean codificarDepois(String senha, Consumer<String> aoConcluir) {
+    try {
+      executor.execute(
+          () -> aoConcluir.accept(codificacao.record(() -> passwordEncoder.encode(senha))));
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  private <T> T executar(Timer timer, Callable<T> operacao) {
+    Future<T> resultado;
+    try {
+      resultado = executor.submit(() -> timer.recordCallable(operacao));
+    } catch (RejectedExecutionException e) {
+      filaCheia.increment();
+      throw new ServicoSobrecarregadoException(
+          "Muitas autenticações simultâneas. Tente novamente em instantes", e);
+    }
+    try {
+      return resultado.get(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      resultado.cancel(true);
+      esperaEsgotada.increment();
+      throw new ServicoSobrecarregadoException(
+          "Muitas autenticações simultâneas. Tente novamente em instantes", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      resultado.cancel(true);
+      throw new IllegalStateException("Interrompido aguardando o hash da senha", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException("Falha ao calcular o hash da senha", e.getCause());
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,141 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.CacheEstatisticasDTO;
+import com.desafio.credito.dto.CreditoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache read-through em memória para as consultas de crédito por NFS-e e por número.
+ *
+ * Resultados vazios também são guardados, com TTL próprio (normalmente menor), para que
+ * consultas repetidas a chaves inexistentes não voltem ao banco a cada chamada.
+ */
+@Component
+public class CreditoCache implements MeterBinder {
+
+  public static final String CACHE_NFSE = "creditos-por-nfse";
+  public static final String CACHE_NUMERO = "creditos-por-numero";
+
+  private final boolean habilitado;
+  private final Cache<String, List<CreditoDTO>> porNfse;
+  private final Cache<String, Optional<CreditoDTO>> porNumero;
+
+  @Autowired
+  public CreditoCache(@Value("${app.cache.creditos.habilitado:true}") boolean habilitado,
+      @Value("${app.cache.creditos.tamanho-maximo:10000}") long tamanhoMaximo,
+      @Value("${app.cache.creditos.ttl:10m}") Duration ttl,
+      @Value("${app.cache.creditos.ttl-negativo:30s}") Duration ttlNegativo) {
+    this(habilitado, tamanhoMaximo, ttl, ttlNegativo, Ticker.systemTicker());
+  }
+
+  CreditoCache(boolean habilitado, long tamanhoMaximo, Duration ttl, Duration ttlNegativo,
+      Ticker ticker) {
+    this.habilitado = habilitado;
+    this.porNfse = construir(tamanhoMaximo, ttl, ttlNegativo, List::isEmpty, ticker);
+    this.porNumero = construir(tamanhoMaximo, ttl, ttlNegativo, Optional::isEmpty, ticker);
+  }
+
+  public List<CreditoDTO> buscarPorNfse(String numeroNfse,
+      Function<String, List<CreditoDTO>> carregador) {
+    return habilitado ? porNfse.get(numeroNfse, carregador) : carregador.apply(numeroNfse);
+  }
+
+  public Optional<CreditoDTO> buscarPorNumero(String numeroCredito,
+      Function<String, Optional<CreditoDTO>> carregador) {
+    return habilitado ? porNumero.get(numeroCredito, carregador)
+        : carregador.apply(numeroCredito);
+  }
+
+  /**
+   * Versão em lote de {@link #buscarPorNfse}: as chaves ausentes do cache são resolvidas por uma
+   * única chamada ao carregador, que deve devolver uma entrada (mesmo vazia) para cada chave.
+   */
+  public Map<String, List<CreditoDTO>> buscarPorNfses(Set<String> numerosNfse,
+      Function<Set<? extends String>, Map<String, List<CreditoDTO>>> carregador) {
+    return habilitado ? porNfse.getAll(numerosNfse, carregador) : carregador.apply(numerosNfse);
+  }
+
+  /**
+   * Versão em lote de {@link #buscarPorNumero}, com o mesmo contrato de
+   * {@link #buscarPorNfses}.
+   */
+  public Map<String, Optional<CreditoDTO>> buscarPorNumeros(Set<String> numerosCredito,
+      Function<Set<? extends String>, Map<String, Optional<CreditoDTO>>> carregador) {
+    return habilitado ? porNumero.getAll(numerosCredito, carregador)
+        : carregador.apply(numerosCredito);
+  }
+
+  public void invalidarNfse(String numeroNfse) {
+    porNfse.invalidate(numeroNfse);
+  }
+
+  public void invalidarCredito(String numeroCredito) {
+    porNumero.invalidate(numeroCredito);
+  }
+
+  public void invalidarTudo() {
+    porNfse.invalidateAll();
+    porNumero.invalidateAll();
+  }
+
+  public List<CacheEstatisticasDTO> estatisticas() {
+    return List.of(estatisticas(CACHE_NFSE, porNfse), estatisticas(CACHE_NUMERO, porNumero));
+  }
+
+  /**
+   * Publica acertos, falhas, despejos e tamanho dos dois caches (métricas {@code cache.*}).
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, porNfse, CACHE_NFSE);
+    CaffeineCacheMetrics.monitor(registry, porNumero, CACHE_NUMERO);
+  }
+
+  private static CacheEstatisticasDTO estatisticas(String nome, Cache<?, ?> cache) {
+    CacheStats stats = cache.stats();
+    return CacheEstatisticasDTO.builder().cache(nome).acertos(stats.hitCount())
+        .falhas(stats.missCount()).despejos(stats.evictionCount()).taxaAcerto(stats.hitRate())
+        .tamanho(cache.estimatedSize()).build();
+  }
+
+  private static <V> Cache<String, V> construir(long tamanhoMaximo, Duration ttl,
+      Duration ttlNegativo, Predicate<V> negativo, Ticker ticker) {
+    long ttlNanos = ttl.toNanos();
+    long ttlNegativoNanos = ttlNegativo.toNanos();
+    return Caffeine.newBuilder().maximumSize(tamanhoMaximo).ticker(ticker).recordStats()
+        .expireAfter(new Expiry<String, V>() {
+          @Override
+          public long expireAfterCreate(String chave, V valor, long agora) {
+            return negativo.test(valor) ? ttlNegativoNanos : ttlNanos;
+          }
+
+          @Override
+          public long expireAfterUpdate(String chave, V valor, long agora, long restante) {
+            return expireAfterCreate(chave, valor, agora);
+          }
+
+          @Override
+          public long expireAfterRead(String chave, V valor, long agora, long restante) {
+            return restante;
+          }
+        }).build();
+  }
+}
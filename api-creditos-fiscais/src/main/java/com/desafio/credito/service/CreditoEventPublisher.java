@@ -1,33 +1,183 @@
 package com.desafio.credito.service;
 
+import com.desafio.credito.dto.FilaAuditoriaEstatisticasDTO;
 import com.desafio.credito.event.CreditoConsultaEvent;
-import lombok.RequiredArgsConstructor;
+import com.desafio.credito.repository.AuditoriaOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Publica os eventos de auditoria das consultas no Kafka.
+ *
+ * No modo assíncrono (padrão) a requisição apenas entrega o evento a uma
+ * {@link FilaEventosAuditoria}, e o envio acontece em outra thread; assim a latência das
+ * consultas não depende da saúde do broker. No modo síncrono o envio é feito na própria
+ * thread da requisição.
+ *
+ * Com o outbox habilitado o evento é apenas gravado em {@code auditoria_outbox} e o
+ * {@link RelayOutboxAuditoria} o publica depois; diferente da fila em memória, nada se perde se o
+ * broker ou a aplicação caírem. Se a gravação falhar, o evento vai para a fila em memória, que
+ * também fica ativa nesse modo: a requisição nunca espera pelo Kafka.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class CreditoEventPublisher {
+public class CreditoEventPublisher implements SmartLifecycle {
 
   private final KafkaTemplate<String, CreditoConsultaEvent> kafkaTemplate;
+  private final String auditTopicName;
+  private final boolean assincrono;
+  // A fila roda no modo assíncrono e, com o outbox, como destino dos eventos que não gravaram
+  private final boolean usaFila;
+  private final AuditoriaOutboxRepository outbox;
+  private final boolean outboxHabilitado;
+  private final ObjectProvider<RelayOutboxAuditoria> relay;
+  private final Duration prazoEncerramento;
+  private final Duration esperaConfirmacao;
+  private final FilaEventosAuditoria fila;
+  private final Timer envioSucesso;
+  private final Timer envioFalha;
 
-  @Value("${spring.kafka.topic.credito-audit}")
-  private String auditTopicName;
+  public CreditoEventPublisher(KafkaTemplate<String, CreditoConsultaEvent> kafkaTemplate,
+      @Value("${spring.kafka.topic.credito-audit}") String auditTopicName,
+      @Value("${app.auditoria.assincrono:true}") boolean assincrono,
+      @Value("${app.auditoria.fila.capacidade:10000}") int capacidade,
+      @Value("${app.auditoria.fila.tamanho-lote:500}") int tamanhoLote,
+      @Value("${app.auditoria.fila.politica-transbordo:DESCARTAR_MAIS_ANTIGO}")
+      PoliticaTransbordo politica,
+      @Value("${app.auditoria.fila.espera-maxima:50ms}") Duration esperaMaxima,
+      @Value("${app.auditoria.fila.prazo-encerramento:10s}") Duration prazoEncerramento,
+      @Value("${app.auditoria.fila.espera-confirmacao:5s}") Duration esperaConfirmacao,
+      @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais,
+      AuditoriaOutboxRepository outbox,
+      @Value("${app.auditoria.outbox.habilitado:false}") boolean outboxHabilitado,
+      ObjectProvider<RelayOutboxAuditoria> relay, MeterRegistry registry) {
+    this.kafkaTemplate = kafkaTemplate;
+    this.auditTopicName = auditTopicName;
+    this.assincrono = assincrono && !outboxHabilitado;
+    this.usaFila = assincrono || outboxHabilitado;
+    this.outbox = outbox;
+    this.outboxHabilitado = outboxHabilitado;
+    this.relay = relay;
+    this.prazoEncerramento = prazoEncerramento;
+    this.esperaConfirmacao = esperaConfirmacao;
+    // Com threads virtuais o remetente também é virtual: bloquear no broker não ocupa um núcleo
+    Thread.Builder remetente = threadsVirtuais ? Thread.ofVirtual()
+        : Thread.ofPlatform().daemon();
+    this.fila = new FilaEventosAuditoria(capacidade, tamanhoLote, politica, esperaMaxima,
+        this::enviarLote, remetente.name("auditoria-remetente").factory());
+
+    // Tempo do send até a confirmação (ack) do broker
+    this.envioSucesso = Timer.builder("creditos.auditoria.envio").tag("resultado", "sucesso")
+        .description("Tempo até a confirmação do evento de auditoria pelo Kafka")
+        .register(registry);
+    this.envioFalha = Timer.builder("creditos.auditoria.envio").tag("resultado", "falha")
+        .description("Tempo até a confirmação do evento de auditoria pelo Kafka")
+        .register(registry);
+    Gauge.builder("creditos.auditoria.fila.profundidade", fila,
+        FilaEventosAuditoria::profundidade).description("Eventos de auditoria aguardando envio").register(registry);
+    FunctionCounter.builder("creditos.auditoria.fila.enfileirados", fila,
+        FilaEventosAuditoria::totalEnfileirados).register(registry);
+    FunctionCounter.builder("creditos.auditoria.fila.descartados", fila,
+        FilaEventosAuditoria::totalDescartados)
+        .description("Eventos de auditoria descartados por fila cheia ou no encerramento").register(registry);
+  }
 
   public void publicarEventoAuditoria(CreditoConsultaEvent evento) {
+    if (outboxHabilitado) {
+      try {
+        outbox.inserir(evento);
+        return;
+      } catch (Exception e) {
+        // Sem o banco, segue pela fila em memória; o envio direto poria o Kafka na requisição
+        log.error("Falha ao gravar evento de auditoria no outbox: key={}", evento.getNumeroNfse(),
+            e);
+      }
+    }
+    // Antes do start o evento espera o remetente na fila; depois do stop é descartado e contado
+    if (usaFila) {
+      if (!fila.enfileirar(evento)) {
+        log.warn("Fila de auditoria cheia ou encerrada, evento descartado: key={}",
+            evento.getNumeroNfse());
+      }
+      return;
+    }
+    enviar(evento);
+  }
+
+  public FilaAuditoriaEstatisticasDTO estatisticas() {
+    FilaAuditoriaEstatisticasDTO estatisticas = fila.estatisticas(assincrono);
+    if (outboxHabilitado) {
+      estatisticas.setOutbox(true);
+      // Contagem do relay (a cada 15s): um count(*) no outbox por chamada pesaria com o backlog
+      RelayOutboxAuditoria relayOutbox = relay.getIfAvailable();
+      if (relayOutbox != null) {
+        estatisticas.setPendentesOutbox(relayOutbox.pendentes());
+      }
+    }
+    return estatisticas;
+  }
+
+  /**
+   * Envia o lote inteiro e espera as confirmações antes de pegar o próximo: assim só um lote fica
+   * em voo, e no encerramento a fila vazia significa eventos confirmados pelo broker.
+   *
+   * Um envio que já volta com falha do {@code send} (broker sem metadados depois de
+   * {@code max.block.ms}) encerra o lote: os demais esperariam o mesmo tempo para o mesmo fim, e
+   * contam como falha.
+   */
+  void enviarLote(List<CreditoConsultaEvent> lote) {
+    List<CompletableFuture<?>> envios = new ArrayList<>(lote.size());
+    for (CreditoConsultaEvent evento : lote) {
+      CompletableFuture<?> envio = enviar(evento);
+      envios.add(envio);
+      if (envio.isCompletedExceptionally() && envios.size() < lote.size()) {
+        int restantes = lote.size() - envios.size();
+        fila.registrarFalhas(restantes);
+        log.warn("Kafka indisponível; {} evento(s) de auditoria restantes do lote não enviados",
+            restantes);
+        break;
+      }
+    }
+    try {
+      CompletableFuture.allOf(envios.toArray(CompletableFuture[]::new))
+          .get(esperaConfirmacao.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // Falhas já registradas evento a evento
+    } catch (TimeoutException e) {
+      log.warn("Lote de {} evento(s) de auditoria sem confirmação do Kafka após {}", lote.size(),
+          esperaConfirmacao);
+    }
+  }
+
+  private CompletableFuture<?> enviar(CreditoConsultaEvent evento) {
+    long inicio = System.nanoTime();
     try {
       CompletableFuture<SendResult<String, CreditoConsultaEvent>> future =
           kafkaTemplate.send(auditTopicName, evento.getNumeroNfse(), evento);
 
-      future.whenComplete((result, exception) -> {
+      return future.whenComplete((result, exception) -> {
+        registrarEnvio(System.nanoTime() - inicio, exception == null);
         if (exception == null) {
-          log.info("Evento de auditoria publicado com sucesso: key={}, offset={}",
+          log.debug("Evento de auditoria publicado com sucesso: key={}, offset={}",
               evento.getNumeroNfse(), result.getRecordMetadata().offset());
         } else {
           log.error("Falha ao publicar evento de auditoria: key={}", evento.getNumeroNfse(),
@@ -35,7 +185,40 @@ public class CreditoEventPublisher {
         }
       });
     } catch (Exception e) {
+      registrarEnvio(System.nanoTime() - inicio, false);
       log.error("Erro inesperado ao publicar evento de auditoria", e);
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private void registrarEnvio(long latenciaNanos, boolean sucesso) {
+    fila.registrarEnvio(latenciaNanos, sucesso);
+    (sucesso ? envioSucesso : envioFalha).record(latenciaNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void start() {
+    if (usaFila) {
+      fila.iniciar();
     }
   }
+
+  @Override
+  public void stop() {
+    fila.parar(prazoEncerramento);
+  }
+
+  @Override
+  public boolean isRunning() {
+    return fila.isAtiva();
+  }
+
+  /**
+   * Sobe antes e para depois do servidor web, para que nenhuma requisição em andamento no
+   * encerramento fique sem remetente.
+   */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
 }
@@ -0,0 +1,126 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.CreditoDTO;
+import com.desafio.credito.repository.CreditoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta créditos linha a linha para um {@link OutputStream}, sem materializar o resultado.
+ *
+ * As linhas vêm de um cursor do banco (fetch size no repositório) já projetadas como DTO, sem
+ * passar pelo contexto de persistência, então o heap não cresce com o volume.
+ */
+@Service
+@RequiredArgsConstructor
+public class CreditoExportacaoService {
+
+  private static final int TAMANHO_BUFFER = 64 * 1024;
+  static final String CABECALHO_CSV = "numeroCredito,numeroNfse,dataConstituicao,"
+      + "valorIssqn,tipoCredito,simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo";
+
+  private final CreditoRepository creditoRepository;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Escreve os créditos (todos, ou só os da NFS-e informada) no formato pedido.
+   *
+   * @return quantidade de créditos exportados
+   */
+  @Transactional(readOnly = true)
+  public long exportar(String numeroNfse, FormatoExportacao formato, OutputStream saida)
+      throws IOException {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+    try (Stream<CreditoDTO> creditos = numeroNfse == null ? creditoRepository.streamTodos()
+        : creditoRepository.streamPorNfse(numeroNfse)) {
+      long total = formato == FormatoExportacao.CSV ? escreverCsv(creditos.iterator(), writer)
+          : escreverNdjson(creditos.iterator(), writer);
+      writer.flush();
+      return total;
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private long escreverNdjson(Iterator<CreditoDTO> creditos, Writer writer) throws IOException {
+    ObjectWriter jsonWriter = objectMapper.writerFor(CreditoDTO.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.setRootValueSeparator(null);
+    long total = 0;
+    while (creditos.hasNext()) {
+      jsonWriter.writeValue(generator, creditos.next());
+      generator.writeRaw('\n');
+      total++;
+    }
+    generator.flush();
+    return total;
+  }
+
+  private long escreverCsv(Iterator<CreditoDTO> creditos, Writer writer) throws IOException {
+    writer.write(CABECALHO_CSV);
+    writer.write('\n');
+    long total = 0;
+    while (creditos.hasNext()) {
+      CreditoDTO dto = creditos.next();
+      writer.write(csv(dto.getNumeroCredito()));
+      writer.write(',');
+      writer.write(csv(dto.getNumeroNfse()));
+      writer.write(',');
+      writer.write(dto.getDataConstituicao() != null ? dto.getDataConstituicao().toString() : "");
+      writer.write(',');
+      writer.write(decimal(dto.getValorIssqn()));
+      writer.write(',');
+      writer.write(csv(dto.getTipoCredito()));
+      writer.write(',');
+      writer.write(dto.getSimplesNacional() != null ? dto.getSimplesNacional().toString() : "");
+      writer.write(',');
+      writer.write(decimal(dto.getAliquota()));
+      writer.write(',');
+      writer.write(decimal(dto.getValorFaturado()));
+      writer.write(',');
+      writer.write(decimal(dto.getValorDeducao()));
+      writer.write(',');
+      writer.write(decimal(dto.getBaseCalculo()));
+      writer.write('\n');
+      total++;
+    }
+    return total;
+  }
+
+  private static String decimal(BigDecimal valor) {
+    return valor != null ? valor.toPlainString() : "";
+  }
+
+  /**
+   * Aplica as regras de escape do RFC 4180: aspas apenas quando necessário.
+   */
+  static String csv(String valor) {
+    if (valor == null) {
+      return "";
+    }
+    if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0
+        && valor.indexOf('\r') < 0) {
+      return valor;
+    }
+    return '"' + valor.replace("\"", "\"\"") + '"';
+  }
+}
@@ -0,0 +1,433 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.CreditoDTO;
+import com.desafio.credito.dto.ErroImportacaoDTO;
+import com.desafio.credito.dto.ImportacaoResultadoDTO;
+import com.desafio.credito.entity.Credito;
+import com.desafio.credito.mapper.CreditoMapper;
+import com.desafio.credito.repository.CreditoCopyRepository;
+import com.desafio.credito.repository.CreditoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Importa créditos de um arquivo CSV ou NDJSON lido em streaming.
+ *
+ * O arquivo é lido linha a linha; as linhas válidas são acumuladas em lotes de
+ * {@code app.creditos.importacao.tamanho-lote} e cada lote é gravado e confirmado em sua própria
+ * transação, então a memória usada não depende do tamanho do arquivo. Linhas inválidas ou
+ * duplicadas são rejeitadas individualmente, sem interromper a importação. Se a gravação de um
+ * lote falhar, a importação para e os lotes anteriores permanecem gravados.
+ *
+ * O andamento de cada importação fica disponível em {@link #listarImportacoes()} enquanto ela
+ * roda e por uma hora depois de terminar.
+ */
+@Slf4j
+@Service
+public class CreditoImportacaoService {
+
+  static final String EM_ANDAMENTO = "EM_ANDAMENTO";
+  static final String CONCLUIDA = "CONCLUIDA";
+  static final String FALHOU = "FALHOU";
+
+  private static final int TAMANHO_BUFFER = 64 * 1024;
+  private static final int TAMANHO_MAXIMO_TEXTO = 50;
+  private static final List<String> COLUNAS =
+      List.of(CreditoExportacaoService.CABECALHO_CSV.split(","));
+
+  private final CreditoRepository creditoRepository;
+  private final CreditoCopyRepository copyRepository;
+  private final CreditoMapper creditoMapper;
+  private final CreditoCache creditoCache;
+  private final ObjectReader leitorJson;
+  private final TransactionTemplate transactionTemplate;
+  private final int tamanhoLote;
+  private final int maximoErros;
+  private final Cache<String, ImportacaoResultadoDTO> importacoes = Caffeine.newBuilder()
+      .maximumSize(100).expireAfterWrite(Duration.ofHours(1)).build();
+
+  public CreditoImportacaoService(CreditoRepository creditoRepository,
+      CreditoCopyRepository copyRepository, CreditoMapper creditoMapper,
+      CreditoCache creditoCache, ObjectMapper objectMapper,
+      TransactionTemplate transactionTemplate,
+      @Value("${app.creditos.importacao.tamanho-lote:1000}") int tamanhoLote,
+      @Value("${app.creditos.importacao.maximo-erros:100}") int maximoErros) {
+    this.creditoRepository = creditoRepository;
+    this.copyRepository = copyRepository;
+    this.creditoMapper = creditoMapper;
+    this.creditoCache = creditoCache;
+    this.leitorJson = objectMapper.readerFor(CreditoDTO.class);
+    this.transactionTemplate = transactionTemplate;
+    this.tamanhoLote = tamanhoLote;
+    this.maximoErros = maximoErros;
+  }
+
+  /**
+   * Lê e grava os créditos do arquivo. Um cabeçalho CSV inválido é rejeitado antes de qualquer
+   * gravação ({@link IllegalArgumentException}); falhas depois disso são devolvidas no resultado,
+   * com situação {@code FALHOU}.
+   */
+  public ImportacaoResultadoDTO importar(InputStream entrada, FormatoExportacao formato,
+      MetodoImportacao metodo) throws IOException {
+    BufferedReader reader = new BufferedReader(
+        new InputStreamReader(entrada, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+    Importacao importacao = new Importacao(formato, metodo);
+    if (formato == FormatoExportacao.CSV) {
+      importacao.colunas = lerCabecalho(reader, importacao);
+    }
+    publicar(importacao);
+
+    try {
+      List<LinhaImportada> lote = new ArrayList<>(tamanhoLote);
+      String linha;
+      while ((linha = reader.readLine()) != null) {
+        importacao.numeroLinha++;
+        if (linha.isBlank()) {
+          continue;
+        }
+        importacao.linhasLidas++;
+        lerLinha(linha, importacao).ifPresent(lote::add);
+        if (lote.size() >= tamanhoLote) {
+          gravar(lote, importacao);
+          lote.clear();
+        }
+      }
+      gravar(lote, importacao);
+      importacao.situacao = CONCLUIDA;
+    } catch (Exception e) {
+      log.error("Importação {} interrompida na linha {}", importacao.id, importacao.numeroLinha,
+          e);
+      importacao.situacao = FALHOU;
+      importacao.mensagem = "Importação interrompida na linha " + importacao.numeroLinha + ": "
+          + e.getMessage();
+    }
+    ImportacaoResultadoDTO resultado = publicar(importacao);
+    log.info("Importação {} {}: lidas={}, importados={}, rejeitados={}, duracaoMs={}",
+        importacao.id, importacao.situacao, importacao.linhasLidas, importacao.importados,
+        importacao.rejeitados, resultado.getDuracaoMs());
+    return resultado;
+  }
+
+  /**
+   * Importações em andamento e as terminadas na última hora, da mais recente para a mais antiga.
+   */
+  public List<ImportacaoResultadoDTO> listarImportacoes() {
+    return importacoes.asMap().values().stream()
+        .sorted(Comparator.comparing(ImportacaoResultadoDTO::getInicio).reversed()).toList();
+  }
+
+  private int[] lerCabecalho(BufferedReader reader, Importacao importacao) throws IOException {
+    String cabecalho;
+    do {
+      cabecalho = reader.readLine();
+      importacao.numeroLinha++;
+    } while (cabecalho != null && cabecalho.isBlank());
+    if (cabecalho == null) {
+      throw new IllegalArgumentException("Arquivo CSV vazio: o cabeçalho é obrigatório");
+    }
+    List<String> nomes = dividirCsv(cabecalho.replace("\uFEFF", "")).stream()
+        .map(nome -> nome.trim().toLowerCase(Locale.ROOT)).toList();
+    int[] indices = new int[COLUNAS.size()];
+    for (int i = 0; i < COLUNAS.size(); i++) {
+      indices[i] = nomes.indexOf(COLUNAS.get(i).toLowerCase(Locale.ROOT));
+      if (indices[i] < 0) {
+        throw new IllegalArgumentException("Coluna ausente no cabeçalho CSV: " + COLUNAS.get(i)
+            + ". Esperado: " + CreditoExportacaoService.CABECALHO_CSV);
+      }
+    }
+    return indices;
+  }
+
+  private Optional<LinhaImportada> lerLinha(String linha, Importacao importacao) {
+    try {
+      CreditoDTO dto = importacao.formato == FormatoExportacao.CSV
+          ? lerCsv(linha, importacao.colunas) : leitorJson.readValue(linha);
+      String erro = dto != null ? validar(dto) : "Linha sem crédito";
+      if (erro == null) {
+        return Optional.of(new LinhaImportada(importacao.numeroLinha,
+            creditoMapper.toEntity(dto)));
+      }
+      importacao.rejeitar(importacao.numeroLinha, dto != null ? dto.getNumeroCredito() : null,
+          erro, maximoErros);
+    } catch (JsonProcessingException e) {
+      importacao.rejeitar(importacao.numeroLinha, null,
+          "JSON inválido: " + e.getOriginalMessage(), maximoErros);
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      importacao.rejeitar(importacao.numeroLinha, numeroCreditoCsv(linha, importacao.colunas),
+          e.getMessage(), maximoErros);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Descarta do lote os números já cadastrados ou repetidos e grava o restante.
+   */
+  private void gravar(List<LinhaImportada> lote, Importacao importacao) {
+    if (lote.isEmpty()) {
+      return;
+    }
+    Set<String> numeros = new HashSet<>();
+    lote.forEach(l -> numeros.add(l.credito().getNumeroCredito()));
+    Set<String> existentes = new HashSet<>(creditoRepository.buscarNumerosExistentes(numeros));
+
+    List<Credito> creditos = new ArrayList<>(lote.size());
+    Set<String> vistos = new HashSet<>();
+    for (LinhaImportada linha : lote) {
+      String numero = linha.credito().getNumeroCredito();
+      if (existentes.contains(numero)) {
+        importacao.rejeitar(linha.numero(), numero, "Crédito já cadastrado", maximoErros);
+      } else if (!vistos.add(numero)) {
+        importacao.rejeitar(linha.numero(), numero, "Crédito repetido no arquivo", maximoErros);
+      } else {
+        creditos.add(linha.credito());
+      }
+    }
+
+    if (importacao.metodo == MetodoImportacao.COPY) {
+      copyRepository.copiar(creditos);
+    } else {
+      transactionTemplate.executeWithoutResult(status -> creditoRepository.saveAll(creditos));
+    }
+    importacao.importados += creditos.size();
+
+    // Consultas anteriores (inclusive as vazias, em cache negativo) ficaram desatualizadas
+    creditos.forEach(c -> {
+      creditoCache.invalidarNfse(c.getNumeroNfse());
+      creditoCache.invalidarCredito(c.getNumeroCredito());
+    });
+    publicar(importacao);
+    log.debug("Importação {}: {} linhas lidas, {} importados", importacao.id,
+        importacao.linhasLidas, importacao.importados);
+  }
+
+  private ImportacaoResultadoDTO publicar(Importacao importacao) {
+    ImportacaoResultadoDTO resultado = importacao.resultado();
+    importacoes.put(importacao.id, resultado);
+    return resultado;
+  }
+
+  /** Número do crédito de uma linha CSV rejeitada, se puder ser lido; null no NDJSON. */
+  private static String numeroCreditoCsv(String linha, int[] colunas) {
+    if (colunas == null) {
+      return null;
+    }
+    try {
+      List<String> campos = dividirCsv(linha);
+      return colunas[0] < campos.size() ? texto(campos.get(colunas[0])) : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static CreditoDTO lerCsv(String linha, int[] colunas) {
+    List<String> campos = dividirCsv(linha);
+    int maiorIndice = 0;
+    for (int indice : colunas) {
+      maiorIndice = Math.max(maiorIndice, indice);
+    }
+    if (campos.size() <= maiorIndice) {
+      throw new IllegalArgumentException(
+          "Linha com " + campos.size() + " colunas; esperado ao menos " + (maiorIndice + 1));
+    }
+    return CreditoDTO.builder().numeroCredito(texto(campos.get(colunas[0])))
+        .numeroNfse(texto(campos.get(colunas[1])))
+        .dataConstituicao(data(campos.get(colunas[2])))
+        .valorIssqn(decimal(campos.get(colunas[3]), "valorIssqn"))
+        .tipoCredito(texto(campos.get(colunas[4])))
+        .simplesNacional(booleano(campos.get(colunas[5])))
+        .aliquota(decimal(campos.get(colunas[6]), "aliquota"))
+        .valorFaturado(decimal(campos.get(colunas[7]), "valorFaturado"))
+        .valorDeducao(decimal(campos.get(colunas[8]), "valorDeducao"))
+        .baseCalculo(decimal(campos.get(colunas[9]), "baseCalculo")).build();
+  }
+
+  /**
+   * Divide uma linha CSV (RFC 4180, sem quebras de linha dentro de aspas).
+   */
+  static List<String> dividirCsv(String linha) {
+    List<String> campos = new ArrayList<>();
+    StringBuilder campo = new StringBuilder();
+    boolean entreAspas = false;
+    for (int i = 0; i < linha.length(); i++) {
+      char c = linha.charAt(i);
+      if (entreAspas) {
+        if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+          campo.append('"');
+          i++;
+        } else if (c == '"') {
+          entreAspas = false;
+        } else {
+          campo.append(c);
+        }
+      } else if (c == '"') {
+        entreAspas = true;
+      } else if (c == ',') {
+        campos.add(campo.toString());
+        campo.setLength(0);
+      } else {
+        campo.append(c);
+      }
+    }
+    if (entreAspas) {
+      throw new IllegalArgumentException("Aspas não fechadas na linha");
+    }
+    campos.add(campo.toString());
+    return campos;
+  }
+
+  /**
+   * Aplica as restrições da tabela credito (V1). Devolve a primeira violação, ou null.
+   */
+  static String validar(CreditoDTO dto) {
+    String erro = validarTexto("numeroCredito", dto.getNumeroCredito());
+    if (erro == null) {
+      erro = validarTexto("numeroNfse", dto.getNumeroNfse());
+    }
+    if (erro == null) {
+      erro = validarTexto("tipoCredito", dto.getTipoCredito());
+    }
+    if (erro == null && dto.getDataConstituicao() == null) {
+      erro = "dataConstituicao é obrigatória";
+    }
+    if (erro == null && dto.getSimplesNacional() == null) {
+      erro = "simplesNacional é obrigatório";
+    }
+    if (erro == null) {
+      erro = validarDecimal("valorIssqn", dto.getValorIssqn(), 15);
+    }
+    if (erro == null) {
+      erro = validarDecimal("aliquota", dto.getAliquota(), 5);
+    }
+    if (erro == null) {
+      erro = validarDecimal("valorFaturado", dto.getValorFaturado(), 15);
+    }
+    if (erro == null) {
+      erro = validarDecimal("valorDeducao", dto.getValorDeducao(), 15);
+    }
+    if (erro == null) {
+      erro = validarDecimal("baseCalculo", dto.getBaseCalculo(), 15);
+    }
+    return erro;
+  }
+
+  private static String validarTexto(String campo, String valor) {
+    if (valor == null || valor.isBlank()) {
+      return campo + " é obrigatório";
+    }
+    if (valor.length() > TAMANHO_MAXIMO_TEXTO) {
+      return campo + " excede " + TAMANHO_MAXIMO_TEXTO + " caracteres";
+    }
+    return null;
+  }
+
+  /** DECIMAL(precisao, 2). */
+  private static String validarDecimal(String campo, BigDecimal valor, int precisao) {
+    if (valor == null) {
+      return campo + " é obrigatório";
+    }
+    BigDecimal normalizado = valor.stripTrailingZeros();
+    if (normalizado.scale() > 2) {
+      return campo + " aceita no máximo 2 casas decimais";
+    }
+    if (normalizado.precision() - normalizado.scale() > precisao - 2) {
+      return campo + " excede " + (precisao - 2) + " dígitos inteiros";
+    }
+    return null;
+  }
+
+  private static String texto(String valor) {
+    return valor.isEmpty() ? null : valor;
+  }
+
+  private static LocalDate data(String valor) {
+    return valor.isBlank() ? null : LocalDate.parse(valor.trim());
+  }
+
+  private static BigDecimal decimal(String valor, String campo) {
+    if (valor.isBlank()) {
+      return null;
+    }
+    try {
+      return new BigDecimal(valor.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(campo + " não é um número: " + valor);
+    }
+  }
+
+  private static Boolean booleano(String valor) {
+    String normalizado = valor.trim().toLowerCase(Locale.ROOT);
+    return switch (normalizado) {
+      case "" -> null;
+      case "true" -> Boolean.TRUE;
+      case "false" -> Boolean.FALSE;
+      default -> throw new IllegalArgumentException(
+          "simplesNacional deve ser true ou false: " + valor);
+    };
+  }
+
+  private record LinhaImportada(long numero, Credito credito) {
+  }
+
+  /** Estado de uma importação; só a thread que importa altera. */
+  private static final class Importacao {
+    private final String id = UUID.randomUUID().toString();
+    private final LocalDateTime inicio = LocalDateTime.now();
+    private final long inicioNanos = System.nanoTime();
+    private final FormatoExportacao formato;
+    private final MetodoImportacao metodo;
+    private final List<ErroImportacaoDTO> erros = new ArrayList<>();
+    private int[] colunas;
+    private String situacao = EM_ANDAMENTO;
+    private String mensagem;
+    private long numeroLinha;
+    private long linhasLidas;
+    private long importados;
+    private long rejeitados;
+
+    Importacao(FormatoExportacao formato, MetodoImportacao metodo) {
+      this.formato = formato;
+      this.metodo = metodo;
+    }
+
+    void rejeitar(long linha, String numeroCredito, String mensagem, int maximoErros) {
+      rejeitados++;
+      if (erros.size() < maximoErros) {
+        erros.add(ErroImportacaoDTO.builder().linha(linha).numeroCredito(numeroCredito)
+            .mensagem(mensagem).build());
+      }
+    }
+
+    ImportacaoResultadoDTO resultado() {
+      return ImportacaoResultadoDTO.builder().id(id).situacao(situacao).formato(formato.name())
+          .metodo(metodo.name()).linhasLidas(linhasLidas).importados(importados)
+          .rejeitados(rejeitados).erros(List.copyOf(erros)).mensagem(mensagem).inicio(inicio)
+          .duracaoMs((System.nanoTime() - inicioNanos) / 1_000_000).build();
+    }
+  }
+}
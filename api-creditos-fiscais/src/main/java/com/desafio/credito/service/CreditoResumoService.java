@@ -0,0 +1,85 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.ResumoCreditoDTO;
+import com.desafio.credito.repository.DimensaoResumo;
+import com.desafio.credito.repository.ResumoCreditoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Totais de créditos por mês de constituição, tipo e Simples Nacional, lidos do resumo mantido
+ * incrementalmente pelo banco em vez de somados sobre a tabela de créditos.
+ */
+@Service
+@RequiredArgsConstructor
+public class CreditoResumoService {
+
+  static final String AGRUPAMENTO_PADRAO = "mes,tipoCredito,simplesNacional";
+
+  private final ResumoCreditoRepository resumoRepository;
+
+  /**
+   * @param agrupamento dimensões separadas por vírgula ({@code mes}, {@code tipoCredito},
+   *        {@code simplesNacional}); nulo agrupa pelas três
+   * @param inicio primeiro mês (AAAA-MM), inclusive
+   * @param fim último mês (AAAA-MM), inclusive
+   */
+  public List<ResumoCreditoDTO> resumir(String agrupamento, String inicio, String fim,
+      String tipoCredito, Boolean simplesNacional) {
+    Set<DimensaoResumo> dimensoes = new LinkedHashSet<>();
+    Arrays.stream((agrupamento != null ? agrupamento : AGRUPAMENTO_PADRAO).split(","))
+        .map(String::trim).filter(d -> !d.isEmpty()).map(DimensaoResumo::deValor)
+        .forEach(dimensoes::add);
+    if (dimensoes.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Informe ao menos um agrupamento: mes, tipoCredito ou simplesNacional");
+    }
+    Periodo periodo = Periodo.de(inicio, fim);
+    return resumoRepository.resumir(List.copyOf(dimensoes), periodo.inicio(), periodo.fim(),
+        tipoCredito, simplesNacional);
+  }
+
+  /**
+   * Total geral dos créditos que atendem aos filtros; zerado quando nenhum atende.
+   */
+  public ResumoCreditoDTO totalizar(String inicio, String fim, String tipoCredito,
+      Boolean simplesNacional) {
+    Periodo periodo = Periodo.de(inicio, fim);
+    return resumoRepository.resumir(List.of(), periodo.inicio(), periodo.fim(), tipoCredito,
+        simplesNacional).stream().findFirst()
+        .orElseGet(() -> ResumoCreditoDTO.builder().quantidade(0).valorIssqn(BigDecimal.ZERO)
+            .valorFaturado(BigDecimal.ZERO).baseCalculo(BigDecimal.ZERO).build());
+  }
+
+  private record Periodo(LocalDate inicio, LocalDate fim) {
+
+    static Periodo de(String inicio, String fim) {
+      YearMonth de = mes(inicio);
+      YearMonth ate = mes(fim);
+      if (de != null && ate != null && de.isAfter(ate)) {
+        throw new IllegalArgumentException("O mês inicial deve ser anterior ou igual ao final");
+      }
+      return new Periodo(de != null ? de.atDay(1) : null, ate != null ? ate.atDay(1) : null);
+    }
+
+    private static YearMonth mes(String valor) {
+      if (valor == null || valor.isBlank()) {
+        return null;
+      }
+      try {
+        return YearMonth.parse(valor.trim());
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException("Mês inválido: " + valor + ". Use o formato AAAA-MM");
+      }
+    }
+  }
+}
@@ -1,39 +1,390 @@
 package com.desafio.credito.service;
 
+import com.desafio.credito.dto.BuscaCreditosDTO;
+import com.desafio.credito.dto.CacheEstatisticasDTO;
+import com.desafio.credito.dto.ConsultaLoteResponseDTO;
 import com.desafio.credito.dto.CreditoDTO;
-import com.desafio.credito.entity.Credito;
+import com.desafio.credito.dto.PaginaCreditosDTO;
 import com.desafio.credito.exception.ResourceNotFoundException;
-import com.desafio.credito.mapper.CreditoMapper;
 import com.desafio.credito.repository.CreditoRepository;
+import com.desafio.credito.repository.LinhaPaginaCredito;
+import com.desafio.credito.repository.VersaoCreditos;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
+// Somente leitura: com réplicas configuradas as consultas ao banco vão para elas
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class CreditoService {
 
-  private final CreditoMapper creditoMapper;
+  // Menor trecho aceito na busca: abaixo disso o índice de trigramas não ajuda e um trecho comum
+  // casaria com boa parte da tabela
+  static final int TAMANHO_MINIMO_TRECHO = 3;
+
   private final CreditoRepository creditoRepository;
+  private final CreditoCache creditoCache;
+
+  @Value("${app.creditos.lote.tamanho-maximo:500}")
+  private int tamanhoMaximoLote = 500;
+
+  @Value("${app.creditos.pagina.tamanho-padrao:100}")
+  private int tamanhoPadraoPagina = 100;
+
+  @Value("${app.creditos.pagina.tamanho-maximo:1000}")
+  private int tamanhoMaximoPagina = 1000;
+
+  @Value("${app.creditos.busca.limite-padrao:10}")
+  private int limitePadraoBusca = 10;
+
+  @Value("${app.creditos.busca.limite-maximo:50}")
+  private int limiteMaximoBusca = 50;
+
+  @Value("${app.creditos.busca.varredura-maxima:1000}")
+  private int varreduraMaximaBusca = 1000;
 
   public List<CreditoDTO> buscarCreditosPorNfse(String numeroNfse) {
-    List<Credito> creditos = creditoRepository.findByNumeroNfse(numeroNfse);
+    return buscarCreditosPorNfse(numeroNfse, null);
+  }
+
+  /**
+   * Como {@link #buscarCreditosPorNfse(String)}, mas descarta a entrada do cache cuja ETag difere
+   * de {@code etagAtual} (a do banco, de {@link #versaoPorNfse}) e recarrega do banco, sem ler o
+   * cache de consultas do Hibernate.
+   */
+  public List<CreditoDTO> buscarCreditosPorNfse(String numeroNfse, String etagAtual) {
+    List<CreditoDTO> creditos = creditoCache.buscarPorNfse(numeroNfse, this::carregarPorNfse);
+    if (etagAtual != null && !etagAtual.equals(etag(creditos))) {
+      // Sem passar pelo cache de consultas do Hibernate, que pode estar tão atrás quanto este
+      creditoCache.invalidarNfse(numeroNfse);
+      creditos = creditoCache.buscarPorNfse(numeroNfse, this::recarregarPorNfse);
+    }
 
     if (creditos.isEmpty()) {
       throw new ResourceNotFoundException("Nenhum crédito encontrado para a NFS-e: " + numeroNfse);
     }
 
-    return creditos.stream()
-            .map(creditoMapper::toDTO)
-            .collect(Collectors.toList());
+    return creditos;
   }
 
   public CreditoDTO buscarCreditoPorNumero(String numeroCredito) {
-    return creditoRepository.findByNumeroCredito(numeroCredito).map(creditoMapper::toDTO)
-        .orElseThrow(() -> new ResourceNotFoundException(
-            "Crédito não encontrado com o número: " + numeroCredito));
+    return buscarCreditoPorNumero(numeroCredito, null);
+  }
+
+  /**
+   * Como {@link #buscarCreditoPorNumero(String)}, mas descarta a entrada do cache cuja ETag difere
+   * de {@code etagAtual} (a do banco, de {@link #etagPorNumero}) e recarrega do banco, sem ler o
+   * cache de consultas do Hibernate.
+   */
+  public CreditoDTO buscarCreditoPorNumero(String numeroCredito, String etagAtual) {
+    Optional<CreditoDTO> credito =
+        creditoCache.buscarPorNumero(numeroCredito, this::carregarPorNumero);
+    if (etagAtual != null && !etagAtual.equals(credito.map(CreditoService::etag).orElse(null))) {
+      creditoCache.invalidarCredito(numeroCredito);
+      credito = creditoCache.buscarPorNumero(numeroCredito,
+          creditoRepository::recarregarDTOPorNumero);
+    }
+    return credito.orElseThrow(() -> new ResourceNotFoundException(
+        "Crédito não encontrado com o número: " + numeroCredito));
+  }
+
+  /**
+   * Quantidade e maior versão dos créditos de uma NFS-e, lidas só do índice; base da ETag da
+   * consulta ({@link #etag(VersaoCreditos)}). Vazia quando a NFS-e não tem créditos.
+   */
+  public Optional<VersaoCreditos> versaoPorNfse(String numeroNfse) {
+    VersaoCreditos versao = creditoRepository.buscarVersaoPorNfse(numeroNfse);
+    if (versao == null || versao.quantidade() == 0) {
+      return Optional.empty();
+    }
+    return Optional.of(versao);
+  }
+
+  /**
+   * ETag forte da consulta por NFS-e: quantidade e maior versão dos créditos.
+   */
+  public static String etag(VersaoCreditos versao) {
+    return etag(versao.quantidade(), versao.versao());
+  }
+
+  /**
+   * ETag forte da consulta por número de crédito. Vazia quando o crédito não existe.
+   */
+  public Optional<String> etagPorNumero(String numeroCredito) {
+    return creditoRepository.buscarVersaoPorNumero(numeroCredito).map(v -> "\"" + v + "\"");
+  }
+
+  /**
+   * ETag dos créditos de uma NFS-e calculada do que foi lido, no mesmo formato de
+   * {@link #etag(VersaoCreditos)}; {@code null} para a lista vazia ou sem versão.
+   */
+  public static String etag(List<CreditoDTO> creditos) {
+    if (creditos.isEmpty() || creditos.stream().anyMatch(c -> c.getVersao() == null)) {
+      return null;
+    }
+    long versao = creditos.stream().mapToLong(CreditoDTO::getVersao).max().getAsLong();
+    return etag(creditos.size(), versao);
+  }
+
+  /**
+   * ETag de um crédito calculada do que foi lido, no mesmo formato de {@link #etagPorNumero};
+   * {@code null} sem versão.
+   */
+  public static String etag(CreditoDTO credito) {
+    return credito.getVersao() == null ? null : "\"" + credito.getVersao() + "\"";
+  }
+
+  private static String etag(long quantidade, Long versao) {
+    return "\"" + quantidade + "-" + versao + "\"";
+  }
+
+  /**
+   * Lista todos os créditos em páginas, do mais recente para o mais antigo. Sem cursor, devolve a
+   * primeira página; com o cursor recebido na página anterior, continua de onde ela parou.
+   */
+  public PaginaCreditosDTO listarCreditos(String cursor, Integer tamanho) {
+    int limite = tamanhoPagina(tamanho);
+    if (cursor == null) {
+      return montarPagina(creditoRepository.buscarPagina(limite + 1), limite);
+    }
+    CursorPagina posicao = CursorPagina.decodificar(cursor);
+    return montarPagina(creditoRepository.buscarPaginaApos(posicao.dataConstituicao(),
+        posicao.id(), limite + 1), limite);
+  }
+
+  /**
+   * Variante paginada de {@link #buscarCreditosPorNfse}. As páginas não passam pelo cache.
+   */
+  public PaginaCreditosDTO buscarCreditosPorNfsePaginado(String numeroNfse, String cursor,
+      Integer tamanho) {
+    int limite = tamanhoPagina(tamanho);
+    List<LinhaPaginaCredito> linhas;
+    if (cursor == null) {
+      linhas = creditoRepository.buscarPaginaPorNfse(numeroNfse, limite + 1);
+      if (linhas.isEmpty()) {
+        throw new ResourceNotFoundException(
+            "Nenhum crédito encontrado para a NFS-e: " + numeroNfse);
+      }
+    } else {
+      CursorPagina posicao = CursorPagina.decodificar(cursor);
+      linhas = creditoRepository.buscarPaginaPorNfseApos(numeroNfse, posicao.dataConstituicao(),
+          posicao.id(), limite + 1);
+    }
+    return montarPagina(linhas, limite);
+  }
+
+  /**
+   * Autocompletar de NFS-e e números de crédito: primeiro os que começam com o trecho, em ordem,
+   * e, se faltar para o limite, os que o contêm em outra posição, escolhidos entre as primeiras
+   * {@code app.creditos.busca.varredura-maxima} ocorrências. O trecho precisa de ao menos
+   * {@value #TAMANHO_MINIMO_TRECHO} caracteres. Não passa pelo cache.
+   *
+   * @param campo {@code nfse}, {@code credito} ou nulo para os dois
+   */
+  public BuscaCreditosDTO buscarPorTrecho(String termo, String campo, Integer limite) {
+    if (termo == null || termo.isBlank()) {
+      throw new IllegalArgumentException("Informe o trecho a buscar");
+    }
+    String trecho = termo.trim();
+    if (trecho.length() < TAMANHO_MINIMO_TRECHO || trecho.length() > 50) {
+      throw new IllegalArgumentException(
+          "O trecho deve ter entre " + TAMANHO_MINIMO_TRECHO + " e 50 caracteres");
+    }
+    if (campo != null && !campo.equalsIgnoreCase("nfse") && !campo.equalsIgnoreCase("credito")) {
+      throw new IllegalArgumentException("Campo inválido: " + campo + ". Use nfse ou credito");
+    }
+    int quantidade = limite != null ? limite : limitePadraoBusca;
+    if (quantidade < 1 || quantidade > limiteMaximoBusca) {
+      throw new IllegalArgumentException(
+          "O limite deve estar entre 1 e " + limiteMaximoBusca);
+    }
+
+    BuscaCreditosDTO resultado = new BuscaCreditosDTO();
+    if (campo == null || campo.equalsIgnoreCase("nfse")) {
+      resultado.setNumerosNfse(buscarPorTrecho(trecho, quantidade,
+          creditoRepository::buscarNfsesPorPrefixo, (padrao, maximo) ->
+              creditoRepository.buscarNfsesContendo(padrao, varreduraMaximaBusca, maximo)));
+    }
+    if (campo == null || campo.equalsIgnoreCase("credito")) {
+      resultado.setNumerosCredito(buscarPorTrecho(trecho, quantidade,
+          creditoRepository::buscarNumerosPorPrefixo, (padrao, maximo) ->
+              creditoRepository.buscarNumerosContendo(padrao, varreduraMaximaBusca, maximo)));
+    }
+    return resultado;
+  }
+
+  /**
+   * Resolve várias NFS-e e números de crédito de uma vez. As chaves que não estão em cache são
+   * buscadas com uma consulta IN por tipo de chave, e as não encontradas são listadas à parte.
+   */
+  public ConsultaLoteResponseDTO buscarEmLote(Collection<String> numerosNfse,
+      Collection<String> numerosCredito) {
+    Set<String> nfses = normalizarChaves(numerosNfse);
+    Set<String> numeros = normalizarChaves(numerosCredito);
+    if (nfses.isEmpty() && numeros.isEmpty()) {
+      throw new IllegalArgumentException("Informe ao menos um número de NFS-e ou de crédito");
+    }
+    if (nfses.size() + numeros.size() > tamanhoMaximoLote) {
+      throw new IllegalArgumentException(
+          "A consulta em lote aceita no máximo " + tamanhoMaximoLote + " chaves");
+    }
+
+    Map<String, List<CreditoDTO>> porNfse = new LinkedHashMap<>();
+    List<String> nfseNaoEncontradas = new ArrayList<>();
+    if (!nfses.isEmpty()) {
+      Map<String, List<CreditoDTO>> encontrados =
+          creditoCache.buscarPorNfses(nfses, this::carregarPorNfses);
+      for (String nfse : nfses) {
+        List<CreditoDTO> creditos = encontrados.getOrDefault(nfse, Collections.emptyList());
+        if (creditos.isEmpty()) {
+          nfseNaoEncontradas.add(nfse);
+        } else {
+          porNfse.put(nfse, creditos);
+        }
+      }
+    }
+
+    Map<String, CreditoDTO> porNumero = new LinkedHashMap<>();
+    List<String> creditosNaoEncontrados = new ArrayList<>();
+    if (!numeros.isEmpty()) {
+      Map<String, Optional<CreditoDTO>> encontrados =
+          creditoCache.buscarPorNumeros(numeros, this::carregarPorNumeros);
+      for (String numero : numeros) {
+        Optional<CreditoDTO> credito = encontrados.getOrDefault(numero, Optional.empty());
+        if (credito.isPresent()) {
+          porNumero.put(numero, credito.get());
+        } else {
+          creditosNaoEncontrados.add(numero);
+        }
+      }
+    }
+
+    int quantidade = porNfse.values().stream().mapToInt(List::size).sum() + porNumero.size();
+    return ConsultaLoteResponseDTO.builder().creditosPorNfse(porNfse)
+        .creditosPorNumero(porNumero).nfseNaoEncontradas(nfseNaoEncontradas)
+        .creditosNaoEncontrados(creditosNaoEncontrados).quantidadeCreditos(quantidade).build();
+  }
+
+  /**
+   * Remove entradas do cache de consultas. Sem parâmetros, limpa o cache inteiro.
+   */
+  public void invalidarCache(String numeroNfse, String numeroCredito) {
+    if (numeroNfse == null && numeroCredito == null) {
+      creditoCache.invalidarTudo();
+      return;
+    }
+    if (numeroNfse != null) {
+      creditoCache.invalidarNfse(numeroNfse);
+    }
+    if (numeroCredito != null) {
+      creditoCache.invalidarCredito(numeroCredito);
+    }
+  }
+
+  public List<CacheEstatisticasDTO> estatisticasCache() {
+    return creditoCache.estatisticas();
+  }
+
+  private List<CreditoDTO> carregarPorNfse(String numeroNfse) {
+    return List.copyOf(creditoRepository.buscarDTOsPorNfse(numeroNfse));
+  }
+
+  private List<CreditoDTO> recarregarPorNfse(String numeroNfse) {
+    return List.copyOf(creditoRepository.recarregarDTOsPorNfse(numeroNfse));
+  }
+
+  private Optional<CreditoDTO> carregarPorNumero(String numeroCredito) {
+    return creditoRepository.buscarDTOPorNumero(numeroCredito);
+  }
+
+  private Map<String, List<CreditoDTO>> carregarPorNfses(Set<? extends String> numerosNfse) {
+    Map<String, List<CreditoDTO>> resultado = new HashMap<>();
+    numerosNfse.forEach(nfse -> resultado.put(nfse, Collections.emptyList()));
+    creditoRepository.buscarDTOsPorNfses(new ArrayList<>(numerosNfse)).stream()
+        .collect(Collectors.groupingBy(CreditoDTO::getNumeroNfse))
+        .forEach((nfse, creditos) -> resultado.put(nfse, List.copyOf(creditos)));
+    return resultado;
+  }
+
+  private Map<String, Optional<CreditoDTO>> carregarPorNumeros(
+      Set<? extends String> numerosCredito) {
+    Map<String, Optional<CreditoDTO>> resultado = new HashMap<>();
+    numerosCredito.forEach(numero -> resultado.put(numero, Optional.empty()));
+    creditoRepository.buscarDTOsPorNumeros(new ArrayList<>(numerosCredito))
+        .forEach(credito -> resultado.put(credito.getNumeroCredito(), Optional.of(credito)));
+    return resultado;
+  }
+
+  private static List<String> buscarPorTrecho(String trecho, int limite,
+      BiFunction<String, Integer, List<String>> porPrefixo,
+      BiFunction<String, Integer, List<String>> contendo) {
+    String padrao = escaparLike(trecho);
+    List<String> encontrados = porPrefixo.apply(padrao + "%", limite);
+    if (encontrados.size() >= limite) {
+      return encontrados;
+    }
+    // Os que começam com o trecho também o contêm: pede a mais para compensar as repetições
+    Set<String> resultado = new LinkedHashSet<>(encontrados);
+    for (String valor : contendo.apply("%" + padrao + "%", limite + encontrados.size())) {
+      if (resultado.size() == limite) {
+        break;
+      }
+      resultado.add(valor);
+    }
+    return new ArrayList<>(resultado);
+  }
+
+  private static String escaparLike(String valor) {
+    return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  private int tamanhoPagina(Integer tamanho) {
+    if (tamanho == null) {
+      return tamanhoPadraoPagina;
+    }
+    if (tamanho < 1 || tamanho > tamanhoMaximoPagina) {
+      throw new IllegalArgumentException(
+          "O tamanho da página deve estar entre 1 e " + tamanhoMaximoPagina);
+    }
+    return tamanho;
+  }
+
+  /**
+   * Cada consulta pede uma linha a mais que o tamanho da página; se ela vier, há próxima página
+   * e o cursor aponta para o último crédito entregue.
+   */
+  private PaginaCreditosDTO montarPagina(List<LinhaPaginaCredito> linhas, int limite) {
+    boolean possuiMais = linhas.size() > limite;
+    List<LinhaPaginaCredito> pagina = possuiMais ? linhas.subList(0, limite) : linhas;
+    String proximoCursor =
+        possuiMais ? CursorPagina.de(pagina.get(pagina.size() - 1)).codificar() : null;
+    return PaginaCreditosDTO.builder()
+        .creditos(pagina.stream().map(LinhaPaginaCredito::credito).toList())
+        .proximoCursor(proximoCursor).possuiMais(possuiMais).build();
+  }
+
+  private static Set<String> normalizarChaves(Collection<String> chaves) {
+    Set<String> normalizadas = new LinkedHashSet<>();
+    if (chaves != null) {
+      chaves.stream().filter(c -> c != null && !c.isBlank()).map(String::trim)
+          .forEach(normalizadas::add);
+    }
+    return normalizadas;
   }
 
 }
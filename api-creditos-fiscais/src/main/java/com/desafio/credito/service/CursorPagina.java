@@ -0,0 +1,42 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.repository.LinhaPaginaCredito;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição do último crédito entregue em uma página, na ordem (data_constituicao DESC, id DESC).
+ *
+ * Trafega para o cliente como texto base64url opaco; o formato interno pode mudar sem quebrar
+ * quem apenas devolve o valor recebido.
+ */
+public record CursorPagina(LocalDate dataConstituicao, long id) {
+
+  private static final String VERSAO = "v1";
+
+  public static CursorPagina de(LinhaPaginaCredito linha) {
+    return new CursorPagina(linha.credito().getDataConstituicao(), linha.id());
+  }
+
+  public String codificar() {
+    String valor = VERSAO + ":" + dataConstituicao + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static CursorPagina decodificar(String cursor) {
+    try {
+      String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] partes = valor.split(":");
+      if (partes.length == 3 && VERSAO.equals(partes[0])) {
+        return new CursorPagina(LocalDate.parse(partes[1]), Long.parseLong(partes[2]));
+      }
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      // base64, data ou id malformados: tratados como cursor inválido abaixo
+    }
+    throw new IllegalArgumentException("Cursor de paginação inválido");
+  }
+}
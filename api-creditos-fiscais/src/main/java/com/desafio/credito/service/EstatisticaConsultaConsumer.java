@@ -0,0 +1,112 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.event.CreditoConsultaEvent;
+import com.desafio.credito.repository.EstatisticaConsultaRepository;
+import com.desafio.credito.repository.EstatisticaConsultaRepository.Incremento;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consome os eventos de auditoria e mantém os contadores de consultas por usuário, NFS-e, número
+ * de crédito e status.
+ *
+ * Cada lote entregue pelo Kafka é agregado em memória antes de ir ao banco, então milhares de
+ * eventos da mesma chave viram um único upsert. O offset só é confirmado depois da gravação: se
+ * ela falhar, o lote é entregue de novo (entrega ao menos uma vez).
+ */
+@Slf4j
+@Component
+public class EstatisticaConsultaConsumer {
+
+  private final EstatisticaConsultaRepository repository;
+  private final Timer gravacao;
+  private final DistributionSummary tamanhoLote;
+  private final Counter invalidos;
+
+  public EstatisticaConsultaConsumer(EstatisticaConsultaRepository repository,
+      MeterRegistry registry) {
+    this.repository = repository;
+    this.gravacao = Timer.builder("creditos.estatisticas.gravacao")
+        .description("Tempo de gravação de um lote de contadores de consulta").register(registry);
+    this.tamanhoLote = DistributionSummary.builder("creditos.estatisticas.lote")
+        .description("Eventos de auditoria por lote consumido").register(registry);
+    this.invalidos = Counter.builder("creditos.estatisticas.invalidos")
+        .description("Eventos de auditoria ignorados por não poderem ser lidos")
+        .register(registry);
+  }
+
+  @KafkaListener(id = "estatisticas-consulta", topics = "${spring.kafka.topic.credito-audit}",
+      groupId = "${app.estatisticas.group-id:creditos-estatisticas}",
+      containerFactory = "estatisticasListenerFactory",
+      autoStartup = "${app.estatisticas.habilitado:true}")
+  public void consumir(List<ConsumerRecord<String, CreditoConsultaEvent>> registros,
+      Acknowledgment ack) {
+    tamanhoLote.record(registros.size());
+    Collection<Incremento> incrementos = agregar(registros);
+    gravacao.record(() -> repository.somar(incrementos));
+    ack.acknowledge();
+    log.debug("Lote de auditoria consolidado: eventos={}, linhas={}", registros.size(),
+        incrementos.size());
+  }
+
+  Collection<Incremento> agregar(List<ConsumerRecord<String, CreditoConsultaEvent>> registros) {
+    Map<Chave, Acumulador> porChave = new HashMap<>();
+    for (ConsumerRecord<String, CreditoConsultaEvent> registro : registros) {
+      CreditoConsultaEvent evento = registro.value();
+      // Valor nulo: o ErrorHandlingDeserializer não conseguiu ler o registro
+      if (evento == null || evento.getStatus() == null) {
+        invalidos.increment();
+        log.warn("Evento de auditoria ignorado: partition={}, offset={}", registro.partition(),
+            registro.offset());
+        continue;
+      }
+      Chave chave = new Chave(vazioSeNulo(evento.getUsuario()),
+          vazioSeNulo(evento.getNumeroNfse()), vazioSeNulo(evento.getNumeroCredito()),
+          evento.getStatus().name());
+      porChave.computeIfAbsent(chave, c -> new Acumulador()).somar(evento);
+    }
+    return porChave.entrySet().stream().map(e -> e.getValue().incremento(e.getKey())).toList();
+  }
+
+  private static String vazioSeNulo(String valor) {
+    return valor != null ? valor : "";
+  }
+
+  private record Chave(String usuario, String numeroNfse, String numeroCredito, String status) {
+  }
+
+  private static final class Acumulador {
+    private long quantidade;
+    private long resultados;
+    private LocalDateTime ultimaConsulta;
+
+    void somar(CreditoConsultaEvent evento) {
+      quantidade++;
+      if (evento.getQuantidadeResultados() != null) {
+        resultados += evento.getQuantidadeResultados();
+      }
+      LocalDateTime dataHora = evento.getDataHoraConsulta();
+      if (dataHora != null && (ultimaConsulta == null || dataHora.isAfter(ultimaConsulta))) {
+        ultimaConsulta = dataHora;
+      }
+    }
+
+    Incremento incremento(Chave chave) {
+      return new Incremento(chave.usuario(), chave.numeroNfse(), chave.numeroCredito(),
+          chave.status(), quantidade, resultados, ultimaConsulta);
+    }
+  }
+}
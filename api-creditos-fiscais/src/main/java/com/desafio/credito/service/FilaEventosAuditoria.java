@@ -0,0 +1,214 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.FilaAuditoriaEstatisticasDTO;
+import com.desafio.credito.event.CreditoConsultaEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Fila limitada de eventos de auditoria, esvaziada em lotes por uma thread dedicada.
+ *
+ * A thread da requisição só enfileira; quem fala com o Kafka (e pode ficar bloqueado esperando
+ * metadados do broker) é o remetente. Com a fila cheia vale a {@link PoliticaTransbordo}.
+ * Eventos enfileirados antes de {@link #iniciar()} esperam o remetente; depois de
+ * {@link #parar(Duration)} são recusados e contados como descartados.
+ */
+@Slf4j
+class FilaEventosAuditoria {
+
+  private static final long ESPERA_POR_EVENTO_MS = 200;
+
+  private final BlockingQueue<CreditoConsultaEvent> fila;
+  private final int capacidade;
+  private final int tamanhoLote;
+  private final PoliticaTransbordo politica;
+  private final Duration esperaMaxima;
+  private final Consumer<List<CreditoConsultaEvent>> remetente;
+  private final ThreadFactory threadFactory;
+
+  private final LongAdder enfileirados = new LongAdder();
+  private final LongAdder descartados = new LongAdder();
+  private final LongAdder enviados = new LongAdder();
+  private final LongAdder falhas = new LongAdder();
+  private final LongAdder latenciaTotalNanos = new LongAdder();
+  private final AtomicLong latenciaMaximaNanos = new AtomicLong();
+
+  private volatile boolean ativa;
+  private volatile boolean encerrada;
+  private Thread thread;
+
+  FilaEventosAuditoria(int capacidade, int tamanhoLote, PoliticaTransbordo politica,
+      Duration esperaMaxima, Consumer<List<CreditoConsultaEvent>> remetente) {
+    this(capacidade, tamanhoLote, politica, esperaMaxima, remetente,
+        Thread.ofPlatform().name("auditoria-remetente").daemon().factory());
+  }
+
+  FilaEventosAuditoria(int capacidade, int tamanhoLote, PoliticaTransbordo politica,
+      Duration esperaMaxima, Consumer<List<CreditoConsultaEvent>> remetente,
+      ThreadFactory threadFactory) {
+    this.threadFactory = threadFactory;
+    this.fila = new ArrayBlockingQueue<>(capacidade);
+    this.capacidade = capacidade;
+    this.tamanhoLote = tamanhoLote;
+    this.politica = politica;
+    this.esperaMaxima = esperaMaxima;
+    this.remetente = remetente;
+  }
+
+  /**
+   * @return false se o evento foi descartado por falta de espaço ou porque a fila foi encerrada
+   */
+  boolean enfileirar(CreditoConsultaEvent evento) {
+    boolean aceito = !encerrada && switch (politica) {
+      case DESCARTAR_MAIS_NOVO -> fila.offer(evento);
+      case DESCARTAR_MAIS_ANTIGO -> enfileirarDescartandoAntigos(evento);
+      case BLOQUEAR -> enfileirarComEspera(evento);
+    };
+    if (aceito && encerrada && fila.remove(evento)) {
+      // Entrou depois de parar() esvaziar a fila: ninguém mais o enviaria
+      aceito = false;
+    }
+    if (aceito) {
+      enfileirados.increment();
+    } else {
+      descartados.increment();
+    }
+    return aceito;
+  }
+
+  private boolean enfileirarDescartandoAntigos(CreditoConsultaEvent evento) {
+    while (!fila.offer(evento)) {
+      if (fila.poll() != null) {
+        descartados.increment();
+      }
+    }
+    return true;
+  }
+
+  private boolean enfileirarComEspera(CreditoConsultaEvent evento) {
+    try {
+      return fila.offer(evento, esperaMaxima.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  synchronized void iniciar() {
+    if (ativa || encerrada) {
+      return;
+    }
+    ativa = true;
+    thread = threadFactory.newThread(this::esvaziar);
+    thread.start();
+  }
+
+  /**
+   * Para de aceitar eventos e espera o remetente esvaziar a fila, até o prazo. O que ainda
+   * estiver na fila depois dele é contado como descartado.
+   */
+  synchronized void parar(Duration prazo) {
+    if (encerrada) {
+      return;
+    }
+    encerrada = true;
+    if (ativa) {
+      ativa = false;
+      try {
+        thread.join(prazo.toMillis());
+        if (thread.isAlive()) {
+          thread.interrupt();
+          thread.join(ESPERA_POR_EVENTO_MS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    List<CreditoConsultaEvent> restantes = new ArrayList<>();
+    fila.drainTo(restantes);
+    if (!restantes.isEmpty()) {
+      descartados.add(restantes.size());
+      log.warn("Encerramento da fila de auditoria expirou; {} evento(s) descartados",
+          restantes.size());
+    }
+  }
+
+  boolean isAtiva() {
+    return ativa;
+  }
+
+  int profundidade() {
+    return fila.size();
+  }
+
+  long totalEnfileirados() {
+    return enfileirados.sum();
+  }
+
+  long totalDescartados() {
+    return descartados.sum();
+  }
+
+  private void esvaziar() {
+    List<CreditoConsultaEvent> lote = new ArrayList<>(tamanhoLote);
+    while (ativa || !fila.isEmpty()) {
+      try {
+        CreditoConsultaEvent primeiro = fila.poll(ESPERA_POR_EVENTO_MS, TimeUnit.MILLISECONDS);
+        if (primeiro == null) {
+          continue;
+        }
+        lote.add(primeiro);
+        fila.drainTo(lote, tamanhoLote - 1);
+        remetente.accept(lote);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        falhas.add(lote.size());
+        log.error("Falha ao enviar lote de {} evento(s) de auditoria", lote.size(), e);
+      } finally {
+        lote.clear();
+      }
+    }
+  }
+
+  /**
+   * Registra o resultado de um envio, medido do {@code send} até a confirmação do broker.
+   */
+  void registrarEnvio(long latenciaNanos, boolean sucesso) {
+    if (sucesso) {
+      enviados.increment();
+    } else {
+      falhas.increment();
+    }
+    latenciaTotalNanos.add(latenciaNanos);
+    latenciaMaximaNanos.accumulateAndGet(latenciaNanos, Math::max);
+  }
+
+  /**
+   * Conta como falha os eventos de um lote que nem chegaram ao {@code send}.
+   */
+  void registrarFalhas(int quantidade) {
+    falhas.add(quantidade);
+  }
+
+  FilaAuditoriaEstatisticasDTO estatisticas(boolean assincrono) {
+    long concluidos = enviados.sum() + falhas.sum();
+    double media = concluidos == 0 ? 0 : latenciaTotalNanos.sum() / (double) concluidos;
+    return FilaAuditoriaEstatisticasDTO.builder().assincrono(assincrono).capacidade(capacidade)
+        .profundidade(fila.size()).enfileirados(enfileirados.sum())
+        .descartados(descartados.sum()).enviados(enviados.sum()).falhas(falhas.sum())
+        .latenciaMediaMs(media / 1_000_000d)
+        .latenciaMaximaMs(latenciaMaximaNanos.get() / 1_000_000d).build();
+  }
+}
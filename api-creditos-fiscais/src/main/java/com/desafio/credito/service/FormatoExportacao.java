@@ -0,0 +1,32 @@
+package com.desafio.credito.service;
+
+import java.util.Arrays;
+
+/**
+ * Formato de arquivo da exportação e da importação de créditos.
+ */
+public enum FormatoExportacao {
+  NDJSON("application/x-ndjson", "ndjson"), CSV("text/csv", "csv");
+
+  private final String contentType;
+  private final String extensao;
+
+  FormatoExportacao(String contentType, String extensao) {
+    this.contentType = contentType;
+    this.extensao = extensao;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getExtensao() {
+    return extensao;
+  }
+
+  public static FormatoExportacao deValor(String valor) {
+    return Arrays.stream(values()).filter(f -> f.name().equalsIgnoreCase(valor)).findFirst()
+        .orElseThrow(() -> new IllegalArgumentException(
+            "Formato inválido: " + valor + ". Use ndjson ou csv"));
+  }
+}
@@ -0,0 +1,19 @@
+package com.desafio.credito.service;
+
+import java.util.Arrays;
+
+/**
+ * Forma de gravação dos créditos importados.
+ */
+public enum MetodoImportacao {
+  /** INSERTs do Hibernate agrupados em batch (passa pelo mapeamento JPA). */
+  INSERT,
+  /** {@code COPY FROM STDIN} do PostgreSQL: mais rápido para arquivos grandes. */
+  COPY;
+
+  public static MetodoImportacao deValor(String valor) {
+    return Arrays.stream(values()).filter(m -> m.name().equalsIgnoreCase(valor)).findFirst()
+        .orElseThrow(() -> new IllegalArgumentException(
+            "Método de importação inválido: " + valor + ". Use insert ou copy"));
+  }
+}
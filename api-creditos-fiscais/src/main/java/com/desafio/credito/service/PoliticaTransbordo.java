@@ -0,0 +1,13 @@
+package com.desafio.credito.service;
+
+/**
+ * O que fazer com um evento de auditoria quando a fila de envio está cheia.
+ */
+public enum PoliticaTransbordo {
+  /** Espera vaga por até {@code app.auditoria.fila.espera-maxima}; depois descarta o evento. */
+  BLOQUEAR,
+  /** Remove o evento mais antigo da fila para abrir espaço. */
+  DESCARTAR_MAIS_ANTIGO,
+  /** Descarta o evento que está chegando. */
+  DESCARTAR_MAIS_NOVO
+}
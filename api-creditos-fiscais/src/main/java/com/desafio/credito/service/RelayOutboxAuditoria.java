@@ -0,0 +1,216 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.event.CreditoConsultaEvent;
+import com.desafio.credito.event.CreditoConsultaEventCodec;
+import com.desafio.credito.repository.AuditoriaOutboxRepository;
+import com.desafio.credito.repository.AuditoriaOutboxRepository.RegistroOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica no Kafka os eventos gravados em {@code auditoria_outbox}.
+ *
+ * Cada ciclo reserva um lote de linhas por {@code app.auditoria.outbox.reserva} num comando já
+ * confirmado, envia todos os eventos sem esperar um a um e aguarda as confirmações do broker sem
+ * transação nem conexão abertas. Depois apaga as linhas confirmadas e libera as que falharam; as
+ * que ficaram sem resposta voltam a ser lidas quando a reserva vencer. A entrega é ao menos uma
+ * vez. Várias instâncias podem rodar o relay ao mesmo tempo, cada uma com lotes diferentes.
+ *
+ * Os envios de um lote param no primeiro que falha já no {@code send} (broker sem metadados) ou
+ * quando não sobra tempo para esperar as confirmações dentro da reserva; as linhas não enviadas
+ * são liberadas.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.auditoria.outbox.habilitado", havingValue = "true")
+public class RelayOutboxAuditoria implements SmartLifecycle {
+
+  /** O count(*) do outbox cresce com o backlog: roda no relay, não a cada scrape. */
+  private static final long INTERVALO_CONTAGEM_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+  private final AuditoriaOutboxRepository outbox;
+  private final KafkaTemplate<String, CreditoConsultaEvent> kafkaTemplate;
+  private final String auditTopicName;
+  private final int tamanhoLote;
+  private final Duration intervalo;
+  private final Duration esperaConfirmacao;
+  private final Duration reserva;
+  private final Thread.Builder construtorThread;
+  private final Counter publicados;
+
+  private volatile boolean ativo;
+  private volatile long pendentes;
+  private long proximaContagem;
+  private Thread thread;
+
+  public RelayOutboxAuditoria(AuditoriaOutboxRepository outbox,
+      KafkaTemplate<String, CreditoConsultaEvent> kafkaTemplate,
+      @Value("${spring.kafka.topic.credito-audit}") String auditTopicName,
+      @Value("${app.auditoria.outbox.tamanho-lote:1000}") int tamanhoLote,
+      @Value("${app.auditoria.outbox.intervalo:500ms}") Duration intervalo,
+      @Value("${app.auditoria.outbox.espera-confirmacao:30s}") Duration esperaConfirmacao,
+      @Value("${app.auditoria.outbox.reserva:2m}") Duration reserva,
+      @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais,
+      MeterRegistry registry) {
+    this.outbox = outbox;
+    this.kafkaTemplate = kafkaTemplate;
+    this.auditTopicName = auditTopicName;
+    this.tamanhoLote = tamanhoLote;
+    this.intervalo = intervalo;
+    if (reserva.compareTo(esperaConfirmacao) <= 0) {
+      // Senão outra instância relê o lote enquanto este ainda espera as confirmações
+      throw new IllegalArgumentException(
+          "app.auditoria.outbox.reserva deve ser maior que app.auditoria.outbox.espera-confirmacao");
+    }
+    this.esperaConfirmacao = esperaConfirmacao;
+    this.reserva = reserva;
+    this.proximaContagem = System.nanoTime();
+    this.construtorThread = (threadsVirtuais ? Thread.ofVirtual() : Thread.ofPlatform().daemon())
+        .name("auditoria-outbox-relay");
+    this.publicados = Counter.builder("creditos.auditoria.outbox.publicados")
+        .description("Eventos do outbox confirmados pelo Kafka").register(registry);
+    Gauge.builder("creditos.auditoria.outbox.pendentes", this, RelayOutboxAuditoria::pendentes)
+        .description("Eventos gravados no outbox e ainda não publicados (contados pelo relay)")
+        .register(registry);
+  }
+
+  /**
+   * Publica um lote do outbox e devolve quantos eventos foram confirmados.
+   */
+  int publicarLote() {
+    // Enviar depois deste limite deixaria a espera pelas confirmações passar da reserva
+    long limiteEnvio = System.nanoTime() + reserva.minus(esperaConfirmacao).toNanos();
+    List<RegistroOutbox> registros = outbox.reservar(tamanhoLote, reserva);
+    if (registros.isEmpty()) {
+      return 0;
+    }
+    List<CompletableFuture<?>> envios = new ArrayList<>(registros.size());
+    for (RegistroOutbox registro : registros) {
+      if (System.nanoTime() - limiteEnvio >= 0) {
+        log.warn("Prazo da reserva do outbox esgotado; {} evento(s) não enviados neste lote",
+            registros.size() - envios.size());
+        break;
+      }
+      CompletableFuture<?> envio = kafkaTemplate.send(auditTopicName, registro.chave(),
+          CreditoConsultaEventCodec.decodificar(registro.payload()));
+      envios.add(envio);
+      if (envio.isCompletedExceptionally()) {
+        // Falhou no próprio send: os demais ficariam bloqueados pelo mesmo max.block.ms
+        break;
+      }
+    }
+    try {
+      CompletableFuture.allOf(envios.toArray(CompletableFuture[]::new))
+          .get(esperaConfirmacao.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      // Apaga o que já foi confirmado; o laço principal encerra em seguida
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      log.warn("Lote do outbox de auditoria publicado parcialmente: {}", e.toString());
+    }
+
+    List<Long> confirmados = new ArrayList<>();
+    List<Long> falhos = new ArrayList<>();
+    for (int i = 0; i < registros.size(); i++) {
+      if (i >= envios.size()) {
+        // Não enviado: liberado para o próximo ciclo
+        falhos.add(registros.get(i).id());
+        continue;
+      }
+      CompletableFuture<?> envio = envios.get(i);
+      if (envio.isDone()) {
+        (envio.isCompletedExceptionally() ? falhos : confirmados).add(registros.get(i).id());
+      }
+      // Sem resposta ainda: fica reservado e volta a ser lido quando a reserva vencer
+    }
+    if (!confirmados.isEmpty()) {
+      outbox.excluir(confirmados);
+    }
+    if (!falhos.isEmpty()) {
+      outbox.liberar(falhos);
+    }
+    publicados.increment(confirmados.size());
+    return confirmados.size();
+  }
+
+  long pendentes() {
+    return pendentes;
+  }
+
+  /**
+   * Atualiza a contagem de pendentes exposta na métrica, no máximo a cada 15 segundos.
+   */
+  void contarPendentes() {
+    long agora = System.nanoTime();
+    if (agora - proximaContagem < 0) {
+      return;
+    }
+    pendentes = outbox.pendentes();
+    proximaContagem = agora + INTERVALO_CONTAGEM_NANOS;
+  }
+
+  private void executar() {
+    while (ativo) {
+      try {
+        contarPendentes();
+        // Lote cheio: provavelmente há mais na fila, segue sem esperar
+        if (publicarLote() < tamanhoLote) {
+          Thread.sleep(intervalo.toMillis());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        log.error("Erro no relay do outbox de auditoria; nova tentativa em {}", intervalo, e);
+        try {
+          Thread.sleep(intervalo.toMillis());
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    if (!ativo) {
+      ativo = true;
+      thread = construtorThread.start(this::executar);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    ativo = false;
+    if (thread != null) {
+      thread.interrupt();
+      try {
+        thread.join(esperaConfirmacao.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      thread = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return ativo;
+  }
+}
@@ -1,52 +1,96 @@
 package com.desafio.credito.service;
 
+import com.desafio.credito.config.JwtPrincipalCache;
 import com.desafio.credito.entity.Usuario;
 import com.desafio.credito.repository.UsuarioRepository;
 import com.desafio.credito.dto.UsuarioDTO;
 import com.desafio.credito.dto.UsuarioRequestDTO;
 import com.desafio.credito.mapper.UsuarioMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UsuarioService {
   private final UsuarioRepository usuarioRepository;
-  private final PasswordEncoder passwordEncoder;
+  private final CodificadorSenhas codificadorSenhas;
   private final UsuarioMapper usuarioMapper;
+  private final JwtPrincipalCache principalCache;
+  private Set<String> administradores = Set.of();
+
+  /**
+   * Logins com papel ADMIN ({@code SecurityConfig}). O papel vem só do login, então eles não
+   * podem ser cadastrados pelo {@code POST /usuarios}, que é aberto: são criados direto no banco.
+   */
+  @Value("${app.seguranca.administradores:}")
+  void setAdministradores(Set<String> administradores) {
+    this.administradores = administradores.stream().map(String::trim)
+        .filter(login -> !login.isEmpty()).collect(Collectors.toUnmodifiableSet());
+  }
 
   public UsuarioDTO salvar(UsuarioRequestDTO usuarioRequestDTO) {
-    if (usuarioRepository.findByLogin(usuarioRequestDTO.getLogin()).isPresent()) {
+    // Mesma resposta de um login existente: não revela quais logins são administradores
+    if (administradores.contains(usuarioRequestDTO.getLogin())
+        || usuarioRepository.findByLogin(usuarioRequestDTO.getLogin()).isPresent()) {
       throw new IllegalArgumentException("Login já está em uso");
     }
     Usuario usuario = usuarioMapper.toEntity(usuarioRequestDTO);
-    usuario.setSenha(passwordEncoder.encode(usuario.getSenha()));
+    usuario.setSenha(codificadorSenhas.codificar(usuario.getSenha()));
     Usuario salvo = usuarioRepository.save(usuario);
     return usuarioMapper.toDTO(salvo);
   }
 
+  @Transactional(readOnly = true)
   public Optional<Usuario> buscarPorId(Long id) {
     return usuarioRepository.findById(id);
   }
 
+  @Transactional(readOnly = true)
   public Optional<Usuario> buscarPorLogin(String login) {
     return usuarioRepository.findByLogin(login);
   }
 
+  @Transactional(readOnly = true)
   public List<Usuario> listarTodos() {
     return usuarioRepository.findAll();
   }
 
   public void deletar(Long id) {
+    // Tokens já verificados do usuário deixam de autenticar imediatamente
+    usuarioRepository.findById(id)
+        .ifPresent(usuario -> principalCache.invalidarUsuario(usuario.getLogin()));
     usuarioRepository.deleteById(id);
   }
 
   public Optional<Usuario> autenticar(String login, String senha) {
-    return usuarioRepository.findByLogin(login)
-        .filter(usuario -> passwordEncoder.matches(senha, usuario.getSenha()));
+    Optional<Usuario> autenticado = usuarioRepository.findByLogin(login)
+        .filter(usuario -> codificadorSenhas.conferir(senha, usuario.getSenha()));
+    autenticado.filter(usuario -> codificadorSenhas.precisaRecodificar(usuario.getSenha()))
+        .ifPresent(usuario -> recodificar(usuario, senha));
+    return autenticado;
+  }
+
+  /**
+   * Refaz, fora da requisição, o hash gerado com custo menor que o configurado. Se o pool estiver
+   * saturado fica para um próximo login.
+   */
+  private void recodificar(Usuario usuario, String senha) {
+    String hashAtual = usuario.getSenha();
+    codificadorSenhas.codificarDepois(senha, novoHash -> {
+      try {
+        usuarioRepository.atualizarSenha(usuario.getId(), hashAtual, novoHash);
+      } catch (Exception e) {
+        log.warn("Falha ao atualizar o hash da senha do usuário {}", usuario.getLogin(), e);
+      }
+    });
   }
 }
@@ -0,0 +1,12 @@
+-- Índices da versão (V10), com CONCURRENTLY e fora de transação (ver .conf)
+
+-- ETag por NFS-e: count + max(versao) respondidos só pelo índice (index-only scan)
+CREATE INDEX CONCURRENTLY idx_credito_nfse_versao ON credito (numero_nfse, versao);
+
+-- ETag por número: a chave única passa a cobrir também a versão. O novo índice é construído ao
+-- lado do antigo, que só sai depois; a unicidade vale o tempo todo
+CREATE UNIQUE INDEX CONCURRENTLY uk_credito_numero_credito_versao ON credito (numero_credito) INCLUDE (id, versao);
+DROP INDEX CONCURRENTLY uk_credito_numero_credito;
+ALTER INDEX uk_credito_numero_credito_versao RENAME TO uk_credito_numero_credito;
+
+ANALYZE credito;
@@ -0,0 +1,21 @@
+-- Versão de cada linha de crédito, base das ETags das consultas (GET condicional)
+-- Valores de uma sequence global: qualquer INSERT ou UPDATE gera uma versão maior que todas as
+-- anteriores, então (count, max(versao)) de uma NFS-e muda sempre que algum crédito dela muda.
+CREATE SEQUENCE credito_versao_seq;
+
+-- As linhas existentes ficam com versão 0 sem reescrever a tabela (default constante é só
+-- metadado). Basta para as ETags: toda alteração posterior gera uma versão maior que 0, e as
+-- exclusões mudam o count. Os novos créditos recebem valores da sequence
+ALTER TABLE credito ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE credito ALTER COLUMN versao SET DEFAULT nextval('credito_versao_seq');
+
+-- UPDATEs feitos pela aplicação ou direto no banco: a versão não depende de quem altera
+CREATE FUNCTION credito_nova_versao() RETURNS trigger AS $$
+BEGIN
+    NEW.versao := nextval('credito_versao_seq');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_credito_versao BEFORE UPDATE ON credito
+    FOR EACH ROW EXECUTE FUNCTION credito_nova_versao();
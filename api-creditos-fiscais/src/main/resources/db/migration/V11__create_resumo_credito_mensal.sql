@@ -0,0 +1,72 @@
+-- Totais de crédito por (mês de constituição, tipo, Simples Nacional), base dos endpoints de resumo
+-- Mantida por triggers de instrução: cada INSERT/UPDATE/DELETE em credito soma apenas a diferença
+-- das linhas afetadas, sem reprocessar a tabela. Linhas com quantidade 0 ficam até voltarem a ser
+-- usadas; as consultas as ignoram.
+CREATE TABLE resumo_credito_mensal (
+    mes DATE NOT NULL,
+    tipo_credito VARCHAR(50) NOT NULL,
+    simples_nacional BOOLEAN NOT NULL,
+    quantidade BIGINT NOT NULL,
+    valor_issqn NUMERIC(20, 2) NOT NULL,
+    valor_faturado NUMERIC(20, 2) NOT NULL,
+    base_calculo NUMERIC(20, 2) NOT NULL,
+    PRIMARY KEY (mes, tipo_credito, simples_nacional)
+);
+
+INSERT INTO resumo_credito_mensal
+SELECT date_trunc('month', data_constituicao)::date, tipo_credito, simples_nacional, count(*),
+       sum(valor_issqn), sum(valor_faturado), sum(base_calculo)
+FROM credito
+GROUP BY 1, 2, 3;
+
+-- Uma execução por instrução (inclusive COPY e INSERTs em lote), com as linhas afetadas nas
+-- tabelas de transição novos/antigos. A diferença é agrupada por chave e gravada em ordem de chave,
+-- para que instruções concorrentes sobre as mesmas linhas não entrem em deadlock.
+CREATE FUNCTION resumo_credito_aplicar() RETURNS trigger AS $$
+DECLARE
+    linhas TEXT := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT 1 AS sinal, * FROM novos'
+        WHEN 'DELETE' THEN 'SELECT -1 AS sinal, * FROM antigos'
+        ELSE 'SELECT 1 AS sinal, * FROM novos UNION ALL SELECT -1, * FROM antigos'
+    END;
+BEGIN
+    EXECUTE format($sql$
+        INSERT INTO resumo_credito_mensal AS r
+        SELECT date_trunc('month', d.data_constituicao)::date, d.tipo_credito, d.simples_nacional,
+               sum(d.sinal), sum(d.sinal * d.valor_issqn), sum(d.sinal * d.valor_faturado),
+               sum(d.sinal * d.base_calculo)
+        FROM (%s) d
+        GROUP BY 1, 2, 3
+        ORDER BY 1, 2, 3
+        ON CONFLICT (mes, tipo_credito, simples_nacional) DO UPDATE SET
+            quantidade = r.quantidade + EXCLUDED.quantidade,
+            valor_issqn = r.valor_issqn + EXCLUDED.valor_issqn,
+            valor_faturado = r.valor_faturado + EXCLUDED.valor_faturado,
+            base_calculo = r.base_calculo + EXCLUDED.base_calculo
+    $sql$, linhas);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Tabelas de transição exigem um trigger por evento
+CREATE TRIGGER trg_resumo_credito_insert AFTER INSERT ON credito
+    REFERENCING NEW TABLE AS novos
+    FOR EACH STATEMENT EXECUTE FUNCTION resumo_credito_aplicar();
+
+CREATE TRIGGER trg_resumo_credito_update AFTER UPDATE ON credito
+    REFERENCING OLD TABLE AS antigos NEW TABLE AS novos
+    FOR EACH STATEMENT EXECUTE FUNCTION resumo_credito_aplicar();
+
+CREATE TRIGGER trg_resumo_credito_delete AFTER DELETE ON credito
+    REFERENCING OLD TABLE AS antigos
+    FOR EACH STATEMENT EXECUTE FUNCTION resumo_credito_aplicar();
+
+CREATE FUNCTION resumo_credito_truncar() RETURNS trigger AS $$
+BEGIN
+    TRUNCATE resumo_credito_mensal;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_resumo_credito_truncate AFTER TRUNCATE ON credito
+    FOR EACH STATEMENT EXECUTE FUNCTION resumo_credito_truncar();
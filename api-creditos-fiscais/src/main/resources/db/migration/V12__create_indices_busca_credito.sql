@@ -0,0 +1,14 @@
+-- Busca parcial por NFS-e e número de crédito (GET /creditos/busca)
+-- Índices com CONCURRENTLY, fora de transação (ver .conf): a tabela segue aceitando escritas
+
+-- Prefixo: com collation "C" o LIKE 'abc%' vira um intervalo do índice, e a ordem do índice é a
+-- ordem da resposta; a consulta para no LIMIT sem ler as demais linhas do prefixo
+CREATE INDEX CONCURRENTLY idx_credito_nfse_prefixo ON credito (numero_nfse COLLATE "C");
+CREATE INDEX CONCURRENTLY idx_credito_numero_prefixo ON credito (numero_credito COLLATE "C");
+
+-- Trecho em qualquer posição (LIKE '%abc%'): índices de trigramas, a partir de 3 caracteres
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY idx_credito_nfse_trgm ON credito USING gin (numero_nfse gin_trgm_ops);
+CREATE INDEX CONCURRENTLY idx_credito_numero_trgm ON credito USING gin (numero_credito gin_trgm_ops);
+
+ANALYZE credito;
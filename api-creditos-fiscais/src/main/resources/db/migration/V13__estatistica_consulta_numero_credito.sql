@@ -0,0 +1,11 @@
+-- Consultas por número de crédito passam a ter contadores próprios, para que o aquecimento do
+-- cache também carregue os créditos mais consultados. As linhas existentes (e as consultas por
+-- NFS-e) ficam com numero_credito = ''
+ALTER TABLE estatistica_consulta ADD COLUMN numero_credito VARCHAR(50) NOT NULL DEFAULT '';
+
+ALTER TABLE estatistica_consulta DROP CONSTRAINT estatistica_consulta_pkey;
+ALTER TABLE estatistica_consulta
+    ADD PRIMARY KEY (usuario, numero_nfse, numero_credito, status);
+
+CREATE INDEX idx_estatistica_consulta_credito ON estatistica_consulta (numero_credito)
+    WHERE numero_credito <> '';
@@ -0,0 +1,4 @@
+-- O relay reserva o lote marcando as linhas até um prazo e confirma na hora, em vez de mantê-las
+-- bloqueadas (com transação e conexão abertas) enquanto espera o Kafka. Linhas com a reserva
+-- vencida, de um relay que caiu ou não recebeu a confirmação, voltam a ser lidas
+ALTER TABLE auditoria_outbox ADD COLUMN reservado_ate TIMESTAMPTZ;
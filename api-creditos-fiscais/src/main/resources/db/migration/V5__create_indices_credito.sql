@@ -0,0 +1,18 @@
+-- Índices criados com CONCURRENTLY: a tabela continua aceitando escritas durante a construção.
+-- Roda fora de transação (V5__create_indices_credito.sql.conf). Se falhar no meio, o índice fica
+-- INVALID: remova-o com DROP INDEX CONCURRENTLY e rode flyway repair antes de repetir.
+
+-- Chave primária: a tabela foi criada sem constraint em V1. O índice é construído antes; a
+-- constraint só o adota (id é identity, já NOT NULL, então não há varredura)
+CREATE UNIQUE INDEX CONCURRENTLY pk_credito ON credito (id);
+ALTER TABLE credito ADD CONSTRAINT pk_credito PRIMARY KEY USING INDEX pk_credito;
+
+-- findByNumeroCredito / existsByNumeroCredito
+-- INCLUDE (id) permite responder o existsBy com index-only scan
+CREATE UNIQUE INDEX CONCURRENTLY uk_credito_numero_credito ON credito (numero_credito) INCLUDE (id);
+
+-- findByNumeroNfse / buscarCreditosPorNfseOrdenados
+-- A ordem (data_constituicao DESC, id DESC) atende o ORDER BY sem etapa de sort
+CREATE INDEX CONCURRENTLY idx_credito_nfse_data ON credito (numero_nfse, data_constituicao DESC, id DESC);
+
+ANALYZE credito;
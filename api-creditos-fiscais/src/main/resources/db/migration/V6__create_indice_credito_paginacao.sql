@@ -0,0 +1,6 @@
+-- Paginação por cursor da listagem geral (buscarPagina / buscarPaginaApos)
+-- Mesma ordem do ORDER BY: a página seguinte começa direto na posição do cursor
+-- CONCURRENTLY, fora de transação (ver .conf): a tabela segue aceitando escritas
+CREATE INDEX CONCURRENTLY idx_credito_data_id ON credito (data_constituicao DESC, id DESC);
+
+ANALYZE credito;
@@ -0,0 +1,15 @@
+-- Contadores de consultas materializados a partir dos eventos de auditoria (tópico credito-audit)
+-- Uma linha por (usuário, NFS-e, status); chaves ausentes no evento são gravadas como ''
+CREATE TABLE estatistica_consulta (
+    usuario VARCHAR(100) NOT NULL,
+    numero_nfse VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    quantidade BIGINT NOT NULL,
+    quantidade_resultados BIGINT NOT NULL,
+    ultima_consulta TIMESTAMP,
+    atualizado_em TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (usuario, numero_nfse, status)
+);
+
+-- Consultas por NFS-e sem o usuário (prefixo da PK cobre as consultas por usuário)
+CREATE INDEX idx_estatistica_consulta_nfse ON estatistica_consulta (numero_nfse);
@@ -0,0 +1,9 @@
+-- Outbox dos eventos de auditoria (app.auditoria.outbox.habilitado)
+-- A requisição só insere; o relay lê em ordem de id, publica no Kafka e apaga as linhas enviadas
+CREATE TABLE auditoria_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    chave VARCHAR(50),
+    -- Evento no formato binário do tópico (CreditoConsultaEventCodec)
+    payload BYTEA NOT NULL,
+    criado_em TIMESTAMP NOT NULL DEFAULT now()
+);
@@ -0,0 +1,23 @@
+-- Ids de crédito alocados em blocos de 50 (allocationSize de Credito, otimizador pooled):
+-- um nextval atende 50 inserts, e o Hibernate volta a agrupar os INSERTs em batch.
+-- O bloco de um valor v é (v - 49 .. v); a importação via COPY usa a mesma regra.
+--
+-- A coluna deixa de ser IDENTITY (V1) e passa a usar uma sequência comum de mesmo nome: a
+-- sequência implícita de uma identidade não aparece em information_schema.sequences, e a
+-- validação do esquema do Hibernate não a encontraria. A nova sequência continua depois do último
+-- id entregue, já no primeiro bloco de 50.
+DO $$
+DECLARE
+    proximo BIGINT;
+BEGIN
+    SELECT greatest(CASE WHEN is_called THEN last_value + 50 ELSE last_value END,
+                    (SELECT coalesce(max(id), 0) + 50 FROM credito))
+    INTO proximo
+    FROM credito_id_seq;
+
+    ALTER TABLE credito ALTER COLUMN id DROP IDENTITY;
+    EXECUTE format('CREATE SEQUENCE credito_id_seq INCREMENT BY 50 START WITH %s', proximo);
+    ALTER SEQUENCE credito_id_seq OWNED BY credito.id;
+    ALTER TABLE credito ALTER COLUMN id SET DEFAULT nextval('credito_id_seq');
+END
+$$;
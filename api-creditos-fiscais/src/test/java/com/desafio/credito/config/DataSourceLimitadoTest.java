@@ -0,0 +1,56 @@
+package com.desafio.credito.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DataSourceLimitadoTest {
+
+  private DataSource alvo;
+  private Connection conexao;
+  private DataSourceLimitado dataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    alvo = mock(DataSource.class);
+    conexao = mock(Connection.class);
+    when(alvo.getConnection()).thenReturn(conexao);
+    dataSource = new DataSourceLimitado(alvo, 1, Duration.ofMillis(50));
+  }
+
+  @Test
+  void getConnection_deveFalhar_quandoLimiteAtingidoAposEsperaMaxima() throws SQLException {
+    dataSource.getConnection();
+
+    assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    verify(alvo, times(1)).getConnection();
+  }
+
+  @Test
+  void close_deveLiberarPermissaoUmaUnicaVez() throws SQLException {
+    Connection primeira = dataSource.getConnection();
+    primeira.close();
+    primeira.close();
+    assertEquals(1, dataSource.getPermissoesDisponiveis());
+
+    dataSource.getConnection();
+    assertEquals(0, dataSource.getPermissoesDisponiveis());
+    verify(conexao, times(2)).close();
+  }
+
+  @Test
+  void getConnection_deveDevolverPermissao_quandoAlvoFalhar() throws SQLException {
+    when(alvo.getConnection()).thenThrow(new SQLException("banco fora"));
+
+    assertThrows(SQLException.class, dataSource::getConnection);
+    assertEquals(1, dataSource.getPermissoesDisponiveis());
+  }
+}
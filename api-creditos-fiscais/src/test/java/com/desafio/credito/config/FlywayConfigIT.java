@@ -0,0 +1,62 @@
+package com.desafio.credito.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Roda todas as migrações, inclusive as de {@code CREATE INDEX CONCURRENTLY} fora de transação,
+ * com a configuração de {@link FlywayConfig}. Com o lock transacional a migração não termina:
+ * o CONCURRENTLY espera pela transação do próprio lock.
+ */
+@Testcontainers
+class FlywayConfigIT {
+
+  private static final List<String> INDICES_CONCORRENTES = List.of(
+      "pk_credito", "uk_credito_numero_credito", "idx_credito_nfse_data", "idx_credito_data_id",
+      "idx_credito_nfse_versao", "idx_credito_nfse_prefixo", "idx_credito_numero_prefixo",
+      "idx_credito_nfse_trgm", "idx_credito_numero_trgm");
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+  @Test
+  void migracoes_devemCriarIndicesConcorrentes_semTravarNoLockDoFlyway() {
+    FluentConfiguration configuracao = Flyway.configure()
+        .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    new FlywayConfig().flywayLockSessao().customize(configuracao);
+
+    MigrateResult resultado = assertTimeoutPreemptively(Duration.ofMinutes(2),
+        () -> configuracao.load().migrate());
+
+    assertTrue(resultado.success);
+    JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(),
+        postgres.getUsername(), postgres.getPassword()));
+    Map<String, Boolean> validos = jdbc.queryForList(
+            "SELECT i.relname AS nome, x.indisvalid AS valido FROM pg_index x "
+                + "JOIN pg_class i ON i.oid = x.indexrelid "
+                + "WHERE x.indrelid = 'credito'::regclass").stream()
+        .collect(Collectors.toMap(linha -> (String) linha.get("nome"),
+            linha -> (Boolean) linha.get("valido")));
+    for (String indice : INDICES_CONCORRENTES) {
+      assertEquals(Boolean.TRUE, validos.get(indice), indice);
+    }
+    assertFalse(validos.containsKey("uk_credito_numero_credito_versao"));
+    assertEquals(1, jdbc.queryForObject(
+        "SELECT count(*) FROM pg_constraint WHERE conname = 'pk_credito' AND contype = 'p'",
+        Integer.class));
+  }
+}
@@ -0,0 +1,108 @@
+package com.desafio.credito.config;
+
+import com.desafio.credito.entity.Usuario;
+import com.desafio.credito.service.UsuarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthFilterTest {
+
+  private JwtUtil jwtUtil;
+  private UsuarioService usuarioService;
+  private SecurityConfig.JwtAuthFilter filtro;
+  private SimpleMeterRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    jwtUtil = spy(new JwtUtil());
+    usuarioService = mock(UsuarioService.class);
+    JwtPrincipalCache cache = new JwtPrincipalCache(true, 100, Duration.ofMinutes(5));
+    registry = new SimpleMeterRegistry();
+    filtro = new SecurityConfig.JwtAuthFilter(jwtUtil, usuarioService, cache,
+        Set.of("admin", " "), registry);
+    when(usuarioService.buscarPorLogin("joao"))
+        .thenReturn(Optional.of(Usuario.builder().login("joao").build()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private Authentication executar(String token) throws Exception {
+    SecurityContextHolder.clearContext();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/creditos/7891011");
+    request.addHeader("Authorization", "Bearer " + token);
+    FilterChain chain = new MockFilterChain();
+    filtro.doFilter(request, new MockHttpServletResponse(), chain);
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+
+  @Test
+  void deveAutenticar_quandoTokenValido() throws Exception {
+    Authentication authentication = executar(jwtUtil.gerarToken("joao"));
+    assertNotNull(authentication);
+    assertEquals("joao", authentication.getName());
+  }
+
+  @Test
+  void deveConcederPapelAdmin_somenteAosLoginsConfigurados() throws Exception {
+    when(usuarioService.buscarPorLogin("admin"))
+        .thenReturn(Optional.of(Usuario.builder().login("admin").build()));
+    assertTrue(executar(jwtUtil.gerarToken("joao")).getAuthorities().isEmpty());
+    assertEquals("ROLE_ADMIN", executar(jwtUtil.gerarToken("admin")).getAuthorities().iterator()
+        .next().getAuthority());
+  }
+
+  @Test
+  void deveConsultarUsuarioEValidarAssinaturaUmaVez_quandoTokenRepetido() throws Exception {
+    String token = jwtUtil.gerarToken("joao");
+    executar(token);
+    Authentication segunda = executar(token);
+    assertEquals("joao", segunda.getName());
+    verify(usuarioService, times(1)).buscarPorLogin("joao");
+    verify(jwtUtil, times(1)).validar(token);
+  }
+
+  @Test
+  void naoDeveAutenticar_quandoTokenInvalido() throws Exception {
+    assertNull(executar("token.invalido.xyz"));
+    verify(usuarioService, never()).buscarPorLogin(anyString());
+    assertEquals(1,
+        registry.get("creditos.jwt.filtro").tag("resultado", "rejeitado").timer().count());
+  }
+
+  @Test
+  void deveRegistrarOsTimersNaCriacao_eReusarPorResultado() throws Exception {
+    assertEquals(3, registry.find("creditos.jwt.filtro").timers().size());
+    executar(jwtUtil.gerarToken("joao"));
+    executar(jwtUtil.gerarToken("joao"));
+    assertEquals(3, registry.find("creditos.jwt.filtro").timers().size());
+    assertEquals(2,
+        registry.get("creditos.jwt.filtro").tag("resultado", "autenticado").timer().count());
+    assertEquals(0,
+        registry.get("creditos.jwt.filtro").tag("resultado", "sem_token").timer().count());
+  }
+
+  @Test
+  void naoDeveAutenticar_quandoUsuarioNaoExiste() throws Exception {
+    when(usuarioService.buscarPorLogin("maria")).thenReturn(Optional.empty());
+    assertNull(executar(jwtUtil.gerarToken("maria")));
+  }
+}
@@ -0,0 +1,119 @@
+package com.desafio.credito.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteTaxaFilterTest {
+
+  private final AtomicLong agora = new AtomicLong();
+  private SimpleMeterRegistry registry;
+  private LimitadorTaxa limitador;
+  private LimiteTaxaFilter filtro;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    // Consulta: rajada de 3 e 1 requisição por segundo; transferência: 1 a cada 20 s
+    limitador = new LimitadorTaxa(true, 1000, Map.of(
+        RotaLimitada.CONSULTA, new LimitadorTaxa.Limite(3, 1),
+        RotaLimitada.LOTE, new LimitadorTaxa.Limite(1, 1),
+        RotaLimitada.TRANSFERENCIA, new LimitadorTaxa.Limite(1, 0.05)), agora::get);
+    filtro = new LimiteTaxaFilter(limitador, registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private MockHttpServletResponse executar(String metodo, String caminho, String ip)
+      throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest(metodo, caminho);
+    request.setRemoteAddr(ip);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filtro.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+  @Test
+  void deveAceitarRajadaERecusarCom429ERetryAfter_quandoBaldeEsvazia() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      assertEquals(200, executar("GET", "/creditos/7891011", "10.0.0.1").getStatus());
+    }
+    MockHttpServletResponse recusada = executar("GET", "/creditos/7891011", "10.0.0.1");
+    assertEquals(429, recusada.getStatus());
+    assertEquals("1", recusada.getHeader("Retry-After"));
+    assertEquals(1.0, registry.get("creditos.http.rejeicoes").tag("status", "429").counter()
+        .count());
+
+    // Outro IP tem balde próprio; o primeiro recupera um token depois de 1 s
+    assertEquals(200, executar("GET", "/creditos/7891011", "10.0.0.2").getStatus());
+    agora.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertEquals(200, executar("GET", "/creditos/7891011", "10.0.0.1").getStatus());
+    assertEquals(429, executar("GET", "/creditos/7891011", "10.0.0.1").getStatus());
+  }
+
+  @Test
+  void deveLimitarPorUsuarioEPorGrupoDeRota() throws Exception {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("joao", null, Collections.emptyList()));
+    assertEquals(200, executar("GET", "/creditos/exportacao", "10.0.0.1").getStatus());
+    // Mesmo usuário de outro IP: mesmo balde
+    MockHttpServletResponse recusada = executar("GET", "/creditos/exportacao", "10.0.0.9");
+    assertEquals(429, recusada.getStatus());
+    assertEquals("20", recusada.getHeader("Retry-After"));
+    // Consultas têm balde separado das transferências
+    assertEquals(200, executar("GET", "/creditos/credito/654321", "10.0.0.9").getStatus());
+  }
+
+  @Test
+  void naoDeveLimitarRotasForaDeCreditos() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      assertEquals(200, executar("GET", "/creditos/status", "10.0.0.1").getStatus());
+      assertEquals(200, executar("POST", "/usuarios/login", "10.0.0.1").getStatus());
+    }
+    assertNull(RotaLimitada.daRequisicao("GET", "/creditosx"));
+    assertEquals(RotaLimitada.LOTE, RotaLimitada.daRequisicao("POST", "/creditos/lote"));
+  }
+
+  @Test
+  void baldeDeveSerConsistenteSobConcorrencia() throws Exception {
+    LimitadorTaxa semReposicao = new LimitadorTaxa(true, 1000, Map.of(
+        RotaLimitada.CONSULTA, new LimitadorTaxa.Limite(500, 0.001),
+        RotaLimitada.LOTE, new LimitadorTaxa.Limite(1, 1),
+        RotaLimitada.TRANSFERENCIA, new LimitadorTaxa.Limite(1, 1)), agora::get);
+    AtomicLong aceitas = new AtomicLong();
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 200; i++) {
+          if (semReposicao.consumir(RotaLimitada.CONSULTA, "ip:10.0.0.1").isZero()) {
+            aceitas.incrementAndGet();
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(500, aceitas.get());
+    assertTrue(semReposicao.consumir(RotaLimitada.CONSULTA, "ip:10.0.0.1")
+        .compareTo(Duration.ofSeconds(999)) > 0);
+  }
+}
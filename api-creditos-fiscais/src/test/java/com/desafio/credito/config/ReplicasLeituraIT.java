@@ -0,0 +1,89 @@
+package com.desafio.credito.config;
+
+import com.desafio.credito.repository.UsuarioRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dois PostgreSQL independentes, com o mesmo esquema, fazem o papel de primário e réplica: um
+ * usuário gravado só na "réplica" mostra para onde cada transação foi.
+ */
+@DataJpaTest
+@Testcontainers
+@Import({DataSourceConfig.class, ReplicasLeitura.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicasLeituraIT {
+
+  private static final String LOGIN_REPLICA = "somente.replica";
+
+  @Container
+  static PostgreSQLContainer<?> primario = new PostgreSQLContainer<>("postgres:16");
+
+  @Container
+  static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void propriedades(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", primario::getJdbcUrl);
+    registry.add("spring.datasource.username", primario::getUsername);
+    registry.add("spring.datasource.password", primario::getPassword);
+    registry.add("app.datasource.replicas.habilitado", () -> "true");
+    registry.add("app.datasource.replicas.urls", replica::getJdbcUrl);
+    registry.add("app.datasource.replicas.usuario", replica::getUsername);
+    registry.add("app.datasource.replicas.senha", replica::getPassword);
+    registry.add("app.datasource.replicas.intervalo-verificacao", () -> "200ms");
+  }
+
+  @BeforeAll
+  static void prepararReplica() {
+    Flyway.configure()
+        .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+        .configuration(FlywayConfig.LOCK_SESSAO)
+        .load().migrate();
+    new JdbcTemplate(new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(),
+        replica.getPassword())).update(
+        "INSERT INTO usuario (nome, login, senha) VALUES ('Réplica', ?, 'x')", LOGIN_REPLICA);
+  }
+
+  @Autowired
+  private UsuarioRepository usuarioRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void transacoesSomenteLeitura_devemIrParaReplica_eEscritasParaPrimario() throws Exception {
+    TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+    leitura.setReadOnly(true);
+    TransactionTemplate escrita = new TransactionTemplate(transactionManager);
+
+    // A primeira verificação de atraso libera a réplica
+    long limite = System.currentTimeMillis() + 10_000;
+    while (leitura.execute(status -> usuarioRepository.findByLogin(LOGIN_REPLICA)).isEmpty()) {
+      assertTrue(System.currentTimeMillis() < limite, "réplica não ficou disponível");
+      Thread.sleep(100);
+    }
+
+    assertTrue(escrita.execute(status -> usuarioRepository.findByLogin(LOGIN_REPLICA)).isEmpty());
+    assertTrue(usuarioRepository.findByLogin(LOGIN_REPLICA).isEmpty());
+  }
+}
@@ -0,0 +1,69 @@
+package com.desafio.credito.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicasLeituraTest {
+
+  private DataSource primario;
+  private Connection conexaoPrimario;
+  private ReplicasLeitura replicas;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    primario = mock(DataSource.class);
+    conexaoPrimario = mock(Connection.class);
+    when(primario.getConnection()).thenReturn(conexaoPrimario);
+    when(conexaoPrimario.getAutoCommit()).thenReturn(true);
+    when(conexaoPrimario.getTransactionIsolation())
+        .thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+    // Porta sem servidor: a réplica nunca fica disponível
+    replicas = new ReplicasLeitura("jdbc:postgresql://127.0.0.1:1/postgres", "u", "s", 2,
+        Duration.ofMillis(250), ReplicasLeitura.Selecao.ROUND_ROBIN, Duration.ofSeconds(5),
+        Duration.ofMinutes(1), false, Duration.ofSeconds(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    replicas.destroy();
+  }
+
+  @Test
+  void conectar_deveUsarPrimario_quandoNenhumaReplicaDisponivel() throws SQLException {
+    replicas.verificar();
+
+    assertSame(conexaoPrimario, replicas.conectar(primario));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void camadasDataSource_deveAdiarConexaoEEnviarLeiturasAsReplicas() throws Exception {
+    ObjectProvider<ReplicasLeitura> provider = mock(ObjectProvider.class);
+    when(provider.getIfAvailable()).thenReturn(replicas);
+    Object envolvido = DataSourceConfig.camadasDataSource(false, 10, Duration.ofSeconds(1),
+        provider).postProcessAfterInitialization(primario, "dataSource");
+
+    LazyConnectionDataSourceProxy proxy =
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, envolvido);
+    try (Connection conexao = proxy.getConnection()) {
+      conexao.setReadOnly(true);
+      assertTrue(conexao.isReadOnly());
+      // Sem comando SQL nenhuma conexão física é aberta
+      verify(primario, atMost(1)).getConnection();
+      conexao.createStatement();
+    }
+    // Réplica indisponível: a leitura caiu no primário
+    verify(conexaoPrimario).createStatement();
+  }
+}
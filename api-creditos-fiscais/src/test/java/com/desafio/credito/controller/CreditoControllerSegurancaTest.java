@@ -0,0 +1,145 @@
+package com.desafio.credito.controller;
+
+import com.desafio.credito.config.JwtPrincipalCache;
+import com.desafio.credito.config.JwtUtil;
+import com.desafio.credito.config.LimitadorTaxa;
+import com.desafio.credito.config.PortaGerencia;
+import com.desafio.credito.config.SecurityConfig;
+import com.desafio.credito.dto.ImportacaoResultadoDTO;
+import com.desafio.credito.entity.Usuario;
+import com.desafio.credito.service.CreditoEventPublisher;
+import com.desafio.credito.service.CreditoExportacaoService;
+import com.desafio.credito.service.CreditoImportacaoService;
+import com.desafio.credito.service.CreditoResumoService;
+import com.desafio.credito.service.CreditoService;
+import com.desafio.credito.service.UsuarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Regras de acesso do {@link SecurityConfig} sobre o controller, com o filtro JWT real e os
+ * serviços simulados.
+ */
+@WebMvcTest(CreditoController.class)
+@Import({SecurityConfig.class, JwtUtil.class, JwtPrincipalCache.class, LimitadorTaxa.class,
+    PortaGerencia.class, CreditoControllerSegurancaTest.Metricas.class})
+@TestPropertySource(properties = {"app.seguranca.administradores=admin",
+    "app.limite-taxa.habilitado=false"})
+class CreditoControllerSegurancaTest {
+
+  @TestConfiguration
+  static class Metricas {
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private JwtUtil jwtUtil;
+
+  @MockBean
+  private UsuarioService usuarioService;
+  @MockBean
+  private CreditoService creditoService;
+  @MockBean
+  private CreditoEventPublisher eventPublisher;
+  @MockBean
+  private CreditoExportacaoService exportacaoService;
+  @MockBean
+  private CreditoImportacaoService importacaoService;
+  @MockBean
+  private CreditoResumoService resumoService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    for (String login : List.of("joao", "admin")) {
+      when(usuarioService.buscarPorLogin(login))
+          .thenReturn(Optional.of(Usuario.builder().login(login).build()));
+    }
+    when(importacaoService.importar(any(), any(), any()))
+        .thenReturn(ImportacaoResultadoDTO.builder().situacao("CONCLUIDA").build());
+  }
+
+  private String token(String login) {
+    return "Bearer " + jwtUtil.gerarToken(login);
+  }
+
+  @Test
+  void importacao_deveRetornar403_quandoUsuarioComum() throws Exception {
+    mockMvc.perform(post("/creditos/importacao").param("metodo", "copy")
+        .header("Authorization", token("joao")).content("numeroCredito\n"))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(get("/creditos/importacoes").header("Authorization", token("joao")))
+        .andExpect(status().isForbidden());
+    verifyNoInteractions(importacaoService);
+  }
+
+  @Test
+  void importacao_devePermitir_quandoAdministrador() throws Exception {
+    mockMvc.perform(post("/creditos/importacao").param("metodo", "copy")
+        .header("Authorization", token("admin")).content("numeroCredito\n"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void cache_deveRetornar403_quandoUsuarioComum() throws Exception {
+    mockMvc.perform(get("/creditos/cache/estatisticas").header("Authorization", token("joao")))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(delete("/creditos/cache").header("Authorization", token("joao")))
+        .andExpect(status().isForbidden());
+    verify(creditoService, never()).invalidarCache(any(), any());
+  }
+
+  @Test
+  void cache_devePermitirInvalidar_quandoAdministrador() throws Exception {
+    mockMvc.perform(delete("/creditos/cache").param("numeroNfse", "7891011")
+        .header("Authorization", token("admin")))
+        .andExpect(status().isNoContent());
+    verify(creditoService).invalidarCache("7891011", null);
+  }
+
+  @Test
+  void estatisticasAuditoria_deveRetornar403_quandoUsuarioComum() throws Exception {
+    mockMvc.perform(get("/creditos/auditoria/estatisticas")
+        .header("Authorization", token("joao")))
+        .andExpect(status().isForbidden());
+    verify(eventPublisher, never()).estatisticas();
+  }
+
+  @Test
+  void estatisticasAuditoria_devePermitir_quandoAdministrador() throws Exception {
+    mockMvc.perform(get("/creditos/auditoria/estatisticas")
+        .header("Authorization", token("admin")))
+        .andExpect(status().isOk());
+    verify(eventPublisher).estatisticas();
+  }
+
+  @Test
+  void importacao_deveRetornar401_semToken() throws Exception {
+    mockMvc.perform(post("/creditos/importacao")).andExpect(status().isUnauthorized());
+  }
+}
@@ -1,21 +1,42 @@
 package com.desafio.credito.controller;
 
+import com.desafio.credito.dto.ConsultaLoteRequestDTO;
+import com.desafio.credito.dto.ConsultaLoteResponseDTO;
 import com.desafio.credito.dto.CreditoDTO;
+import com.desafio.credito.dto.ImportacaoResultadoDTO;
+import com.desafio.credito.dto.ResumoCreditoDTO;
+import com.desafio.credito.event.CreditoConsultaEvent;
+import com.desafio.credito.event.EnumStatusConsulta;
+import com.desafio.credito.event.EnunTipoConsulta;
+import com.desafio.credito.repository.VersaoCreditos;
 import com.desafio.credito.service.CreditoEventPublisher;
+import com.desafio.credito.service.CreditoExportacaoService;
+import com.desafio.credito.service.CreditoImportacaoService;
+import com.desafio.credito.service.CreditoResumoService;
+import com.desafio.credito.service.FormatoExportacao;
+import com.desafio.credito.service.MetodoImportacao;
 import com.desafio.credito.exception.ResourceNotFoundException;
 import com.desafio.credito.service.CreditoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class CreditoControllerTest {
@@ -24,6 +45,12 @@ class CreditoControllerTest {
   private CreditoService creditoService;
   @Mock
   private CreditoEventPublisher eventPublisher;
+  @Mock
+  private CreditoExportacaoService exportacaoService;
+  @Mock
+  private CreditoImportacaoService importacaoService;
+  @Mock
+  private CreditoResumoService resumoService;
   @InjectMocks
   private CreditoController creditoController;
 
@@ -102,6 +129,150 @@ class CreditoControllerTest {
         () -> creditoController.buscarCreditoPorNumero("999", request));
   }
 
+  @Test
+  void buscarCreditosPorNfse_deveRetornar304SemConsultarEAuditar_quandoEtagCorresponde() {
+    when(creditoService.versaoPorNfse("7891011"))
+        .thenReturn(Optional.of(new VersaoCreditos(2, 41L)));
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"1-7\", W/\"2-41\"");
+    ResponseEntity<List<CreditoDTO>> response =
+        creditoController.buscarCreditosPorNfse("7891011", request);
+    assertEquals(304, response.getStatusCodeValue());
+    assertEquals("\"2-41\"", response.getHeaders().getETag());
+    assertNull(response.getBody());
+    verify(creditoService, never()).buscarCreditosPorNfse(any(), any());
+    ArgumentCaptor<CreditoConsultaEvent> evento =
+        ArgumentCaptor.forClass(CreditoConsultaEvent.class);
+    verify(eventPublisher).publicarEventoAuditoria(evento.capture());
+    assertEquals("7891011", evento.getValue().getNumeroNfse());
+    assertEquals(2, evento.getValue().getQuantidadeResultados());
+    assertEquals(EnumStatusConsulta.SUCESSO, evento.getValue().getStatus());
+  }
+
+  @Test
+  void buscarCreditoPorNumero_deveRetornar304EAuditar_quandoEtagCorresponde() {
+    when(creditoService.etagPorNumero("654321")).thenReturn(Optional.of("\"42\""));
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"42\"");
+    ResponseEntity<CreditoDTO> response =
+        creditoController.buscarCreditoPorNumero("654321", request);
+    assertEquals(304, response.getStatusCodeValue());
+    verify(creditoService, never()).buscarCreditoPorNumero(any(), any());
+    ArgumentCaptor<CreditoConsultaEvent> evento =
+        ArgumentCaptor.forClass(CreditoConsultaEvent.class);
+    verify(eventPublisher).publicarEventoAuditoria(evento.capture());
+    assertEquals("654321", evento.getValue().getNumeroCredito());
+    assertEquals(EnunTipoConsulta.POR_CREDITO, evento.getValue().getTipoConsulta());
+  }
+
+  @Test
+  void buscarCreditoPorNumero_deveConsultarComEtagAtualERetornarEtag_quandoVersaoMudou() {
+    creditoDTO3.setVersao(42L);
+    when(creditoService.etagPorNumero("654321")).thenReturn(Optional.of("\"42\""));
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"41\"");
+    when(creditoService.buscarCreditoPorNumero("654321", "\"42\"")).thenReturn(creditoDTO3);
+    ResponseEntity<CreditoDTO> response =
+        creditoController.buscarCreditoPorNumero("654321", request);
+    assertEquals(200, response.getStatusCodeValue());
+    assertEquals("\"42\"", response.getHeaders().getETag());
+    assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+    verify(eventPublisher).publicarEventoAuditoria(any(CreditoConsultaEvent.class));
+  }
+
+  @Test
+  void buscarCreditosPorNfse_deveUsarVersaoDoCacheSemConsultarBanco_quandoNaoCondicional() {
+    creditoDTO1.setVersao(41L);
+    creditoDTO2.setVersao(40L);
+    when(creditoService.buscarCreditosPorNfse("7891011"))
+        .thenReturn(Arrays.asList(creditoDTO1, creditoDTO2));
+    ResponseEntity<List<CreditoDTO>> response =
+        creditoController.buscarCreditosPorNfse("7891011", request);
+    assertEquals(200, response.getStatusCodeValue());
+    assertEquals("\"2-41\"", response.getHeaders().getETag());
+    verify(creditoService, never()).versaoPorNfse(any());
+  }
+
+  @Test
+  void buscarCreditosPorNfse_deveRetornarEtagDoCorpoServido_quandoBancoMudouNaLeitura() {
+    creditoDTO1.setVersao(41L);
+    creditoDTO2.setVersao(43L);
+    when(creditoService.versaoPorNfse("7891011"))
+        .thenReturn(Optional.of(new VersaoCreditos(2, 41L)));
+    when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"1-7\"");
+    when(creditoService.buscarCreditosPorNfse("7891011", "\"2-41\""))
+        .thenReturn(Arrays.asList(creditoDTO1, creditoDTO2));
+    ResponseEntity<List<CreditoDTO>> response =
+        creditoController.buscarCreditosPorNfse("7891011", request);
+    assertEquals(200, response.getStatusCodeValue());
+    assertEquals("\"2-43\"", response.getHeaders().getETag());
+  }
+
+  @Test
+  void buscarCreditosEmLote_devePublicarUmUnicoEvento() {
+    ConsultaLoteResponseDTO resultado = ConsultaLoteResponseDTO.builder()
+        .creditosPorNfse(Map.of("7891011", Arrays.asList(creditoDTO1, creditoDTO2)))
+        .creditosPorNumero(Map.of("654321", creditoDTO3)).nfseNaoEncontradas(List.of("0000000"))
+        .creditosNaoEncontrados(List.of()).quantidadeCreditos(3).build();
+    when(creditoService.buscarEmLote(any(), any())).thenReturn(resultado);
+
+    ResponseEntity<ConsultaLoteResponseDTO> response = creditoController.buscarCreditosEmLote(
+        new ConsultaLoteRequestDTO(List.of("7891011", "0000000"), List.of("654321")), request);
+
+    assertEquals(200, response.getStatusCodeValue());
+    assertEquals(3, response.getBody().getQuantidadeCreditos());
+    ArgumentCaptor<CreditoConsultaEvent> evento =
+        ArgumentCaptor.forClass(CreditoConsultaEvent.class);
+    verify(eventPublisher, times(1)).publicarEventoAuditoria(evento.capture());
+    assertEquals(EnunTipoConsulta.LOTE, evento.getValue().getTipoConsulta());
+    assertEquals(3, evento.getValue().getQuantidadeResultados());
+  }
+
+  @Test
+  void exportarCreditos_deveTransmitirEPublicarEventoComTotal() throws Exception {
+    when(exportacaoService.exportar(eq("7891011"), eq(FormatoExportacao.CSV), any()))
+        .thenReturn(2L);
+
+    ResponseEntity<StreamingResponseBody> response =
+        creditoController.exportarCreditos("csv", "7891011", request);
+    assertEquals("text/csv", response.getHeaders().getContentType().toString());
+    verify(eventPublisher, never()).publicarEventoAuditoria(any());
+
+    response.getBody().writeTo(new ByteArrayOutputStream());
+    ArgumentCaptor<CreditoConsultaEvent> evento =
+        ArgumentCaptor.forClass(CreditoConsultaEvent.class);
+    verify(eventPublisher).publicarEventoAuditoria(evento.capture());
+    assertEquals(EnunTipoConsulta.EXPORTACAO, evento.getValue().getTipoConsulta());
+    assertEquals(2, evento.getValue().getQuantidadeResultados());
+  }
+
+  @Test
+  void importarCreditos_deveRetornar500_quandoImportacaoFalha() throws Exception {
+    when(importacaoService.importar(any(), eq(FormatoExportacao.NDJSON),
+        eq(MetodoImportacao.COPY))).thenReturn(ImportacaoResultadoDTO.builder()
+            .situacao("FALHOU").importados(1000).build());
+
+    ResponseEntity<ImportacaoResultadoDTO> response =
+        creditoController.importarCreditos("ndjson", "copy", request);
+    assertEquals(500, response.getStatusCode().value());
+    assertEquals(1000, response.getBody().getImportados());
+  }
+
+  @Test
+  void importarCreditos_deveRejeitarMetodoInvalido() {
+    assertThrows(IllegalArgumentException.class,
+        () -> creditoController.importarCreditos("csv", "bulk", request));
+  }
+
+  @Test
+  void resumirCreditos_deveRetornarTotaisSemPublicarEvento() {
+    List<ResumoCreditoDTO> resumo = List.of(ResumoCreditoDTO.builder().mes("2024-02")
+        .quantidade(2).valorIssqn(new java.math.BigDecimal("2701.25")).build());
+    when(resumoService.resumir("mes", "2024-01", null, null, null)).thenReturn(resumo);
+    ResponseEntity<List<ResumoCreditoDTO>> response =
+        creditoController.resumirCreditos("mes", "2024-01", null, null, null);
+    assertEquals(200, response.getStatusCodeValue());
+    assertEquals(resumo, response.getBody());
+    verifyNoInteractions(eventPublisher);
+  }
+
   @Test
   void status_deveRetornarOk() {
     ResponseEntity<String> response = creditoController.status();
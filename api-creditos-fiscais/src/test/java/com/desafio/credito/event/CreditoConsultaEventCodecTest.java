@@ -0,0 +1,112 @@
+package com.desafio.credito.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditoConsultaEventCodecTest {
+
+  private final CreditoConsultaEventDeserializer deserializer =
+      new CreditoConsultaEventDeserializer();
+
+  private static CreditoConsultaEvent eventoCompleto() {
+    return CreditoConsultaEvent.builder().numeroNfse("7891011").numeroCredito("123456")
+        .tipoConsulta(EnunTipoConsulta.POR_CREDITO).usuario("joão").ipOrigem("203.0.113.7")
+        .dataHoraConsulta(LocalDateTime.of(2024, 2, 25, 10, 30, 15)).quantidadeResultados(1)
+        .status(EnumStatusConsulta.ERRO).mensagemErro("Falha: conexão recusada").build();
+  }
+
+  private static CreditoConsultaEventSerializer serializer(String formato) {
+    CreditoConsultaEventSerializer serializer = new CreditoConsultaEventSerializer();
+    serializer.configure(Map.of(CreditoConsultaEventSerializer.FORMATO, formato), false);
+    return serializer;
+  }
+
+  @Test
+  void codificar_deveSerReversivel() {
+    CreditoConsultaEvent evento = eventoCompleto();
+    assertEquals(evento, CreditoConsultaEventCodec.decodificar(
+        CreditoConsultaEventCodec.codificar(evento)));
+  }
+
+  @Test
+  void codificar_deveOmitirCamposNulos() {
+    CreditoConsultaEvent evento = CreditoConsultaEvent.builder().numeroNfse("7891011")
+        .quantidadeResultados(-1).build();
+    byte[] dados = CreditoConsultaEventCodec.codificar(evento);
+
+    assertEquals(evento, CreditoConsultaEventCodec.decodificar(dados));
+    // magia + versão + máscara + tamanho + "7891011" + zigzag(-1)
+    assertEquals(2 + 1 + 1 + 7 + 1, dados.length);
+  }
+
+  @Test
+  void codificar_deveSerMenorQueJson() {
+    CreditoConsultaEvent evento = eventoCompleto();
+    byte[] json = serializer("json").serialize("credito-audit", evento);
+    byte[] binario = serializer("binario").serialize("credito-audit", evento);
+
+    assertTrue(binario.length * 2 < json.length,
+        "binário=" + binario.length + " json=" + json.length);
+  }
+
+  @Test
+  void deserialize_deveLerJsonEBinario() {
+    CreditoConsultaEvent evento = eventoCompleto();
+    assertEquals(evento, deserializer.deserialize("credito-audit",
+        serializer("json").serialize("credito-audit", evento)));
+    assertEquals(evento, deserializer.deserialize("credito-audit",
+        serializer("binario").serialize("credito-audit", evento)));
+  }
+
+  @Test
+  void serializer_deveUsarJson_quandoFormatoNaoConfigurado() {
+    CreditoConsultaEventSerializer serializer = new CreditoConsultaEventSerializer();
+    serializer.configure(Map.of(), false);
+
+    assertEquals((byte) '{', serializer.serialize("credito-audit", eventoCompleto())[0]);
+  }
+
+  @Test
+  void decodificar_deveIgnorarCamposEVersoesFuturas() {
+    CreditoConsultaEvent evento = eventoCompleto();
+    byte[] dados = CreditoConsultaEventCodec.codificar(evento);
+    byte[] futuro = Arrays.copyOf(dados, dados.length + 3);
+    futuro[1] = 2;
+    futuro[dados.length] = 2;
+    futuro[dados.length + 1] = 'o';
+    futuro[dados.length + 2] = 'k';
+
+    assertEquals(evento, CreditoConsultaEventCodec.decodificar(futuro));
+  }
+
+  @Test
+  void decodificar_deveDevolverNulo_paraCodigoDeEnumDesconhecido() {
+    byte[] dados = CreditoConsultaEventCodec.codificar(CreditoConsultaEvent.builder()
+        .status(EnumStatusConsulta.SUCESSO).build());
+    dados[dados.length - 1] = 99;
+
+    assertNull(CreditoConsultaEventCodec.decodificar(dados).getStatus());
+  }
+
+  @Test
+  void deserialize_deveLancarSerializationException_quandoTruncado() {
+    byte[] dados = CreditoConsultaEventCodec.codificar(eventoCompleto());
+    byte[] truncado = Arrays.copyOf(dados, dados.length - 4);
+
+    assertThrows(SerializationException.class,
+        () -> deserializer.deserialize("credito-audit", truncado));
+    assertThrows(SerializationException.class,
+        () -> deserializer.deserialize("credito-audit", "{invalido".getBytes()));
+  }
+
+  @Test
+  void configure_deveRejeitarFormatoDesconhecido() {
+    assertThrows(IllegalArgumentException.class, () -> serializer("avro"));
+  }
+}
@@ -1,6 +1,7 @@
 package com.desafio.credito.exception;
 
 import com.desafio.credito.service.CreditoEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,15 +20,28 @@ class GlobalExceptionHandlerTest {
   private GlobalExceptionHandler handler;
   private WebRequest webRequest;
   private CreditoEventPublisher eventPublisher;
+  private SimpleMeterRegistry registry;
 
   @BeforeEach
   void setUp() {
     eventPublisher = mock(CreditoEventPublisher.class);
-    handler = new GlobalExceptionHandler(eventPublisher);
+    registry = new SimpleMeterRegistry();
+    handler = new GlobalExceptionHandler(eventPublisher, registry);
     webRequest = mock(WebRequest.class);
     when(webRequest.getDescription(false)).thenReturn("uri=/api/creditos/teste");
   }
 
+  @Test
+  void handleServicoSobrecarregado_deveRetornar503ComRetryAfter() {
+    ResponseEntity<GlobalExceptionHandler.ErrorResponse> response = handler
+        .handleServicoSobrecarregado(new ServicoSobrecarregadoException("Ocupado"), webRequest);
+    assertEquals(503, response.getStatusCodeValue());
+    assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+    assertEquals(1.0, registry.get("creditos.http.rejeicoes").tag("status", "503").counter()
+        .count());
+    verifyNoInteractions(eventPublisher);
+  }
+
   @Test
   void handleResourceNotFoundException_deveRetornar404() {
     ResourceNotFoundException ex = new ResourceNotFoundException("Não encontrado");
@@ -35,6 +49,7 @@ class GlobalExceptionHandlerTest {
         handler.handleResourceNotFoundException(ex, webRequest);
     assertEquals(404, response.getStatusCodeValue());
     assertEquals("Não encontrado", response.getBody().getMessage());
+    assertEquals(1, registry.get("creditos.http.rejeicoes").tag("status", "404").counter().count());
   }
 
   @Test
@@ -0,0 +1,185 @@
+package com.desafio.credito.repository;
+
+import com.desafio.credito.config.CacheSegundoNivelConfig;
+import com.desafio.credito.dto.CreditoDTO;
+import com.desafio.credito.entity.Credito;
+import com.desafio.credito.entity.Usuario;
+import com.desafio.credito.service.CreditoCache;
+import com.desafio.credito.service.CreditoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de segundo nível ligado: consultas repetidas não vão ao banco e escritas (pelo Hibernate,
+ * pelo COPY ou direto no banco, detectadas pela versão) não deixam resultados desatualizados.
+ */
+@DataJpaTest
+@Testcontainers
+@Import({CacheSegundoNivelConfig.class, CreditoCopyRepository.class, CreditoService.class,
+    CreditoCache.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheSegundoNivelIT {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void propriedades(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+    registry.add("app.cache.segundo-nivel.habilitado", () -> "true");
+    // Sem o cache em memória na frente, toda consulta do serviço chega ao Hibernate
+    registry.add("app.cache.creditos.habilitado", () -> "false");
+  }
+
+  @Autowired
+  private UsuarioRepository usuarioRepository;
+
+  @Autowired
+  private CreditoRepository creditoRepository;
+
+  @Autowired
+  private CreditoCopyRepository copyRepository;
+
+  @Autowired
+  private CreditoService creditoService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Statistics estatisticas;
+
+  @BeforeEach
+  void setUp() {
+    estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    estatisticas.clear();
+  }
+
+  @Test
+  void findByLogin_deveVirDoCache_eRefletirExclusaoENovoCadastro() {
+    Usuario usuario = usuarioRepository.save(
+        Usuario.builder().nome("Cache").login("cache.l2").senha("hash-1").build());
+
+    usuarioRepository.findByLogin("cache.l2");
+    assertEquals("hash-1", usuarioRepository.findByLogin("cache.l2").orElseThrow().getSenha());
+    assertEquals(1, estatisticas.getQueryCacheHitCount());
+    assertEquals(1, estatisticas.getQueryExecutionCount());
+
+    usuarioRepository.deleteById(usuario.getId());
+    assertTrue(usuarioRepository.findByLogin("cache.l2").isEmpty());
+
+    usuarioRepository.save(
+        Usuario.builder().nome("Cache").login("cache.l2").senha("hash-2").build());
+    assertEquals("hash-2", usuarioRepository.findByLogin("cache.l2").orElseThrow().getSenha());
+  }
+
+  @Test
+  void consultasDoServico_devemVirDoCacheDeConsultas() {
+    copyRepository.copiar(List.of(credito("L2-SERV-C1", "L2-SERV-N"),
+        credito("L2-SERV-C2", "L2-SERV-N")));
+    estatisticas.clear();
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(2, creditoService.buscarCreditosPorNfse("L2-SERV-N").size());
+      assertEquals("L2-SERV-N",
+          creditoService.buscarCreditoPorNumero("L2-SERV-C1").getNumeroNfse());
+    }
+    // Uma ida ao banco por consulta; as outras 18 chamadas são acertos (90%)
+    assertEquals(2, estatisticas.getQueryCacheMissCount());
+    assertEquals(18, estatisticas.getQueryCacheHitCount());
+    assertEquals(2, estatisticas.getQueryExecutionCount());
+  }
+
+  @Test
+  void recarga_deveIgnorarCacheDeConsultas_quandoCreditoAlteradoForaDoHibernate() {
+    copyRepository.copiar(List.of(credito("L2-EXT-C1", "L2-EXT-N")));
+    String etagInicial = CreditoService.etag(creditoService.versaoPorNfse("L2-EXT-N").orElseThrow());
+    assertEquals(etagInicial,
+        CreditoService.etag(creditoService.buscarCreditosPorNfse("L2-EXT-N", etagInicial)));
+    assertEquals(etagInicial,
+        CreditoService.etag(creditoService.buscarCreditoPorNumero("L2-EXT-C1", null)));
+
+    // UPDATE direto no banco: o trigger renova a versão, mas o Hibernate não fica sabendo
+    jdbcTemplate.update("UPDATE credito SET valor_issqn = 99.00 WHERE numero_credito = ?",
+        "L2-EXT-C1");
+    assertEquals(new BigDecimal("10.00"),
+        creditoService.buscarCreditosPorNfse("L2-EXT-N").get(0).getValorIssqn());
+
+    String etagNova = CreditoService.etag(creditoService.versaoPorNfse("L2-EXT-N").orElseThrow());
+    assertNotEquals(etagInicial, etagNova);
+    List<CreditoDTO> porNfse = creditoService.buscarCreditosPorNfse("L2-EXT-N", etagNova);
+    assertEquals(etagNova, CreditoService.etag(porNfse));
+    assertEquals(new BigDecimal("99.00"), porNfse.get(0).getValorIssqn());
+
+    String etagCredito = creditoService.etagPorNumero("L2-EXT-C1").orElseThrow();
+    CreditoDTO porNumero = creditoService.buscarCreditoPorNumero("L2-EXT-C1", etagCredito);
+    assertEquals(etagCredito, CreditoService.etag(porNumero));
+    assertEquals(new BigDecimal("99.00"), porNumero.getValorIssqn());
+
+    // A recarga também atualizou o cache de consultas
+    assertEquals(new BigDecimal("99.00"),
+        creditoService.buscarCreditosPorNfse("L2-EXT-N").get(0).getValorIssqn());
+  }
+
+  @Test
+  void copiar_deveDescartarConsultasDeCreditoEmCache() {
+    assertTrue(creditoRepository.buscarDTOsPorNfse("L2-NFSE").isEmpty());
+    assertTrue(creditoRepository.buscarDTOsPorNfse("L2-NFSE").isEmpty());
+    assertEquals(1, estatisticas.getQueryCacheHitCount());
+
+    copyRepository.copiar(List.of(credito("L2-CREDITO", "L2-NFSE")));
+
+    assertEquals(1, creditoRepository.buscarDTOsPorNfse("L2-NFSE").size());
+  }
+
+  @Test
+  void saveAll_deveAgruparInserts_eVersaoVirDoBanco() {
+    List<Credito> creditos = new ArrayList<>();
+    for (int i = 0; i < 120; i++) {
+      creditos.add(credito("L2-LOTE-" + i, "L2-NFSE-LOTE"));
+    }
+    creditoRepository.saveAll(creditos);
+
+    // Em batch: um statement por bloco de 50 inserts e um nextval por bloco de ids, em vez de
+    // um INSERT ... RETURNING por crédito
+    assertTrue(estatisticas.getPrepareStatementCount() <= 10,
+        "statements preparados: " + estatisticas.getPrepareStatementCount());
+    assertTrue(creditoRepository.buscarVersaoPorNumero("L2-LOTE-0").isPresent());
+    assertNotNull(creditoRepository.recarregarDTOPorNumero("L2-LOTE-0").orElseThrow().getVersao());
+  }
+
+  private static Credito credito(String numeroCredito, String numeroNfse) {
+    return Credito.builder().numeroCredito(numeroCredito).numeroNfse(numeroNfse)
+        .dataConstituicao(LocalDate.of(2024, 2, 25)).valorIssqn(new BigDecimal("10.00"))
+        .tipoCredito("ISSQN").simplesNacional(true).aliquota(new BigDecimal("5.00"))
+        .valorFaturado(new BigDecimal("200.00")).valorDeducao(BigDecimal.ZERO)
+        .baseCalculo(new BigDecimal("200.00")).build();
+  }
+}
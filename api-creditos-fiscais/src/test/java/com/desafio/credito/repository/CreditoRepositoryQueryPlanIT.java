@@ -0,0 +1,235 @@
+package com.desafio.credito.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Roda EXPLAIN para cada consulta do {@link CreditoRepository} sobre uma base populada com
+ * volume suficiente para o planner preferir índices, e falha se alguma delas cair em Seq Scan
+ * na tabela credito. O volume pode ser ajustado com -Dplano.linhas=N.
+ */
+@DataJpaTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.desafio.credito.repository.CreditoRepositoryQueryPlanIT$CapturadorSql"})
+class CreditoRepositoryQueryPlanIT {
+
+  private static final int LINHAS = Integer.getInteger("plano.linhas", 500_000);
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void propriedades(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired
+  private CreditoRepository creditoRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * Uma entrada por método do repositório: a chamada real (para capturar o SQL gerado pelo
+   * Hibernate) e os valores dos parâmetros na ordem em que aparecem no SQL.
+   */
+  private Map<String, Consulta> consultas() {
+    Map<String, Consulta> consultas = new LinkedHashMap<>();
+    consultas.put("findByNumeroNfse",
+        new Consulta(() -> creditoRepository.findByNumeroNfse("NFSE42"), "NFSE42"));
+    consultas.put("findByNumeroCredito",
+        new Consulta(() -> creditoRepository.findByNumeroCredito("CRED42"), "CRED42"));
+    consultas.put("existsByNumeroCredito",
+        new Consulta(() -> creditoRepository.existsByNumeroCredito("CRED42"), "CRED42", 1));
+    consultas.put("buscarCreditosPorNfseOrdenados",
+        new Consulta(() -> creditoRepository.buscarCreditosPorNfseOrdenados("NFSE42"), "NFSE42"));
+    consultas.put("streamTodos",
+        new Consulta(() -> creditoRepository.streamTodos().findFirst()));
+    consultas.put("streamPorNfse",
+        new Consulta(() -> creditoRepository.streamPorNfse("NFSE42").findFirst(), "NFSE42"));
+    consultas.put("buscarDTOsPorNfse",
+        new Consulta(() -> creditoRepository.buscarDTOsPorNfse("NFSE42"), "NFSE42"));
+    consultas.put("buscarDTOPorNumero",
+        new Consulta(() -> creditoRepository.buscarDTOPorNumero("CRED42"), "CRED42"));
+    consultas.put("recarregarDTOsPorNfse",
+        new Consulta(() -> creditoRepository.recarregarDTOsPorNfse("NFSE42"), "NFSE42"));
+    consultas.put("recarregarDTOPorNumero",
+        new Consulta(() -> creditoRepository.recarregarDTOPorNumero("CRED42"), "CRED42"));
+    consultas.put("buscarDTOsPorNfses", new Consulta(
+        () -> creditoRepository.buscarDTOsPorNfses(List.of("NFSE42", "NFSE43")), "NFSE42",
+        "NFSE43"));
+    consultas.put("buscarDTOsPorNumeros", new Consulta(
+        () -> creditoRepository.buscarDTOsPorNumeros(List.of("CRED42", "CRED43")), "CRED42",
+        "CRED43"));
+    consultas.put("buscarNumerosExistentes", new Consulta(
+        () -> creditoRepository.buscarNumerosExistentes(List.of("CRED42", "CRED43")), "CRED42",
+        "CRED43"));
+    consultas.put("buscarVersaoPorNfse",
+        new Consulta(() -> creditoRepository.buscarVersaoPorNfse("NFSE42"), "NFSE42"));
+    consultas.put("buscarVersaoPorNumero",
+        new Consulta(() -> creditoRepository.buscarVersaoPorNumero("CRED42"), "CRED42"));
+    consultas.put("buscarNfsesPorPrefixo", new Consulta(
+        () -> creditoRepository.buscarNfsesPorPrefixo("NFSE42%", 10), "NFSE42%", 10));
+    consultas.put("buscarNumerosPorPrefixo", new Consulta(
+        () -> creditoRepository.buscarNumerosPorPrefixo("CRED42%", 10), "CRED42%", 10));
+    consultas.put("buscarNfsesContendo", new Consulta(
+        () -> creditoRepository.buscarNfsesContendo("%E4242%", 1000, 10), "%E4242%", 1000, 10));
+    consultas.put("buscarNumerosContendo", new Consulta(
+        () -> creditoRepository.buscarNumerosContendo("%D4242%", 1000, 10), "%D4242%", 1000,
+        10));
+    LocalDate data = LocalDate.parse("2022-06-01");
+    consultas.put("buscarPagina", new Consulta(() -> creditoRepository.buscarPagina(50), 50));
+    consultas.put("buscarPaginaApos", new Consulta(
+        () -> creditoRepository.buscarPaginaApos(data, 250_000L, 50), data, data, 250_000L, 50));
+    consultas.put("buscarPaginaPorNfse",
+        new Consulta(() -> creditoRepository.buscarPaginaPorNfse("NFSE42", 50), "NFSE42", 50));
+    consultas.put("buscarPaginaPorNfseApos",
+        new Consulta(() -> creditoRepository.buscarPaginaPorNfseApos("NFSE42", data, 210L, 50),
+            "NFSE42", data, data, 210L, 50));
+    return consultas;
+  }
+
+  /**
+   * Consultas que leem a tabela inteira por definição (exportação completa), para as quais o
+   * Seq Scan é o plano correto.
+   */
+  private static final Set<String> VARREDURA_COMPLETA = Set.of("streamTodos");
+
+  @BeforeAll
+  void popularBase() {
+    jdbcTemplate.update("""
+        INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn,
+            tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo)
+        SELECT 'CRED' || g, 'NFSE' || (g / 5), DATE '2020-01-01' + (g % 1500), 100.00,
+            CASE WHEN g % 2 = 0 THEN 'ISSQN' ELSE 'Outros' END, g % 3 = 0, 5.00, 2000.00, 0.00,
+            2000.00
+        FROM generate_series(1, ?) g
+        """, LINHAS);
+    jdbcTemplate.execute("ANALYZE credito");
+  }
+
+  @Test
+  void todosOsMetodosDoRepositorioPossuemConsultaMapeada() {
+    List<String> semCobertura = Arrays.stream(CreditoRepository.class.getDeclaredMethods())
+        .filter(m -> !m.isDefault() && !m.isSynthetic()).map(Method::getName).distinct()
+        .filter(nome -> !consultas().containsKey(nome)).sorted().collect(Collectors.toList());
+    assertTrue(semCobertura.isEmpty(),
+        "Métodos do CreditoRepository sem verificação de plano: " + semCobertura);
+  }
+
+  @Test
+  void nenhumaConsultaUsaSeqScanEmCredito() throws Exception {
+    List<String> falhas = new ArrayList<>();
+    for (Map.Entry<String, Consulta> entrada : consultas().entrySet()) {
+      CapturadorSql.limpar();
+      entrada.getValue().chamada().run();
+      String sql = CapturadorSql.ultimoSqlEmCredito();
+      assertNotNull(sql, "Nenhum SQL capturado para " + entrada.getKey());
+
+      JsonNode plano = explicar(sql, entrada.getValue().parametros());
+      if (!VARREDURA_COMPLETA.contains(entrada.getKey()) && contemSeqScanEmCredito(plano)) {
+        falhas.add(entrada.getKey() + " -> " + sql + "\n" + plano.toPrettyString());
+      }
+    }
+    assertTrue(falhas.isEmpty(),
+        "Consultas com Seq Scan em credito:\n" + String.join("\n", falhas));
+  }
+
+  private JsonNode explicar(String sql, Object[] parametros) throws Exception {
+    String plano = jdbcTemplate.execute("EXPLAIN (FORMAT JSON) " + sql,
+        (PreparedStatement ps) -> {
+          // O Hibernate pode renderizar o limite como literal; vincula só os marcadores presentes
+          int marcadores = (int) sql.chars().filter(c -> c == '?').count();
+          for (int i = 0; i < marcadores; i++) {
+            ps.setObject(i + 1, parametros[i]);
+          }
+          try (ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getString(1);
+          }
+        });
+    return objectMapper.readTree(plano).get(0).get("Plan");
+  }
+
+  private boolean contemSeqScanEmCredito(JsonNode no) {
+    if ("Seq Scan".equals(no.path("Node Type").asText())
+        && "credito".equals(no.path("Relation Name").asText())) {
+      return true;
+    }
+    for (JsonNode filho : no.path("Plans")) {
+      if (contemSeqScanEmCredito(filho)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private record Consulta(Runnable chamada, Object... parametros) {
+  }
+
+  /**
+   * Registra o SQL preparado pelo Hibernate. Instanciado pelo próprio Hibernate, por isso o
+   * estado é estático.
+   */
+  public static class CapturadorSql implements StatementInspector {
+    private static final List<String> SQLS = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String inspect(String sql) {
+      SQLS.add(sql);
+      return sql;
+    }
+
+    static void limpar() {
+      SQLS.clear();
+    }
+
+    static String ultimoSqlEmCredito() {
+      synchronized (SQLS) {
+        for (int i = SQLS.size() - 1; i >= 0; i--) {
+          if (SQLS.get(i).toLowerCase().contains("from credito")) {
+            return SQLS.get(i);
+          }
+        }
+      }
+      return null;
+    }
+  }
+}
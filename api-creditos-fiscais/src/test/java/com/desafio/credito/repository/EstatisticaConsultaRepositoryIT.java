@@ -0,0 +1,72 @@
+package com.desafio.credito.repository;
+
+import com.desafio.credito.repository.EstatisticaConsultaRepository.Incremento;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Confere que um lote que falha no meio não deixa contadores somados pela metade, para que a
+ * reentrega do lote não conte duas vezes. Sem a transação do teste: a do repositório é a que vale.
+ */
+@DataJpaTest
+@Testcontainers
+@Import(EstatisticaConsultaRepository.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EstatisticaConsultaRepositoryIT {
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void propriedades(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired
+  private EstatisticaConsultaRepository repository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private static Incremento incremento(String usuario, String status) {
+    return new Incremento(usuario, "7891011", "", status, 2, 4, LocalDateTime.now());
+  }
+
+  private Long quantidade(String usuario) {
+    return jdbcTemplate.query("SELECT quantidade FROM estatistica_consulta WHERE usuario = ?",
+        rs -> rs.next() ? rs.getLong(1) : null, usuario);
+  }
+
+  @Test
+  void somar_naoDeveGravarParteDoLote_quandoUmaLinhaFalha() {
+    // A linha inválida (status maior que a coluna) é gravada depois da válida, pela ordem da chave
+    List<Incremento> lote = List.of(incremento("ana", "SUCESSO"),
+        incremento("bruno", "X".repeat(30)));
+
+    assertThrows(DataAccessException.class, () -> repository.somar(lote));
+    assertNull(quantidade("ana"));
+
+    repository.somar(List.of(incremento("ana", "SUCESSO")));
+    assertEquals(2L, quantidade("ana"));
+  }
+}
@@ -0,0 +1,114 @@
+package com.desafio.credito.repository;
+
+import com.desafio.credito.dto.ResumoCreditoDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Confere que os triggers mantêm {@code resumo_credito_mensal} igual à agregação feita direto
+ * sobre a tabela de créditos depois de INSERTs, UPDATEs (inclusive mudando a chave do grupo) e
+ * DELETEs com várias linhas por instrução.
+ */
+@DataJpaTest
+@Testcontainers
+@Import(ResumoCreditoRepository.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ResumoCreditoRepositoryIT {
+
+  private static final String AGREGADO_CREDITO = """
+      SELECT date_trunc('month', data_constituicao)::date AS mes, tipo_credito, simples_nacional,
+          count(*) AS quantidade, sum(valor_issqn) AS valor_issqn,
+          sum(valor_faturado) AS valor_faturado, sum(base_calculo) AS base_calculo
+      FROM credito GROUP BY 1, 2, 3 ORDER BY 1, 2, 3
+      """;
+
+  private static final String RESUMO = """
+      SELECT mes, tipo_credito, simples_nacional, quantidade, valor_issqn, valor_faturado,
+          base_calculo
+      FROM resumo_credito_mensal WHERE quantidade > 0 ORDER BY 1, 2, 3
+      """;
+
+  @Container
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+  @DynamicPropertySource
+  static void propriedades(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired
+  private ResumoCreditoRepository resumoRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void triggersMantemResumoIgualAAgregacaoDosCreditos() {
+    jdbcTemplate.update("""
+        INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn,
+            tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo)
+        SELECT 'RES' || g, 'NFSE-RES' || (g / 10), DATE '2023-01-01' + (g % 400), g % 97 + 0.25,
+            CASE WHEN g % 3 = 0 THEN 'ISSQN' ELSE 'Outros' END, g % 2 = 0, 5.00, 1000.00 + g,
+            0.00, 1000.00 + g
+        FROM generate_series(1, 2000) g
+        """);
+    assertResumoConsistente();
+
+    jdbcTemplate.update("UPDATE credito SET valor_issqn = valor_issqn + 1, "
+        + "tipo_credito = 'ISSQN', data_constituicao = data_constituicao + 31 "
+        + "WHERE numero_credito LIKE 'RES1%'");
+    assertResumoConsistente();
+
+    jdbcTemplate.update("DELETE FROM credito WHERE numero_credito LIKE 'RES2%'");
+    assertResumoConsistente();
+  }
+
+  @Test
+  void resumirAgrupaFiltraEOmiteGruposVazios() {
+    jdbcTemplate.update("""
+        INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn,
+            tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo)
+        VALUES ('RES-A', 'NFSE-RES', DATE '2031-02-10', 10.00, 'ISSQN', true, 5, 200, 0, 200),
+               ('RES-B', 'NFSE-RES', DATE '2031-02-20', 5.50, 'ISSQN', false, 5, 110, 0, 110),
+               ('RES-C', 'NFSE-RES', DATE '2031-03-01', 1.00, 'Outros', true, 5, 20, 0, 20)
+        """);
+    jdbcTemplate.update("DELETE FROM credito WHERE numero_credito = 'RES-C'");
+
+    List<ResumoCreditoDTO> resumo = resumoRepository.resumir(List.of(DimensaoResumo.MES),
+        LocalDate.of(2031, 1, 1), LocalDate.of(2031, 12, 1), null, null);
+
+    assertEquals(1, resumo.size());
+    assertEquals("2031-02", resumo.get(0).getMes());
+    assertNull(resumo.get(0).getTipoCredito());
+    assertEquals(2, resumo.get(0).getQuantidade());
+    assertEquals(new BigDecimal("15.50"), resumo.get(0).getValorIssqn());
+    assertEquals(new BigDecimal("310.00"), resumo.get(0).getBaseCalculo());
+
+    assertEquals(1, resumoRepository.resumir(List.of(), LocalDate.of(2031, 1, 1), null, "ISSQN",
+        true).get(0).getQuantidade());
+  }
+
+  private void assertResumoConsistente() {
+    List<Map<String, Object>> esperado = jdbcTemplate.queryForList(AGREGADO_CREDITO);
+    assertFalse(esperado.isEmpty());
+    assertEquals(esperado, jdbcTemplate.queryForList(RESUMO));
+  }
+}
@@ -0,0 +1,90 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.repository.EstatisticaConsultaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AquecimentoCacheTest {
+
+  @Mock
+  private CreditoService creditoService;
+  @Mock
+  private EstatisticaConsultaRepository estatisticas;
+
+  private SimpleMeterRegistry registry;
+
+  @TempDir
+  Path diretorio;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    registry = new SimpleMeterRegistry();
+  }
+
+  private AquecimentoCache aquecimento(String arquivo, Duration prazo) {
+    return new AquecimentoCache(creditoService, estatisticas, 100, arquivo, 2, 2, prazo,
+        registry);
+  }
+
+  @Test
+  void aquecer_deveCarregarHistoricoEArquivoEmLotes() throws Exception {
+    Path arquivo = Files.writeString(diretorio.resolve("chaves.txt"),
+        "# chaves quentes\nnfse:N1\nN2\n\ncredito:C1\n");
+    when(estatisticas.buscarNfsesMaisConsultadas(100)).thenReturn(List.of("N2", "N3"));
+    when(estatisticas.buscarNumerosMaisConsultados(100)).thenReturn(List.of("C1", "C2"));
+
+    long carregadas = aquecimento(arquivo.toString(), Duration.ofSeconds(5)).aquecer();
+
+    assertEquals(5, carregadas);
+    verify(creditoService).buscarEmLote(List.of("N1", "N2"), List.of());
+    verify(creditoService).buscarEmLote(List.of("N3"), List.of());
+    verify(creditoService).buscarEmLote(List.of(), List.of("C1", "C2"));
+    assertEquals(5, registry.get("creditos.aquecimento.chaves").counter().count());
+  }
+
+  @Test
+  void aquecer_naoDeveFalhar_quandoHistoricoELotesFalham() {
+    when(estatisticas.buscarNfsesMaisConsultadas(anyInt()))
+        .thenThrow(new IllegalStateException("banco fora"));
+
+    assertEquals(0, aquecimento(diretorio.resolve("inexistente").toString(),
+        Duration.ofSeconds(5)).aquecer());
+
+    doReturn(List.of("N1")).when(estatisticas).buscarNfsesMaisConsultadas(anyInt());
+    when(creditoService.buscarEmLote(anyCollection(), anyCollection()))
+        .thenThrow(new IllegalStateException("timeout"));
+
+    assertEquals(0, aquecimento("", Duration.ofSeconds(5)).aquecer());
+  }
+
+  @Test
+  void aquecer_deveRespeitarPrazo() {
+    when(estatisticas.buscarNfsesMaisConsultadas(anyInt()))
+        .thenReturn(List.of("N1", "N2", "N3", "N4", "N5", "N6"));
+    when(creditoService.buscarEmLote(anyCollection(), anyCollection())).thenAnswer(invocacao -> {
+      Thread.sleep(2000);
+      return null;
+    });
+
+    long inicio = System.nanoTime();
+    long carregadas = aquecimento("", Duration.ofMillis(200)).aquecer();
+
+    assertEquals(0, carregadas);
+    assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 1500);
+    assertEquals(1, registry.get("creditos.aquecimento.duracao").timer().count());
+  }
+}
@@ -0,0 +1,76 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.exception.ServicoSobrecarregadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CodificadorSenhasTest {
+
+  private final CountDownLatch liberar = new CountDownLatch(1);
+  private final CountDownLatch iniciado = new CountDownLatch(1);
+  private PasswordEncoder passwordEncoder;
+  private SimpleMeterRegistry registry;
+  private CodificadorSenhas codificador;
+
+  @BeforeEach
+  void setUp() {
+    passwordEncoder = mock(PasswordEncoder.class);
+    // Cada hash fica preso até o teste liberar, simulando o pool ocupado
+    when(passwordEncoder.encode(anyString())).thenAnswer(invocacao -> {
+      iniciado.countDown();
+      liberar.await();
+      return "hash";
+    });
+    registry = new SimpleMeterRegistry();
+    codificador = new CodificadorSenhas(passwordEncoder, 1, 1, Duration.ofMillis(200), registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    liberar.countDown();
+    codificador.destroy();
+  }
+
+  @Test
+  void deveRecusarNaHora_quandoFilaCheia() throws Exception {
+    CompletableFuture.runAsync(() -> codificador.codificar("a"));
+    assertTrue(iniciado.await(2, TimeUnit.SECONDS));
+    assertTrue(codificador.codificarDepois("b", hash -> { }));
+
+    long inicio = System.nanoTime();
+    assertThrows(ServicoSobrecarregadoException.class, () -> codificador.codificar("c"));
+    assertTrue(System.nanoTime() - inicio < TimeUnit.MILLISECONDS.toNanos(100));
+    assertFalse(codificador.codificarDepois("d", hash -> { }));
+    assertEquals(1.0, registry.get("creditos.senha.rejeicoes").tag("motivo", "fila_cheia")
+        .counter().count());
+  }
+
+  @Test
+  void deveRecusar_quandoEsperaPassaDoPrazo() {
+    assertThrows(ServicoSobrecarregadoException.class, () -> codificador.codificar("a"));
+    assertEquals(1.0, registry.get("creditos.senha.rejeicoes").tag("motivo", "espera")
+        .counter().count());
+  }
+
+  @Test
+  void deveRegistrarTempoDoHash() {
+    liberar.countDown();
+    when(passwordEncoder.matches("a", "hash")).thenReturn(true);
+    assertEquals("hash", codificador.codificar("a"));
+    assertTrue(codificador.conferir("a", "hash"));
+    assertEquals(1, registry.get("creditos.senha.hash").tag("operacao", "conferir").timer()
+        .count());
+  }
+}
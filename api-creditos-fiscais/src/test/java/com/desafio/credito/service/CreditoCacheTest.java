@@ -0,0 +1,89 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.CacheEstatisticasDTO;
+import com.desafio.credito.dto.CreditoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditoCacheTest {
+
+  private final AtomicLong relogio = new AtomicLong();
+  private final AtomicInteger carregamentos = new AtomicInteger();
+  private CreditoCache cache;
+  private CreditoDTO creditoDTO;
+
+  @BeforeEach
+  void setUp() {
+    cache = new CreditoCache(true, 100, Duration.ofMinutes(10), Duration.ofSeconds(30),
+        relogio::get);
+    creditoDTO = CreditoDTO.builder().numeroCredito("123456").numeroNfse("7891011").build();
+  }
+
+  private List<CreditoDTO> carregarNfse(String numeroNfse) {
+    carregamentos.incrementAndGet();
+    return "7891011".equals(numeroNfse) ? List.of(creditoDTO) : Collections.emptyList();
+  }
+
+  @Test
+  void buscarPorNfse_deveIrAoCarregadorUmaVez_quandoConsultadoRepetidamente() {
+    cache.buscarPorNfse("7891011", this::carregarNfse);
+    List<CreditoDTO> result = cache.buscarPorNfse("7891011", this::carregarNfse);
+    assertEquals(1, result.size());
+    assertEquals(1, carregamentos.get());
+  }
+
+  @Test
+  void buscarPorNfse_deveExpirarResultadoVazio_antesDoResultadoPositivo() {
+    cache.buscarPorNfse("0000000", this::carregarNfse);
+    cache.buscarPorNfse("7891011", this::carregarNfse);
+    relogio.addAndGet(TimeUnit.SECONDS.toNanos(31));
+    cache.buscarPorNfse("0000000", this::carregarNfse);
+    cache.buscarPorNfse("7891011", this::carregarNfse);
+    assertEquals(3, carregamentos.get());
+  }
+
+  @Test
+  void buscarPorNumero_deveRecarregar_quandoInvalidado() {
+    AtomicInteger chamadas = new AtomicInteger();
+    cache.buscarPorNumero("123456", n -> {
+      chamadas.incrementAndGet();
+      return Optional.of(creditoDTO);
+    });
+    cache.invalidarCredito("123456");
+    cache.buscarPorNumero("123456", n -> {
+      chamadas.incrementAndGet();
+      return Optional.of(creditoDTO);
+    });
+    assertEquals(2, chamadas.get());
+  }
+
+  @Test
+  void estatisticas_deveContarAcertosEFalhas() {
+    cache.buscarPorNfse("7891011", this::carregarNfse);
+    cache.buscarPorNfse("7891011", this::carregarNfse);
+    cache.buscarPorNfse("7891011", this::carregarNfse);
+    CacheEstatisticasDTO stats = cache.estatisticas().stream()
+        .filter(e -> CreditoCache.CACHE_NFSE.equals(e.getCache())).findFirst().orElseThrow();
+    assertEquals(2, stats.getAcertos());
+    assertEquals(1, stats.getFalhas());
+  }
+
+  @Test
+  void buscarPorNfse_deveSempreCarregar_quandoDesabilitado() {
+    CreditoCache desabilitado = new CreditoCache(false, 100, Duration.ofMinutes(10),
+        Duration.ofSeconds(30), relogio::get);
+    desabilitado.buscarPorNfse("7891011", this::carregarNfse);
+    desabilitado.buscarPorNfse("7891011", this::carregarNfse);
+    assertEquals(2, carregamentos.get());
+  }
+}
@@ -0,0 +1,124 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.event.CreditoConsultaEvent;
+import com.desafio.credito.repository.AuditoriaOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CreditoEventPublisherTest {
+
+  @Mock
+  private AuditoriaOutboxRepository outbox;
+
+  @Mock
+  private KafkaTemplate<String, CreditoConsultaEvent> kafkaTemplate;
+
+  @Mock
+  private ObjectProvider<RelayOutboxAuditoria> relay;
+
+  private CreditoEventPublisher publisher;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    publisher = new CreditoEventPublisher(kafkaTemplate, "credito-audit", true, 10, 3,
+        PoliticaTransbordo.DESCARTAR_MAIS_NOVO, Duration.ZERO, Duration.ofSeconds(5),
+        Duration.ofSeconds(5), false, outbox, false, relay, new SimpleMeterRegistry());
+  }
+
+  private static List<CreditoConsultaEvent> lote(String... nfses) {
+    return Arrays.stream(nfses)
+        .map(n -> CreditoConsultaEvent.builder().numeroNfse(n).build()).toList();
+  }
+
+  @Test
+  void enviarLote_deveEncerrarLote_quandoSendFalhaSemBroker() {
+    // Metadados indisponíveis após max.block.ms: o futuro já volta com falha
+    when(kafkaTemplate.send(eq("credito-audit"), anyString(), any()))
+        .thenReturn(CompletableFuture.failedFuture(new TimeoutException("metadados")));
+
+    long inicio = System.nanoTime();
+    publisher.enviarLote(lote("1", "2", "3"));
+
+    assertTrue(System.nanoTime() - inicio < Duration.ofSeconds(1).toNanos());
+    verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+    assertEquals(3, publisher.estatisticas().getFalhas());
+    assertEquals(0, publisher.estatisticas().getEnviados());
+  }
+
+  @Test
+  void enviarLote_deveEnviarTodos_quandoKafkaConfirma() {
+    RecordMetadata metadados = new RecordMetadata(new TopicPartition("credito-audit", 0), 0, 0,
+        0, 0, 0);
+    when(kafkaTemplate.send(eq("credito-audit"), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, metadados)));
+
+    publisher.enviarLote(lote("1", "2", "3"));
+
+    verify(kafkaTemplate, times(3)).send(anyString(), anyString(), any());
+    assertEquals(3, publisher.estatisticas().getEnviados());
+    assertEquals(0, publisher.estatisticas().getFalhas());
+  }
+
+  @Test
+  void estatisticas_deveUsarContagemDoRelay_semContarOutbox() {
+    RelayOutboxAuditoria relayOutbox = mock(RelayOutboxAuditoria.class);
+    when(relayOutbox.pendentes()).thenReturn(42L);
+    when(relay.getIfAvailable()).thenReturn(relayOutbox);
+    CreditoEventPublisher comOutbox = new CreditoEventPublisher(kafkaTemplate, "credito-audit",
+        true, 10, 3, PoliticaTransbordo.DESCARTAR_MAIS_NOVO, Duration.ZERO,
+        Duration.ofSeconds(5), Duration.ofSeconds(5), false, outbox, true, relay,
+        new SimpleMeterRegistry());
+
+    assertEquals(42L, comOutbox.estatisticas().getPendentesOutbox());
+    verify(outbox, never()).pendentes();
+  }
+
+  @Test
+  void publicarEventoAuditoria_deveUsarFila_quandoOutboxFalha() {
+    doThrow(new IllegalStateException("banco fora do ar")).when(outbox).inserir(any());
+    Thread chamador = Thread.currentThread();
+    List<Thread> remetentes = new CopyOnWriteArrayList<>();
+    when(kafkaTemplate.send(eq("credito-audit"), anyString(), any())).thenAnswer(invocacao -> {
+      remetentes.add(Thread.currentThread());
+      return new CompletableFuture<>();
+    });
+    // Modo síncrono configurado: com o outbox, ainda assim nada é enviado na requisição
+    CreditoEventPublisher comOutbox = new CreditoEventPublisher(kafkaTemplate, "credito-audit",
+        false, 10, 3, PoliticaTransbordo.DESCARTAR_MAIS_NOVO, Duration.ZERO,
+        Duration.ofSeconds(5), Duration.ofMillis(100), false, outbox, true, relay,
+        new SimpleMeterRegistry());
+
+    comOutbox.publicarEventoAuditoria(lote("1").get(0));
+
+    verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+    assertEquals(1, comOutbox.estatisticas().getEnfileirados());
+
+    comOutbox.start();
+    try {
+      verify(kafkaTemplate, timeout(2000)).send(eq("credito-audit"), eq("1"), any());
+      assertFalse(remetentes.contains(chamador));
+    } finally {
+      comOutbox.stop();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.CreditoDTO;
+import com.desafio.credito.repository.CreditoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CreditoExportacaoServiceTest {
+
+  @Mock
+  private CreditoRepository creditoRepository;
+
+  private CreditoExportacaoService exportacaoService;
+  private CreditoDTO credito1;
+  private CreditoDTO credito2;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    exportacaoService = new CreditoExportacaoService(creditoRepository, objectMapper);
+
+    credito1 = CreditoDTO.builder().numeroCredito("123456").numeroNfse("7891011")
+        .dataConstituicao(LocalDate.parse("2024-02-25")).valorIssqn(new BigDecimal("1500.75"))
+        .tipoCredito("ISSQN").simplesNacional(true).aliquota(new BigDecimal("5")).build();
+    credito2 = CreditoDTO.builder().numeroCredito("789012").numeroNfse("7891011")
+        .tipoCredito("Outros, \"especial\"").simplesNacional(false)
+        .valorIssqn(new BigDecimal("1E+3")).build();
+  }
+
+  @Test
+  void exportar_deveEscreverUmObjetoJsonPorLinha_quandoNdjson() throws Exception {
+    when(creditoRepository.streamTodos()).thenReturn(Stream.of(credito1, credito2));
+    ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+    long total = exportacaoService.exportar(null, FormatoExportacao.NDJSON, saida);
+
+    String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, total);
+    assertEquals(2, linhas.length);
+    assertTrue(linhas[0].startsWith("{\"numeroCredito\":\"123456\""));
+    assertTrue(linhas[0].contains("\"dataConstituicao\":\"2024-02-25\""));
+    assertTrue(linhas[1].startsWith("{\"numeroCredito\":\"789012\""));
+  }
+
+  @Test
+  void exportar_deveEscaparValoresEUsarDecimaisSemNotacaoCientifica_quandoCsv()
+      throws Exception {
+    when(creditoRepository.streamPorNfse("7891011")).thenReturn(Stream.of(credito1, credito2));
+    ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+    long total = exportacaoService.exportar("7891011", FormatoExportacao.CSV, saida);
+
+    String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, total);
+    assertEquals(3, linhas.length);
+    assertTrue(linhas[0].startsWith("numeroCredito,numeroNfse,"));
+    assertEquals("123456,7891011,2024-02-25,1500.75,ISSQN,true,5,,,", linhas[1]);
+    assertEquals("789012,7891011,,1000,\"Outros, \"\"especial\"\"\",false,,,,", linhas[2]);
+    verify(creditoRepository, never()).streamTodos();
+  }
+
+  @Test
+  void exportar_deveFecharOCursor_aoTerminar() throws Exception {
+    AtomicBoolean fechado = new AtomicBoolean();
+    when(creditoRepository.streamTodos())
+        .thenReturn(Stream.of(credito1).onClose(() -> fechado.set(true)));
+
+    exportacaoService.exportar(null, FormatoExportacao.CSV, new ByteArrayOutputStream());
+
+    assertTrue(fechado.get());
+  }
+
+  @Test
+  void formato_deveRejeitarValorDesconhecido() {
+    assertEquals(FormatoExportacao.CSV, FormatoExportacao.deValor("CsV"));
+    assertThrows(IllegalArgumentException.class, () -> FormatoExportacao.deValor("xml"));
+    verify(creditoRepository, never()).streamTodos();
+  }
+}
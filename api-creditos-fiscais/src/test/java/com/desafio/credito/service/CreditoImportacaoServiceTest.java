@@ -0,0 +1,166 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.ImportacaoResultadoDTO;
+import com.desafio.credito.entity.Credito;
+import com.desafio.credito.mapper.CreditoMapper;
+import com.desafio.credito.repository.CreditoCopyRepository;
+import com.desafio.credito.repository.CreditoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CreditoImportacaoServiceTest {
+
+  private static final String CABECALHO = CreditoExportacaoService.CABECALHO_CSV;
+
+  @Mock
+  private CreditoRepository creditoRepository;
+  @Mock
+  private CreditoCopyRepository copyRepository;
+  @Mock
+  private CreditoCache creditoCache;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private CreditoImportacaoService importacaoService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    importacaoService = new CreditoImportacaoService(creditoRepository, copyRepository,
+        Mappers.getMapper(CreditoMapper.class), creditoCache,
+        new ObjectMapper().findAndRegisterModules(), new TransactionTemplate(transactionManager),
+        2, 10);
+  }
+
+  private static InputStream arquivo(String... linhas) {
+    return new ByteArrayInputStream(String.join("\n", linhas).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String linhaCsv(String numeroCredito, String numeroNfse) {
+    return numeroCredito + "," + numeroNfse
+        + ",2024-02-25,1500.75,ISSQN,true,5.00,30000,5000,25000";
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importar_deveGravarEmLotes_eRejeitarLinhasInvalidas() throws Exception {
+    ImportacaoResultadoDTO resultado = importacaoService.importar(arquivo(CABECALHO,
+        linhaCsv("C1", "N1"), linhaCsv("C2", "N1"), "",
+        "C3,N2,2024-13-01,1,ISSQN,true,5,1,1,1",
+        "C4,N2,2024-02-25,1.234,ISSQN,true,5,1,1,1",
+        "\"C5, especial\",N2,2024-02-25,1,ISSQN,sim,5,1,1,1",
+        linhaCsv("C6", "N3")), FormatoExportacao.CSV, MetodoImportacao.INSERT);
+
+    assertEquals(CreditoImportacaoService.CONCLUIDA, resultado.getSituacao());
+    assertEquals(6, resultado.getLinhasLidas());
+    assertEquals(3, resultado.getImportados());
+    assertEquals(3, resultado.getRejeitados());
+    assertEquals(List.of(5L, 6L, 7L),
+        resultado.getErros().stream().map(e -> e.getLinha()).toList());
+    assertEquals("valorIssqn aceita no máximo 2 casas decimais",
+        resultado.getErros().get(1).getMensagem());
+    assertEquals("C5, especial", resultado.getErros().get(2).getNumeroCredito());
+
+    ArgumentCaptor<List<Credito>> lotes = ArgumentCaptor.forClass(List.class);
+    verify(creditoRepository, times(2)).saveAll(lotes.capture());
+    assertEquals(2, lotes.getAllValues().get(0).size());
+    Credito primeiro = lotes.getAllValues().get(0).get(0);
+    assertNull(primeiro.getId());
+    assertEquals(LocalDate.parse("2024-02-25"), primeiro.getDataConstituicao());
+    assertEquals(new BigDecimal("1500.75"), primeiro.getValorIssqn());
+    verify(creditoCache).invalidarNfse("N3");
+    verify(creditoCache).invalidarCredito("C6");
+    verifyNoInteractions(copyRepository);
+  }
+
+  @Test
+  void importar_deveAceitarColunasEmOutraOrdem() throws Exception {
+    ImportacaoResultadoDTO resultado = importacaoService.importar(arquivo(
+        "numeroNfse,numeroCredito,dataConstituicao,valorIssqn,tipoCredito,simplesNacional,"
+            + "aliquota,valorFaturado,valorDeducao,baseCalculo,observacao",
+        "N1,C1,2024-02-25,1,ISSQN,false,5,1,1,1,ignorada"), FormatoExportacao.CSV,
+        MetodoImportacao.INSERT);
+
+    assertEquals(1, resultado.getImportados());
+    verify(creditoRepository).saveAll(argThat(creditos -> {
+      Credito credito = creditos.iterator().next();
+      return "C1".equals(credito.getNumeroCredito()) && "N1".equals(credito.getNumeroNfse());
+    }));
+  }
+
+  @Test
+  void importar_deveRejeitarCreditosJaCadastradosERepetidos() throws Exception {
+    when(creditoRepository.buscarNumerosExistentes(anyCollection())).thenReturn(List.of("C1"));
+
+    ImportacaoResultadoDTO resultado = importacaoService.importar(arquivo(
+        "{\"numeroCredito\":\"C2\",\"numeroNfse\":\"N1\",\"dataConstituicao\":\"2024-02-25\","
+            + "\"valorIssqn\":1,\"tipoCredito\":\"ISSQN\",\"simplesNacional\":true,"
+            + "\"aliquota\":5,\"valorFaturado\":1,\"valorDeducao\":1,\"baseCalculo\":1}",
+        "{\"numeroCredito\":\"C2\",\"numeroNfse\":\"N1\",\"dataConstituicao\":\"2024-02-25\","
+            + "\"valorIssqn\":1,\"tipoCredito\":\"ISSQN\",\"simplesNacional\":true,"
+            + "\"aliquota\":5,\"valorFaturado\":1,\"valorDeducao\":1,\"baseCalculo\":1}",
+        "{\"numeroCredito\":\"C1\",\"numeroNfse\":\"N1\",\"dataConstituicao\":\"2024-02-25\","
+            + "\"valorIssqn\":1,\"tipoCredito\":\"ISSQN\",\"simplesNacional\":true,"
+            + "\"aliquota\":5,\"valorFaturado\":1,\"valorDeducao\":1,\"baseCalculo\":1}",
+        "{\"numeroCredito\":"), FormatoExportacao.NDJSON, MetodoImportacao.COPY);
+
+    assertEquals(1, resultado.getImportados());
+    assertEquals(3, resultado.getRejeitados());
+    assertEquals(List.of("Crédito repetido no arquivo", "Crédito já cadastrado"),
+        resultado.getErros().stream().filter(e -> e.getNumeroCredito() != null)
+            .map(e -> e.getMensagem()).toList());
+    assertTrue(resultado.getErros().stream()
+        .anyMatch(e -> e.getLinha() == 4 && e.getMensagem().startsWith("JSON inválido")));
+    verify(copyRepository, times(2)).copiar(anyList());
+    verify(creditoRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void importar_deveRejeitarCabecalhoSemColunaObrigatoria() {
+    assertThrows(IllegalArgumentException.class, () -> importacaoService.importar(
+        arquivo("numeroCredito,numeroNfse", "C1,N1"), FormatoExportacao.CSV,
+        MetodoImportacao.INSERT));
+    verifyNoInteractions(creditoRepository);
+  }
+
+  @Test
+  void importar_deveInterromperEManterLotesGravados_quandoGravacaoFalha() throws Exception {
+    when(copyRepository.copiar(anyList())).thenReturn(2L)
+        .thenThrow(new IllegalStateException("duplicate key"));
+
+    ImportacaoResultadoDTO resultado = importacaoService.importar(arquivo(CABECALHO,
+        linhaCsv("C1", "N1"), linhaCsv("C2", "N1"), linhaCsv("C3", "N1"), linhaCsv("C4", "N1"),
+        linhaCsv("C5", "N1")), FormatoExportacao.CSV, MetodoImportacao.COPY);
+
+    assertEquals(CreditoImportacaoService.FALHOU, resultado.getSituacao());
+    assertEquals(2, resultado.getImportados());
+    assertTrue(resultado.getMensagem().contains("duplicate key"));
+    assertEquals(resultado, importacaoService.listarImportacoes().get(0));
+  }
+
+  @Test
+  void dividirCsv_deveTratarAspas() {
+    assertEquals(List.of("a", "b, \"c\"", ""),
+        CreditoImportacaoService.dividirCsv("a,\"b, \"\"c\"\"\","));
+    assertThrows(IllegalArgumentException.class,
+        () -> CreditoImportacaoService.dividirCsv("a,\"b"));
+  }
+}
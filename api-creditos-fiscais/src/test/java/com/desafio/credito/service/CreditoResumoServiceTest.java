@@ -0,0 +1,68 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.ResumoCreditoDTO;
+import com.desafio.credito.repository.DimensaoResumo;
+import com.desafio.credito.repository.ResumoCreditoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CreditoResumoServiceTest {
+
+  @Mock
+  private ResumoCreditoRepository resumoRepository;
+  @InjectMocks
+  private CreditoResumoService resumoService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void resumir_deveAgruparPelasTresDimensoes_quandoSemAgrupamento() {
+    resumoService.resumir(null, null, null, null, null);
+    verify(resumoRepository).resumir(List.of(DimensaoResumo.MES, DimensaoResumo.TIPO_CREDITO,
+        DimensaoResumo.SIMPLES_NACIONAL), null, null, null, null);
+  }
+
+  @Test
+  void resumir_deveRepassarDimensoesSemRepeticaoEPeriodoEmMeses() {
+    resumoService.resumir("tipoCredito, MES,tipocredito", "2024-01", "2024-03", "ISSQN", true);
+    verify(resumoRepository).resumir(List.of(DimensaoResumo.TIPO_CREDITO, DimensaoResumo.MES),
+        LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1), "ISSQN", true);
+  }
+
+  @Test
+  void resumir_deveRejeitarAgrupamentoOuPeriodoInvalido() {
+    assertThrows(IllegalArgumentException.class,
+        () -> resumoService.resumir("cliente", null, null, null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> resumoService.resumir(" , ", null, null, null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> resumoService.resumir(null, "2024-13", null, null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> resumoService.resumir(null, "2024-05", "2024-04", null, null));
+    verifyNoInteractions(resumoRepository);
+  }
+
+  @Test
+  void totalizar_deveRetornarZeros_quandoNenhumCreditoAtende() {
+    when(resumoRepository.resumir(eq(List.of()), any(), any(), any(), any()))
+        .thenReturn(List.of());
+    ResumoCreditoDTO total = resumoService.totalizar("2030-01", null, null, false);
+    assertEquals(0, total.getQuantidade());
+    assertEquals(BigDecimal.ZERO, total.getValorIssqn());
+    assertNull(total.getMes());
+  }
+}
@@ -1,16 +1,21 @@
 package com.desafio.credito.service;
 
+import com.desafio.credito.dto.BuscaCreditosDTO;
+import com.desafio.credito.dto.ConsultaLoteResponseDTO;
 import com.desafio.credito.dto.CreditoDTO;
-import com.desafio.credito.entity.Credito;
+import com.desafio.credito.dto.PaginaCreditosDTO;
 import com.desafio.credito.exception.ResourceNotFoundException;
-import com.desafio.credito.mapper.CreditoMapper;
 import com.desafio.credito.repository.CreditoRepository;
+import com.desafio.credito.repository.LinhaPaginaCredito;
+import com.desafio.credito.repository.VersaoCreditos;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
@@ -18,20 +23,21 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class CreditoServiceTest {
 
   @Mock
   private CreditoRepository creditoRepository;
-  @Mock
-  private CreditoMapper creditoMapper;
+  @Spy
+  private CreditoCache creditoCache =
+      new CreditoCache(true, 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
   @InjectMocks
   private CreditoService creditoService;
 
-  private Credito credito1;
-  private Credito credito2;
-  private Credito credito3;
   private CreditoDTO creditoDTO1;
   private CreditoDTO creditoDTO2;
   private CreditoDTO creditoDTO3;
@@ -40,21 +46,6 @@ class CreditoServiceTest {
   void setUp() {
     MockitoAnnotations.openMocks(this);
 
-    credito1 = Credito.builder().id(1L).numeroCredito("123456").numeroNfse("7891011")
-        .dataConstituicao(LocalDate.parse("2024-02-25")).valorIssqn(new BigDecimal("1500.75"))
-        .tipoCredito("ISSQN").simplesNacional(true).aliquota(new BigDecimal("5"))
-        .valorFaturado(new BigDecimal("30000")).valorDeducao(new BigDecimal("5000"))
-        .baseCalculo(new BigDecimal("25000")).build();
-    credito2 = Credito.builder().id(2L).numeroCredito("789012").numeroNfse("7891011")
-        .dataConstituicao(LocalDate.parse("2024-02-26")).valorIssqn(new BigDecimal("1200.5"))
-        .tipoCredito("ISSQN").simplesNacional(false).aliquota(new BigDecimal("4.5"))
-        .valorFaturado(new BigDecimal("25000")).valorDeducao(new BigDecimal("4000"))
-        .baseCalculo(new BigDecimal("21000")).build();
-    credito3 = Credito.builder().id(3L).numeroCredito("654321").numeroNfse("1122334")
-        .dataConstituicao(LocalDate.parse("2024-01-15")).valorIssqn(new BigDecimal("800.5"))
-        .tipoCredito("Outros").simplesNacional(true).aliquota(new BigDecimal("3.5"))
-        .valorFaturado(new BigDecimal("20000")).valorDeducao(new BigDecimal("3000"))
-        .baseCalculo(new BigDecimal("17000")).build();
     creditoDTO1 = CreditoDTO.builder().numeroCredito("123456").numeroNfse("7891011")
         .dataConstituicao(LocalDate.parse("2024-02-25")).valorIssqn(new BigDecimal("1500.75"))
         .tipoCredito("ISSQN").simplesNacional(true).aliquota(new BigDecimal("5"))
@@ -74,10 +65,8 @@ class CreditoServiceTest {
 
   @Test
   void buscarCreditosPorNfse_RetornarListaDTO_quandoEncontrarCreditos() {
-    when(creditoRepository.findByNumeroNfse("7891011"))
-        .thenReturn(Arrays.asList(credito1, credito2));
-    when(creditoMapper.toDTO(credito1)).thenReturn(creditoDTO1);
-    when(creditoMapper.toDTO(credito2)).thenReturn(creditoDTO2);
+    when(creditoRepository.buscarDTOsPorNfse("7891011"))
+        .thenReturn(Arrays.asList(creditoDTO1, creditoDTO2));
     List<CreditoDTO> result = creditoService.buscarCreditosPorNfse("7891011");
     assertEquals(2, result.size());
     assertEquals("123456", result.get(0).getNumeroCredito());
@@ -86,15 +75,14 @@ class CreditoServiceTest {
 
   @Test
   void buscarCreditosPorNfse_LancarExcecao_quandoNaoEncontrarCreditos() {
-    when(creditoRepository.findByNumeroNfse("0000000")).thenReturn(Collections.emptyList());
+    when(creditoRepository.buscarDTOsPorNfse("0000000")).thenReturn(Collections.emptyList());
     assertThrows(ResourceNotFoundException.class,
         () -> creditoService.buscarCreditosPorNfse("0000000"));
   }
 
   @Test
   void buscarCreditoPorNumero_RetornarDTO_quandoEncontrarCredito() {
-    when(creditoRepository.findByNumeroCredito("654321")).thenReturn(Optional.of(credito3));
-    when(creditoMapper.toDTO(credito3)).thenReturn(creditoDTO3);
+    when(creditoRepository.buscarDTOPorNumero("654321")).thenReturn(Optional.of(creditoDTO3));
     CreditoDTO result = creditoService.buscarCreditoPorNumero("654321");
     assertNotNull(result);
     assertEquals("654321", result.getNumeroCredito());
@@ -104,8 +92,193 @@ class CreditoServiceTest {
 
   @Test
   void buscarCreditoPorNumero_LancarExcecao_quandoNaoEncontrarCredito() {
-    when(creditoRepository.findByNumeroCredito("999999")).thenReturn(Optional.empty());
+    when(creditoRepository.buscarDTOPorNumero("999999")).thenReturn(Optional.empty());
     assertThrows(ResourceNotFoundException.class,
         () -> creditoService.buscarCreditoPorNumero("999999"));
   }
+
+  @Test
+  void buscarCreditosPorNfse_ConsultarRepositorioUmaVez_quandoRepetida() {
+    when(creditoRepository.buscarDTOsPorNfse("7891011"))
+        .thenReturn(Arrays.asList(creditoDTO1, creditoDTO2));
+    creditoService.buscarCreditosPorNfse("7891011");
+    creditoService.buscarCreditosPorNfse("7891011");
+    verify(creditoRepository, times(1)).buscarDTOsPorNfse("7891011");
+  }
+
+  @Test
+  void buscarCreditoPorNumero_ConsultarRepositorioNovamente_quandoCacheInvalidado() {
+    when(creditoRepository.buscarDTOPorNumero("654321")).thenReturn(Optional.of(creditoDTO3));
+    creditoService.buscarCreditoPorNumero("654321");
+    creditoService.invalidarCache(null, "654321");
+    creditoService.buscarCreditoPorNumero("654321");
+    verify(creditoRepository, times(2)).buscarDTOPorNumero("654321");
+  }
+
+  @Test
+  void buscarCreditoPorNumero_RecarregarCache_quandoEtagAtualDiferirDaEntrada() {
+    CreditoDTO atualizado = CreditoDTO.builder().numeroCredito("654321").numeroNfse("1122334")
+        .valorIssqn(new BigDecimal("900")).versao(8L).build();
+    creditoDTO3.setVersao(7L);
+    when(creditoRepository.buscarDTOPorNumero("654321")).thenReturn(Optional.of(creditoDTO3));
+    when(creditoRepository.recarregarDTOPorNumero("654321")).thenReturn(Optional.of(atualizado));
+    creditoService.buscarCreditoPorNumero("654321");
+    assertSame(creditoDTO3, creditoService.buscarCreditoPorNumero("654321", "\"7\""));
+    CreditoDTO result = creditoService.buscarCreditoPorNumero("654321", "\"8\"");
+    assertEquals("\"8\"", CreditoService.etag(result));
+    assertEquals(new BigDecimal("900"), result.getValorIssqn());
+    // A recarga não passa pelo cache de consultas do Hibernate
+    verify(creditoRepository, times(1)).buscarDTOPorNumero("654321");
+    verify(creditoRepository, times(1)).recarregarDTOPorNumero("654321");
+  }
+
+  @Test
+  void etag_CalcularDosCreditosServidos() {
+    creditoDTO1.setVersao(41L);
+    creditoDTO2.setVersao(39L);
+    assertEquals("\"2-41\"", CreditoService.etag(List.of(creditoDTO1, creditoDTO2)));
+    assertNull(CreditoService.etag(List.<CreditoDTO>of()));
+    assertNull(CreditoService.etag(creditoDTO3));
+  }
+
+  @Test
+  void buscarEmLote_AgruparResultadosEListarChavesNaoEncontradas() {
+    when(creditoRepository.buscarDTOsPorNfses(anyCollection()))
+        .thenReturn(Arrays.asList(creditoDTO1, creditoDTO2));
+    when(creditoRepository.buscarDTOsPorNumeros(anyCollection()))
+        .thenReturn(List.of(creditoDTO3));
+
+    ConsultaLoteResponseDTO result = creditoService.buscarEmLote(
+        List.of("7891011", "0000000"), List.of("654321", "999999"));
+
+    assertEquals(2, result.getCreditosPorNfse().get("7891011").size());
+    assertEquals("1122334", result.getCreditosPorNumero().get("654321").getNumeroNfse());
+    assertEquals(List.of("0000000"), result.getNfseNaoEncontradas());
+    assertEquals(List.of("999999"), result.getCreditosNaoEncontrados());
+    assertEquals(3, result.getQuantidadeCreditos());
+    verify(creditoRepository, times(1)).buscarDTOsPorNfses(anyCollection());
+  }
+
+  @Test
+  void buscarEmLote_UsarCacheParaChavesJaConsultadas() {
+    when(creditoRepository.buscarDTOsPorNfse("7891011"))
+        .thenReturn(Arrays.asList(creditoDTO1, creditoDTO2));
+    creditoService.buscarCreditosPorNfse("7891011");
+
+    ConsultaLoteResponseDTO result = creditoService.buscarEmLote(List.of("7891011"), null);
+
+    assertEquals(2, result.getQuantidadeCreditos());
+    verify(creditoRepository, never()).buscarDTOsPorNfses(anyCollection());
+  }
+
+  @Test
+  void buscarEmLote_LancarExcecao_quandoSemChaves() {
+    assertThrows(IllegalArgumentException.class,
+        () -> creditoService.buscarEmLote(List.of(" "), null));
+  }
+
+  @Test
+  void listarCreditos_RetornarCursor_quandoHouverMaisPaginas() {
+    when(creditoRepository.buscarPagina(3)).thenReturn(Arrays.asList(
+        new LinhaPaginaCredito(2L, creditoDTO2), new LinhaPaginaCredito(1L, creditoDTO1),
+        new LinhaPaginaCredito(3L, creditoDTO3)));
+
+    PaginaCreditosDTO pagina = creditoService.listarCreditos(null, 2);
+
+    assertEquals(List.of(creditoDTO2, creditoDTO1), pagina.getCreditos());
+    assertTrue(pagina.isPossuiMais());
+    assertEquals(new CursorPagina(LocalDate.parse("2024-02-25"), 1L),
+        CursorPagina.decodificar(pagina.getProximoCursor()));
+  }
+
+  @Test
+  void listarCreditos_ContinuarDoCursor_semCursorNaUltimaPagina() {
+    String cursor = new CursorPagina(LocalDate.parse("2024-02-25"), 1L).codificar();
+    when(creditoRepository.buscarPaginaApos(LocalDate.parse("2024-02-25"), 1L, 3))
+        .thenReturn(List.of(new LinhaPaginaCredito(3L, creditoDTO3)));
+
+    PaginaCreditosDTO pagina = creditoService.listarCreditos(cursor, 2);
+
+    assertEquals(1, pagina.getCreditos().size());
+    assertFalse(pagina.isPossuiMais());
+    assertNull(pagina.getProximoCursor());
+  }
+
+  @Test
+  void buscarCreditosPorNfsePaginado_LancarExcecao_quandoCursorOuTamanhoInvalido() {
+    assertThrows(IllegalArgumentException.class,
+        () -> creditoService.buscarCreditosPorNfsePaginado("7891011", "nao-e-cursor", 10));
+    assertThrows(IllegalArgumentException.class,
+        () -> creditoService.buscarCreditosPorNfsePaginado("7891011", null, 0));
+    verifyNoInteractions(creditoRepository);
+  }
+
+  @Test
+  void buscarCreditosPorNfsePaginado_LancarExcecao_quandoNfseSemCreditos() {
+    when(creditoRepository.buscarPaginaPorNfse("0000000", 101)).thenReturn(List.of());
+    assertThrows(ResourceNotFoundException.class,
+        () -> creditoService.buscarCreditosPorNfsePaginado("0000000", null, null));
+  }
+
+  @Test
+  void buscarCreditosPorNfse_RecarregarSemCacheDeConsultas_quandoVersaoEmCacheAtrasada() {
+    creditoDTO1.setVersao(40L);
+    creditoDTO2.setVersao(41L);
+    CreditoDTO atualizado = CreditoDTO.builder().numeroCredito("789012").numeroNfse("7891011")
+        .versao(43L).build();
+    when(creditoRepository.buscarDTOsPorNfse("7891011"))
+        .thenReturn(Arrays.asList(creditoDTO1, creditoDTO2));
+    when(creditoRepository.recarregarDTOsPorNfse("7891011"))
+        .thenReturn(Arrays.asList(creditoDTO1, atualizado));
+
+    creditoService.buscarCreditosPorNfse("7891011");
+    List<CreditoDTO> resultado = creditoService.buscarCreditosPorNfse("7891011", "\"2-43\"");
+
+    assertEquals("\"2-43\"", CreditoService.etag(resultado));
+    verify(creditoRepository, times(1)).buscarDTOsPorNfse("7891011");
+    // A entrada recarregada volta ao cache: a próxima leitura não vai ao banco
+    assertSame(resultado, creditoService.buscarCreditosPorNfse("7891011", "\"2-43\""));
+    verify(creditoRepository, times(1)).recarregarDTOsPorNfse("7891011");
+  }
+
+  @Test
+  void etag_CombinarQuantidadeEVersao_eVazioQuandoNaoExistir() {
+    when(creditoRepository.buscarVersaoPorNfse("7891011")).thenReturn(new VersaoCreditos(2, 41L));
+    when(creditoRepository.buscarVersaoPorNfse("0000000")).thenReturn(new VersaoCreditos(0, null));
+    when(creditoRepository.buscarVersaoPorNumero("654321")).thenReturn(Optional.of(7L));
+    assertEquals(Optional.of("\"2-41\""),
+        creditoService.versaoPorNfse("7891011").map(CreditoService::etag));
+    assertEquals(Optional.empty(), creditoService.versaoPorNfse("0000000"));
+    assertEquals(Optional.of("\"7\""), creditoService.etagPorNumero("654321"));
+    assertEquals(Optional.empty(), creditoService.etagPorNumero("999999"));
+  }
+
+  @Test
+  void buscarPorTrecho_CompletarPrefixoComConteudoSemRepetir() {
+    when(creditoRepository.buscarNfsesPorPrefixo("789%", 3)).thenReturn(List.of("7891011"));
+    when(creditoRepository.buscarNfsesContendo("%789%", 1000, 4))
+        .thenReturn(List.of("17891011", "7891011", "27890000", "37890000"));
+    BuscaCreditosDTO busca = creditoService.buscarPorTrecho(" 789 ", "NFSE", 3);
+    assertEquals(List.of("7891011", "17891011", "27890000"), busca.getNumerosNfse());
+    assertNull(busca.getNumerosCredito());
+    verify(creditoRepository, never()).buscarNumerosPorPrefixo(anyString(), anyInt());
+  }
+
+  @Test
+  void buscarPorTrecho_EscaparCuringaERecusarTrechoCurto() {
+    when(creditoRepository.buscarNumerosPorPrefixo("1\\_2%", 10)).thenReturn(List.of());
+    when(creditoRepository.buscarNumerosContendo("%1\\_2%", 1000, 10)).thenReturn(List.of());
+    BuscaCreditosDTO busca = creditoService.buscarPorTrecho("1_2", null, null);
+    assertEquals(List.of(), busca.getNumerosCredito());
+    verify(creditoRepository).buscarNfsesPorPrefixo("1\\_2%", 10);
+    verify(creditoRepository).buscarNfsesContendo("%1\\_2%", 1000, 10);
+    assertThrows(IllegalArgumentException.class,
+        () -> creditoService.buscarPorTrecho(" 12 ", null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> creditoService.buscarPorTrecho(" ", null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> creditoService.buscarPorTrecho("123", "cliente", null));
+    assertThrows(IllegalArgumentException.class,
+        () -> creditoService.buscarPorTrecho("123", null, 51));
+  }
 }
@@ -0,0 +1,107 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.event.CreditoConsultaEvent;
+import com.desafio.credito.event.EnumStatusConsulta;
+import com.desafio.credito.repository.EstatisticaConsultaRepository;
+import com.desafio.credito.repository.EstatisticaConsultaRepository.Incremento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class EstatisticaConsultaConsumerTest {
+
+  @Mock
+  private EstatisticaConsultaRepository repository;
+
+  @Mock
+  private Acknowledgment ack;
+
+  private SimpleMeterRegistry registry;
+  private EstatisticaConsultaConsumer consumer;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    registry = new SimpleMeterRegistry();
+    consumer = new EstatisticaConsultaConsumer(repository, registry);
+  }
+
+  private static ConsumerRecord<String, CreditoConsultaEvent> registro(long offset,
+      CreditoConsultaEvent evento) {
+    return new ConsumerRecord<>("credito-audit", 0, offset,
+        evento != null ? evento.getNumeroNfse() : null, evento);
+  }
+
+  private static CreditoConsultaEvent evento(String usuario, String nfse,
+      EnumStatusConsulta status, Integer resultados, String dataHora) {
+    return CreditoConsultaEvent.builder().usuario(usuario).numeroNfse(nfse).status(status)
+        .quantidadeResultados(resultados)
+        .dataHoraConsulta(dataHora != null ? LocalDateTime.parse(dataHora) : null).build();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void consumir_deveAgregarPorUsuarioNfseCreditoEStatus_antesDeGravar() {
+    List<ConsumerRecord<String, CreditoConsultaEvent>> registros = List.of(
+        registro(0, evento("ana", "7891011", EnumStatusConsulta.SUCESSO, 2, "2024-03-01T10:00")),
+        registro(1, evento("ana", "7891011", EnumStatusConsulta.SUCESSO, 3, "2024-03-01T12:00")),
+        registro(2, evento("ana", "7891011", EnumStatusConsulta.SUCESSO, 1, "2024-03-01T11:00")),
+        registro(3, evento("ana", "7891011", EnumStatusConsulta.NAO_ENCONTRADO, 0, null)),
+        registro(4, evento(null, null, EnumStatusConsulta.ERRO, null, "2024-03-02T09:00")),
+        registro(5, CreditoConsultaEvent.builder().usuario("ana").numeroNfse("7891011")
+            .numeroCredito("123456").status(EnumStatusConsulta.SUCESSO).quantidadeResultados(1)
+            .dataHoraConsulta(LocalDateTime.parse("2024-03-01T13:00")).build()));
+
+    consumer.consumir(registros, ack);
+
+    ArgumentCaptor<Collection<Incremento>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(repository).somar(captor.capture());
+    List<Incremento> incrementos = new ArrayList<>(captor.getValue());
+    assertEquals(4, incrementos.size());
+    assertTrue(incrementos.contains(new Incremento("ana", "7891011", "", "SUCESSO", 3, 6,
+        LocalDateTime.parse("2024-03-01T12:00"))));
+    assertTrue(incrementos.contains(new Incremento("ana", "7891011", "123456", "SUCESSO", 1, 1,
+        LocalDateTime.parse("2024-03-01T13:00"))));
+    assertTrue(incrementos.contains(
+        new Incremento("ana", "7891011", "", "NAO_ENCONTRADO", 1, 0, null)));
+    assertTrue(incrementos.contains(new Incremento("", "", "", "ERRO", 1, 0,
+        LocalDateTime.parse("2024-03-02T09:00"))));
+    verify(ack).acknowledge();
+    assertEquals(6, registry.get("creditos.estatisticas.lote").summary().totalAmount());
+  }
+
+  @Test
+  void consumir_deveIgnorarRegistrosIlegiveis_eConfirmarOLote() {
+    consumer.consumir(List.of(registro(0, null),
+        registro(1, evento("ana", "1", EnumStatusConsulta.SUCESSO, 1, null))), ack);
+
+    verify(repository).somar(argThat(incrementos -> incrementos.size() == 1));
+    verify(ack).acknowledge();
+    assertEquals(1, registry.get("creditos.estatisticas.invalidos").counter().count());
+  }
+
+  @Test
+  void consumir_naoDeveConfirmarOffset_quandoGravacaoFalha() {
+    doThrow(new RuntimeException("banco indisponível")).when(repository)
+        .somar(anyCollection());
+
+    assertThrows(RuntimeException.class, () -> consumer.consumir(
+        List.of(registro(0, evento("ana", "1", EnumStatusConsulta.SUCESSO, 1, null))), ack));
+
+    verify(ack, never()).acknowledge();
+  }
+}
@@ -0,0 +1,170 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.dto.FilaAuditoriaEstatisticasDTO;
+import com.desafio.credito.event.CreditoConsultaEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilaEventosAuditoriaTest {
+
+  private final List<List<String>> lotes = new CopyOnWriteArrayList<>();
+
+  private FilaEventosAuditoria criarFila(int capacidade, PoliticaTransbordo politica) {
+    return new FilaEventosAuditoria(capacidade, 3, politica, Duration.ofMillis(20),
+        lote -> lotes.add(lote.stream().map(CreditoConsultaEvent::getNumeroNfse).toList()));
+  }
+
+  private static CreditoConsultaEvent evento(String numeroNfse) {
+    return CreditoConsultaEvent.builder().numeroNfse(numeroNfse).build();
+  }
+
+  private List<String> enviados() {
+    List<String> todos = new ArrayList<>();
+    lotes.forEach(todos::addAll);
+    return todos;
+  }
+
+  @Test
+  void enfileirar_deveDescartarOMaisAntigo_quandoCheia() {
+    FilaEventosAuditoria fila = criarFila(2, PoliticaTransbordo.DESCARTAR_MAIS_ANTIGO);
+    fila.enfileirar(evento("1"));
+    fila.enfileirar(evento("2"));
+    assertTrue(fila.enfileirar(evento("3")));
+
+    fila.iniciar();
+    fila.parar(Duration.ofSeconds(5));
+
+    assertEquals(List.of("2", "3"), enviados());
+    assertEquals(1, fila.estatisticas(true).getDescartados());
+  }
+
+  @Test
+  void enfileirar_deveDescartarOMaisNovo_quandoCheia() {
+    FilaEventosAuditoria fila = criarFila(2, PoliticaTransbordo.DESCARTAR_MAIS_NOVO);
+    fila.enfileirar(evento("1"));
+    fila.enfileirar(evento("2"));
+    assertFalse(fila.enfileirar(evento("3")));
+
+    fila.iniciar();
+    fila.parar(Duration.ofSeconds(5));
+
+    assertEquals(List.of("1", "2"), enviados());
+  }
+
+  @Test
+  void enfileirar_deveDesistirAposEsperaMaxima_quandoBloquear() {
+    FilaEventosAuditoria fila = criarFila(1, PoliticaTransbordo.BLOQUEAR);
+    fila.enfileirar(evento("1"));
+
+    long inicio = System.nanoTime();
+    assertFalse(fila.enfileirar(evento("2")));
+
+    assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(20));
+    assertEquals(1, fila.estatisticas(true).getDescartados());
+  }
+
+  @Test
+  void remetente_deveEnviarEmLotesLimitados_eNaoBloquearQuemEnfileira() throws Exception {
+    CountDownLatch liberarRemetente = new CountDownLatch(1);
+    FilaEventosAuditoria fila = new FilaEventosAuditoria(100, 3,
+        PoliticaTransbordo.DESCARTAR_MAIS_NOVO, Duration.ZERO, lote -> {
+          try {
+            // Simula broker indisponível: o remetente fica preso no envio
+            liberarRemetente.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          lotes.add(lote.stream().map(CreditoConsultaEvent::getNumeroNfse).toList());
+        });
+    fila.iniciar();
+
+    long inicio = System.nanoTime();
+    for (int i = 0; i < 7; i++) {
+      assertTrue(fila.enfileirar(evento(String.valueOf(i))));
+    }
+    assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+
+    liberarRemetente.countDown();
+    fila.parar(Duration.ofSeconds(5));
+
+    assertEquals(7, enviados().size());
+    assertTrue(lotes.stream().allMatch(lote -> lote.size() <= 3));
+  }
+
+  @Test
+  void parar_deveContarComoDescartadosOsEventosRestantes_quandoPrazoExpira() throws Exception {
+    CountDownLatch remetenteOcupado = new CountDownLatch(1);
+    FilaEventosAuditoria fila = new FilaEventosAuditoria(100, 3,
+        PoliticaTransbordo.DESCARTAR_MAIS_NOVO, Duration.ZERO, lote -> {
+          remetenteOcupado.countDown();
+          try {
+            // Broker que nunca confirma
+            new CountDownLatch(1).await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    for (int i = 0; i < 7; i++) {
+      fila.enfileirar(evento(String.valueOf(i)));
+    }
+    fila.iniciar();
+    assertTrue(remetenteOcupado.await(5, TimeUnit.SECONDS));
+
+    fila.parar(Duration.ofMillis(100));
+
+    // O primeiro lote (3) já estava com o remetente; os outros 4 ficaram na fila
+    assertEquals(0, fila.profundidade());
+    assertEquals(4, fila.totalDescartados());
+    assertFalse(fila.isAtiva());
+  }
+
+  @Test
+  void enfileirar_deveRecusarEContar_aposParar() {
+    FilaEventosAuditoria fila = criarFila(10, PoliticaTransbordo.DESCARTAR_MAIS_ANTIGO);
+    fila.enfileirar(evento("1"));
+    fila.iniciar();
+    fila.parar(Duration.ofSeconds(5));
+
+    assertFalse(fila.enfileirar(evento("2")));
+    fila.iniciar();
+
+    assertFalse(fila.isAtiva());
+    assertEquals(0, fila.profundidade());
+    assertEquals(List.of("1"), enviados());
+    assertEquals(1, fila.totalDescartados());
+  }
+
+  @Test
+  void parar_deveContarComoDescartadosOsEventosNuncaIniciados() {
+    FilaEventosAuditoria fila = criarFila(10, PoliticaTransbordo.DESCARTAR_MAIS_NOVO);
+    fila.enfileirar(evento("1"));
+    fila.enfileirar(evento("2"));
+
+    fila.parar(Duration.ofSeconds(5));
+
+    assertTrue(enviados().isEmpty());
+    assertEquals(2, fila.totalDescartados());
+  }
+
+  @Test
+  void estatisticas_deveCalcularLatenciaEResultadoDosEnvios() {
+    FilaEventosAuditoria fila = criarFila(10, PoliticaTransbordo.DESCARTAR_MAIS_NOVO);
+    fila.registrarEnvio(TimeUnit.MILLISECONDS.toNanos(2), true);
+    fila.registrarEnvio(TimeUnit.MILLISECONDS.toNanos(6), false);
+
+    FilaAuditoriaEstatisticasDTO estatisticas = fila.estatisticas(true);
+
+    assertEquals(1, estatisticas.getEnviados());
+    assertEquals(1, estatisticas.getFalhas());
+    assertEquals(4.0, estatisticas.getLatenciaMediaMs(), 0.001);
+    assertEquals(6.0, estatisticas.getLatenciaMaximaMs(), 0.001);
+  }
+}
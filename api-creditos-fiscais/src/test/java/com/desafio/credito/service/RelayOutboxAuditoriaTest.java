@@ -0,0 +1,151 @@
+package com.desafio.credito.service;
+
+import com.desafio.credito.event.CreditoConsultaEvent;
+import com.desafio.credito.event.CreditoConsultaEventCodec;
+import com.desafio.credito.event.EnumStatusConsulta;
+import com.desafio.credito.repository.AuditoriaOutboxRepository;
+import com.desafio.credito.repository.AuditoriaOutboxRepository.RegistroOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RelayOutboxAuditoriaTest {
+
+  @Mock
+  private AuditoriaOutboxRepository outbox;
+
+  @Mock
+  private KafkaTemplate<String, CreditoConsultaEvent> kafkaTemplate;
+
+  private SimpleMeterRegistry registry;
+  private RelayOutboxAuditoria relay;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    registry = new SimpleMeterRegistry();
+    relay = new RelayOutboxAuditoria(outbox, kafkaTemplate, "credito-audit", 2,
+        Duration.ofMillis(10), Duration.ofMillis(200), Duration.ofSeconds(5), false, registry);
+  }
+
+  private static RegistroOutbox registro(long id, String nfse) {
+    CreditoConsultaEvent evento = CreditoConsultaEvent.builder().numeroNfse(nfse)
+        .status(EnumStatusConsulta.SUCESSO).build();
+    return new RegistroOutbox(id, nfse, CreditoConsultaEventCodec.codificar(evento));
+  }
+
+  @Test
+  void publicarLote_deveEnviarEApagar_quandoKafkaConfirma() {
+    when(outbox.reservar(2, Duration.ofSeconds(5)))
+        .thenReturn(List.of(registro(1, "111"), registro(2, "222")));
+    when(kafkaTemplate.send(eq("credito-audit"), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    assertEquals(2, relay.publicarLote());
+
+    verify(kafkaTemplate).send(eq("credito-audit"), eq("111"),
+        argThat(e -> "111".equals(e.getNumeroNfse())));
+    verify(outbox).excluir(List.of(1L, 2L));
+    verify(outbox, never()).liberar(any());
+    assertEquals(2, registry.get("creditos.auditoria.outbox.publicados").counter().count());
+  }
+
+  @Test
+  void publicarLote_deveApagarSoOsConfirmados_eLiberarOsQueFalharam() {
+    when(outbox.reservar(2, Duration.ofSeconds(5)))
+        .thenReturn(List.of(registro(1, "111"), registro(2, "222")));
+    when(kafkaTemplate.send(eq("credito-audit"), eq("111"), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(kafkaTemplate.send(eq("credito-audit"), eq("222"), any()))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker indisponível")));
+
+    assertEquals(1, relay.publicarLote());
+
+    verify(outbox).excluir(List.of(1L));
+    verify(outbox).liberar(List.of(2L));
+  }
+
+  @Test
+  void publicarLote_deveManterReservados_quandoConfirmacaoNaoChegaNoPrazo() {
+    when(outbox.reservar(2, Duration.ofSeconds(5)))
+        .thenReturn(List.of(registro(1, "111"), registro(2, "222")));
+    when(kafkaTemplate.send(eq("credito-audit"), eq("111"), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(kafkaTemplate.send(eq("credito-audit"), eq("222"), any()))
+        .thenReturn(new CompletableFuture<>());
+
+    assertEquals(1, relay.publicarLote());
+
+    // O 2 só volta a ser lido quando a reserva vencer
+    verify(outbox).excluir(List.of(1L));
+    verify(outbox, never()).liberar(any());
+  }
+
+  @Test
+  void publicarLote_devePararNoPrimeiroSendComFalha_eLiberarOsNaoEnviados() {
+    when(outbox.reservar(2, Duration.ofSeconds(5)))
+        .thenReturn(List.of(registro(1, "111"), registro(2, "222")));
+    // Sem metadados do broker o send já volta com falha, depois de max.block.ms
+    when(kafkaTemplate.send(eq("credito-audit"), anyString(), any()))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("metadados")));
+
+    assertEquals(0, relay.publicarLote());
+
+    verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+    verify(outbox).liberar(List.of(1L, 2L));
+  }
+
+  @Test
+  void publicarLote_naoDeveEnviar_quandoReservaNaoComportaEspera() {
+    RelayOutboxAuditoria relayApertado = new RelayOutboxAuditoria(outbox, kafkaTemplate,
+        "credito-audit", 2, Duration.ofMillis(10), Duration.ofMillis(200), Duration.ofMillis(201),
+        false, new SimpleMeterRegistry());
+    when(outbox.reservar(2, Duration.ofMillis(201))).thenAnswer(inv -> {
+      Thread.sleep(20);
+      return List.of(registro(1, "111"), registro(2, "222"));
+    });
+
+    assertEquals(0, relayApertado.publicarLote());
+
+    verifyNoInteractions(kafkaTemplate);
+    verify(outbox).liberar(List.of(1L, 2L));
+  }
+
+  @Test
+  void contarPendentes_deveConsultarOBancoNoMaximoUmaVezPorIntervalo() {
+    when(outbox.pendentes()).thenReturn(42L);
+
+    relay.contarPendentes();
+    relay.contarPendentes();
+
+    verify(outbox, times(1)).pendentes();
+    assertEquals(42, registry.get("creditos.auditoria.outbox.pendentes").gauge().value());
+  }
+
+  @Test
+  void construtor_deveRejeitarReservaMenorQueEsperaConfirmacao() {
+    assertThrows(IllegalArgumentException.class, () -> new RelayOutboxAuditoria(outbox,
+        kafkaTemplate, "credito-audit", 2, Duration.ofMillis(10), Duration.ofSeconds(30),
+        Duration.ofSeconds(30), false, registry));
+  }
+
+  @Test
+  void publicarLote_deveRetornarZero_quandoOutboxVazio() {
+    when(outbox.reservar(2, Duration.ofSeconds(5))).thenReturn(List.of());
+
+    assertEquals(0, relay.publicarLote());
+
+    verifyNoInteractions(kafkaTemplate);
+  }
+}
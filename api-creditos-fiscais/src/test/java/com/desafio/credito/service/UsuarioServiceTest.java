@@ -1,19 +1,22 @@
 package com.desafio.credito.service;
 
+import com.desafio.credito.config.JwtPrincipalCache;
 import com.desafio.credito.entity.Usuario;
 import com.desafio.credito.repository.UsuarioRepository;
 import com.desafio.credito.dto.UsuarioRequestDTO;
 import com.desafio.credito.dto.UsuarioDTO;
 import com.desafio.credito.mapper.UsuarioMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,12 +29,17 @@ class UsuarioServiceTest {
   private PasswordEncoder passwordEncoder;
   @Mock
   private UsuarioMapper usuarioMapper;
-  @InjectMocks
+  @Mock
+  private JwtPrincipalCache principalCache;
   private UsuarioService usuarioService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    CodificadorSenhas codificadorSenhas = new CodificadorSenhas(passwordEncoder, 1, 4,
+        Duration.ofSeconds(5), new SimpleMeterRegistry());
+    usuarioService = new UsuarioService(usuarioRepository, codificadorSenhas, usuarioMapper,
+        principalCache);
   }
 
   @Test
@@ -51,6 +59,16 @@ class UsuarioServiceTest {
     verify(usuarioRepository).save(any());
   }
 
+  @Test
+  void salvarRejeitarLoginDeAdministradorAindaNaoCadastrado() {
+    usuarioService.setAdministradores(Set.of(" admin "));
+    UsuarioRequestDTO usuarioRequestDTO = new UsuarioRequestDTO("Intruso", "admin", "123");
+    IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+        () -> usuarioService.salvar(usuarioRequestDTO));
+    assertEquals("Login já está em uso", erro.getMessage());
+    verify(usuarioRepository, never()).save(any());
+  }
+
   @Test
   void autenticarRetornarUsuarioSeSenhaCorreta() {
     Usuario usuario = Usuario.builder().login("joao").senha("hash").build();
@@ -60,6 +78,17 @@ class UsuarioServiceTest {
     assertTrue(result.isPresent());
   }
 
+  @Test
+  void autenticarRefazerHashComCustoAntigoEmSegundoPlano() {
+    Usuario usuario = Usuario.builder().id(7L).login("joao").senha("hash-custo-8").build();
+    when(usuarioRepository.findByLogin("joao")).thenReturn(Optional.of(usuario));
+    when(passwordEncoder.matches("123", "hash-custo-8")).thenReturn(true);
+    when(passwordEncoder.upgradeEncoding("hash-custo-8")).thenReturn(true);
+    when(passwordEncoder.encode("123")).thenReturn("hash-custo-12");
+    assertTrue(usuarioService.autenticar("joao", "123").isPresent());
+    verify(usuarioRepository, timeout(2000)).atualizarSenha(7L, "hash-custo-8", "hash-custo-12");
+  }
+
   @Test
   void autenticarRetornarVazioSeSenhaIncorreta() {
     Usuario usuario = Usuario.builder().login("joao").senha("hash").build();
@@ -89,4 +118,13 @@ class UsuarioServiceTest {
     usuarioService.deletar(1L);
     verify(usuarioRepository).deleteById(1L);
   }
+
+  @Test
+  void deletarInvalidarTokensDoUsuario() {
+    Usuario usuario = Usuario.builder().id(1L).login("joao").build();
+    when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+    usuarioService.deletar(1L);
+    verify(principalCache).invalidarUsuario("joao");
+    verify(usuarioRepository).deleteById(1L);
+  }
 }